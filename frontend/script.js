@@ -84,7 +84,7 @@ document.addEventListener('DOMContentLoaded', () => {
     if (path.includes('dashboard.html')) {
         document.getElementById('searchInput')?.addEventListener('input', applyProductFilters);
         document.getElementById('sortSelect')?.addEventListener('change', applyProductFilters);
-        loadProductsFromApi();
+        loadProductsFromApi().then(subscribeToCatalogEvents);
     } else if (path.includes('categories.html')) {
         document.getElementById('catSearchInput')?.addEventListener('input', applyCategoryFilters);
         document.getElementById('catSortSelect')?.addEventListener('change', applyCategoryFilters);
@@ -209,7 +209,8 @@ async function loadProductsFromApi() {
     const container = document.getElementById('productList');
     if(!container) return;
     try {
-        const response = await fetch(`${API_BASE_URL}/products?size=200`);
+        // Só o que o card mostra (mapApiProductToUi): a lista não precisa de descrição, custos nem detalhes
+        const response = await fetch(`${API_BASE_URL}/products?size=200&fields=name,category,mainImage,listPrice,brand`);
         const page = await response.json();
         masterProductList = (page.content || page).map(mapApiProductToUi);
         products = [...masterProductList];
@@ -217,6 +218,27 @@ async function loadProductsFromApi() {
     } catch (error) { container.innerHTML = `<p class="col-span-full text-center text-red-500">Erro API</p>`; }
 }
 
+// Mudanças em tempo real (SSE): atualiza só o produto que mudou em vez de recarregar a lista.
+// O EventSource reconecta sozinho mandando Last-Event-ID; 'reset' = perdemos eventos, recarrega tudo.
+function subscribeToCatalogEvents() {
+    if (typeof EventSource === 'undefined') return;
+    const source = new EventSource(`${API_BASE_URL}/catalog/events`);
+    source.addEventListener('catalog-change', async (e) => {
+        const change = JSON.parse(e.data);
+        if (change.entity !== 'PRODUCT') return;
+        if (change.type === 'DELETED') {
+            masterProductList = masterProductList.filter(p => p.id !== change.id);
+        } else {
+            const res = await fetch(`${API_BASE_URL}/products/${change.id}`);
+            if (!res.ok) return;
+            const updated = mapApiProductToUi(await res.json());
+            masterProductList = [...masterProductList.filter(p => p.id !== change.id), updated];
+        }
+        applyProductFilters();
+    });
+    source.addEventListener('reset', () => loadProductsFromApi());
+}
+
 function mapApiProductToUi(p) {
     return { id: p.id, name: p.name, category: p.category || 'Geral', mainImage: getImageUrl(p.mainImage), listPrice: p.listPrice || 0, brand: p.brand || '' };
 }
@@ -280,7 +302,7 @@ async function updateProduct(e) {
 
 async function deleteProduct(id) {
     if(!confirm("Deletar?")) return;
-    try { const res = await fetch(`${API_BASE_URL}/products/${id}`, { method: 'DELETE', headers: { 'Authorization': getAuthHeader() } }); if(res.ok) loadProductsFromApi(); else alert("Erro: " + res.status); } catch(e) { alert("Erro"); }
+    try { const res = await fetch(`${API_BASE_URL}/products/${id}`, { method: 'DELETE', headers: { 'Authorization': getAuthHeader() } }); if(res.ok) { masterProductList = masterProductList.filter(p => p.id !== id); applyProductFilters(); } else alert("Erro: " + res.status); } catch(e) { alert("Erro"); }
 }
 
 async function uploadImage(id, file, endpointSuffix) {
@@ -0,0 +1,130 @@
+package com.musicstore.bluevelvet.domain.converter;
+
+import com.musicstore.bluevelvet.api.request.ProductDetailRequest;
+import com.musicstore.bluevelvet.api.request.ProductDimensionRequest;
+import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.api.response.ProductResponse;
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductImage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductConverterBenchmark {
+
+    // Produto simples (como no data.sql) e produtos com muitos detalhes/imagens
+    @Param({"3", "30", "150"})
+    int details;
+
+    @Param({"1", "10"})
+    int images;
+
+    Product product;
+    ProductRequest request;
+
+    // Mesma configuração de datas que o Spring Boot aplica ao ObjectMapper
+    final ObjectMapper mapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setup() {
+        product = Product.builder()
+                .id(42L)
+                .name("Guided by Voices - Bee Thousand")
+                .shortDescription("Indie rock classic on CD")
+                .fullDescription("Bee Thousand is the seventh album by American indie rock band Guided by Voices. ".repeat(20))
+                .brand("Matador Records")
+                .category("CD")
+                .mainImage("1764606179928_guided-by-voices.png")
+                .listPrice(new BigDecimal("19.99"))
+                .discount(new BigDecimal("10.00"))
+                .cost(new BigDecimal("10.00"))
+                .enabled(true)
+                .inStock(true)
+                .creationTime(LocalDateTime.of(2024, 11, 29, 12, 0))
+                .updateTime(LocalDateTime.of(2024, 11, 29, 12, 0))
+                .build();
+
+        List<ProductImage> additionalImages = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            additionalImages.add(ProductImage.builder().id((long) i).fileName("1764606179928_EXTRA_" + i + ".png").product(product).build());
+        }
+        product.setAdditionalImages(additionalImages);
+
+        List<ProductDetail> productDetails = new ArrayList<>();
+        List<ProductDetailRequest> detailRequests = new ArrayList<>();
+        for (int i = 0; i < details; i++) {
+            productDetails.add(ProductDetail.builder().id((long) i).name("Track " + i).value("Song title " + i).product(product).build());
+            detailRequests.add(ProductDetailRequest.builder().name("Track " + i).value("Song title " + i).build());
+        }
+        product.setProductDetails(productDetails);
+        product.setBoxDimension(BoxDimension.builder().id(1L).length(5f).width(5f).height(0.2f).weight(0.3f).product(product).build());
+
+        request = ProductRequest.builder()
+                .name(product.getName())
+                .shortDescription(product.getShortDescription())
+                .fullDescription(product.getFullDescription())
+                .brand(product.getBrand())
+                .category(product.getCategory())
+                .listPrice(product.getListPrice())
+                .discount(product.getDiscount())
+                .cost(product.getCost())
+                .isEnabled(true)
+                .inStock(true)
+                .dimension(ProductDimensionRequest.builder().length(5f).width(5f).height(0.2f).weight(0.3f).build())
+                .details(detailRequests)
+                .build();
+    }
+
+    @Benchmark
+    public ProductResponse convertToProductResponse() {
+        return ProductConverter.convertToProductResponse(product);
+    }
+
+    // Caminho antigo do GET /products: entidade -> ProductResponse -> Jackson
+    @Benchmark
+    public int serializeViaProductResponse() throws IOException {
+        out.reset();
+        mapper.writeValue(out, ProductConverter.convertToProductResponse(product));
+        return out.size();
+    }
+
+    // Caminho atual: entidade direto no JsonGenerator
+    @Benchmark
+    public int serializeStreaming() throws IOException {
+        out.reset();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            ProductJsonSerializer.writeProduct(gen, product);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public Product convertToProduct() {
+        return ProductConverter.convertToProduct(request);
+    }
+
+    @Benchmark
+    public List<ProductDetail> convertProductDetail() {
+        return ProductConverter.convertProductDetail(request);
+    }
+}
@@ -0,0 +1,76 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CategoryServiceBenchmark {
+
+    // deep: 12 níveis com 2 filhos (8191 nós); wide: 2 níveis com 200 filhos (40201 nós)
+    @Param({"deep", "wide"})
+    String shape;
+
+    CategoryService service;
+    CategoryResponse root;
+    List<Category> categories;
+
+    @Setup
+    public void setup() {
+        // mapToResponse e generateHierarchyString não usam os repositórios nem o storage
+        service = new CategoryService(null, null, null, null);
+
+        int depth = "deep".equals(shape) ? 12 : 2;
+        int width = "deep".equals(shape) ? 2 : 200;
+        long[] ids = {1};
+
+        categories = new ArrayList<>();
+        Category rootCategory = category(ids[0]++, "Root", null);
+        categories.add(rootCategory);
+        root = buildTree(rootCategory, 1, depth, width, ids);
+    }
+
+    private CategoryResponse buildTree(Category category, int level, int depth, int width, long[] ids) {
+        List<CategoryResponse> children = new ArrayList<>();
+        if (level <= depth) {
+            for (int i = 0; i < width; i++) {
+                Category child = category(ids[0]++, category.getName() + "." + i, category);
+                categories.add(child);
+                children.add(buildTree(child, level + 1, depth, width, ids));
+            }
+        }
+        return CategoryResponse.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .enabled(true)
+                .parentCategoryId(category.getParentCategory() != null ? category.getParentCategory().getId() : null)
+                .children(children)
+                .build();
+    }
+
+    private static Category category(long id, String name, Category parent) {
+        Category category = new Category(name, "Description of " + name, parent, id + "_category.png", true);
+        category.setId(id);
+        return category;
+    }
+
+    @Benchmark
+    public void mapToResponse(Blackhole blackhole) {
+        for (Category category : categories) {
+            blackhole.consume(service.mapToResponse(category));
+        }
+    }
+
+    @Benchmark
+    public String generateHierarchyString() {
+        return service.generateHierarchyString(root, 0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserva + devolução com 32 threads, no journal de verdade (fsync em lote) e sem banco.
+ * hot: todas as threads no mesmo produto (lançamento); spread: 1000 produtos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class StockLedgerBenchmark {
+
+    @Param({"hot", "spread"})
+    String shape;
+
+    Path journalDir;
+    StockLedger ledger;
+    int products;
+
+    @Setup
+    public void setup() throws IOException {
+        journalDir = Files.createTempDirectory("stock-journal-bench");
+        StockStore noDatabase = new StockStore() {
+            @Override
+            public long loadCheckpoint() {
+                return 0;
+            }
+
+            @Override
+            public List<StockSnapshot> loadCounters() {
+                return List.of();
+            }
+
+            @Override
+            public boolean isTracked(long productId) {
+                return false;
+            }
+
+            @Override
+            public List<Reservation> loadReservations() {
+                return List.of();
+            }
+
+            @Override
+            public void flush(Collection<StockSnapshot> counters, Collection<Reservation> opened,
+                              Collection<UUID> closed, long checkpointSeq) {
+            }
+        };
+        ledger = new StockLedger(new StockJournal(journalDir), noDatabase, Duration.ofMinutes(15),
+                Clock.systemUTC(), new SimpleMeterRegistry());
+        ledger.recover();
+        ledger.start(Duration.ofSeconds(1));
+
+        products = "hot".equals(shape) ? 1 : 1000;
+        for (long id = 1; id <= products; id++) {
+            ledger.setOnHand(id, Long.MAX_VALUE / 2);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ledger.close();
+        try (var files = Files.list(journalDir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(journalDir);
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        long productId = 1 + ThreadLocalRandom.current().nextInt(products);
+        Reservation reservation = ledger.reserve(productId, 1).orElseThrow();
+        return ledger.release(reservation.id());
+    }
+}
@@ -0,0 +1,79 @@
+package com.musicstore.bluevelvet.loadtest;
+
+import com.musicstore.bluevelvet.EmbeddedMariaDb;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Teste de carga de ponta a ponta: sobe a aplicação num MariaDB embarcado, semeia um catálogo sintético
+ * (SyntheticCatalogGenerator, perfil synthetic-catalog) e dispara tráfego misto (leitura, escrita e upload)
+ * nos endpoints HTTP reais.
+ *
+ * <p>Rodar com {@code ./gradlew loadTest}. Parâmetros (-P): loadTest.products, loadTest.categories,
+ * loadTest.details, loadTest.concurrency, loadTest.warmupSeconds, loadTest.durationSeconds, loadTest.seed,
+ * loadTest.uploadBytes, loadTest.baseline (report.json de referência) e loadTest.tolerance (padrão 0.10).
+ */
+@Tag("load")
+@ActiveProfiles("synthetic-catalog")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CatalogLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("bluevelvet_load"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("bluevelvet.seed.synthetic.products", () -> property("products", "5000"));
+        registry.add("bluevelvet.seed.synthetic.categories", () -> property("categories", "200"));
+        registry.add("bluevelvet.seed.synthetic.max-details", () -> property("details", "5"));
+        registry.add("bluevelvet.seed.synthetic.seed", () -> property("seed", "42"));
+        registry.add("bluevelvet.storage.local.root", () -> Paths.get(property("reportDir", "build/load-test"), "user-images").toString());
+        registry.add("bluevelvet.catalog-cache.snapshot-dir", () -> Paths.get(property("reportDir", "build/load-test"), "catalog-snapshot").toString());
+    }
+
+    @Test
+    void mixedCatalogTraffic() throws Exception {
+        // O catálogo já foi semeado pelo DataSeeder na subida do contexto
+        int products = Integer.parseInt(property("products", "5000"));
+        long seed = Long.parseLong(property("seed", "42"));
+
+        Duration duration = Duration.ofSeconds(Long.parseLong(property("durationSeconds", "30")));
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port, products,
+                Integer.parseInt(property("concurrency", "32")), seed, Integer.parseInt(property("uploadBytes", "65536")));
+        Map<String, EndpointStats> stats = generator.run(
+                Duration.ofSeconds(Long.parseLong(property("warmupSeconds", "10"))), duration);
+
+        LoadTestReport report = LoadTestReport.from(stats, duration);
+        Path reportFile = Paths.get(property("reportDir", "build/load-test"), "report.json");
+        report.write(reportFile);
+        System.out.println("\n" + report.toTable() + "Report: " + reportFile);
+
+        Assertions.assertEquals(0, report.totalErrors(), "Requests failed during the load test");
+
+        String baseline = System.getProperty("loadTest.baseline");
+        if (baseline != null) {
+            double tolerance = Double.parseDouble(property("tolerance", "0.10"));
+            List<String> regressions = report.regressionsAgainst(LoadTestReport.read(Paths.get(baseline)), tolerance);
+            Assertions.assertTrue(regressions.isEmpty(), "Performance regressions against baseline:\n" + String.join("\n", regressions));
+        }
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+}
@@ -0,0 +1,167 @@
+package com.musicstore.bluevelvet.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gerador de carga em malha fechada: cada worker escolhe uma operação pelo peso do mix,
+ * chama o endpoint real e registra a latência. O aquecimento não entra nas estatísticas.
+ */
+class LoadGenerator {
+
+    private static final String ADMIN_AUTH = "Basic " + Base64.getEncoder()
+            .encodeToString("admin@bluevelvet.com:admin1234".getBytes(StandardCharsets.UTF_8));
+
+    private final String baseUrl;
+    private final int products;
+    private final int concurrency;
+    private final long seed;
+    private final HttpClient client;
+    private final List<Operation> mix = new ArrayList<>();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final byte[] uploadPayload;
+
+    LoadGenerator(String baseUrl, int products, int concurrency, long seed, int uploadBytes) {
+        this.baseUrl = baseUrl;
+        this.products = products;
+        this.concurrency = concurrency;
+        this.seed = seed;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.uploadPayload = new byte[uploadBytes];
+        new SplittableRandom(seed).nextBytes(uploadPayload);
+
+        // Mix padrão: maioria leitura, algumas escritas e uploads
+        add("GET /products", 40, this::listProducts);
+        add("GET /products/{id}", 35, this::getProduct);
+        add("GET /api/categories", 15, this::listCategories);
+        add("PUT /products/{id}", 7, this::updateProduct);
+        add("POST /products/{id}/image", 3, this::uploadImage);
+    }
+
+    private void add(String endpoint, int weight, Call call) {
+        mix.add(new Operation(endpoint, weight, call));
+        stats.put(endpoint, new EndpointStats());
+    }
+
+    Map<String, EndpointStats> run(Duration warmup, Duration duration) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                SplittableRandom random = new SplittableRandom(seed + w);
+                workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Operation operation = pick(random.nextInt(totalWeight));
+                        long start = System.nanoTime();
+                        boolean success;
+                        try {
+                            int status = operation.call().execute(random);
+                            // 409: outra escrita concorrente no mesmo produto venceu o lock otimista, resultado esperado.
+                            // 429/503: recusada pelo bulkhead da classe, também esperado sob carga
+                            success = status >= 200 && status < 300 || status == 409 || status == 429 || status == 503;
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        if (start >= warmupEnd) {
+                            stats.get(operation.endpoint()).record(System.nanoTime() - start, success);
+                        }
+                    }
+                    return null;
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(duration.plus(warmup).toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        return stats;
+    }
+
+    private Operation pick(int ticket) {
+        for (Operation operation : mix) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private int listProducts(SplittableRandom random) throws Exception {
+        // As primeiras páginas são as mais acessadas
+        int page = random.nextInt(10) < 8 ? random.nextInt(3) : random.nextInt(Math.max(1, products / 20));
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/products?page=" + page + "&size=20")).GET().build());
+    }
+
+    private int getProduct(SplittableRandom random) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + randomProductId(random))).GET().build());
+    }
+
+    private int listCategories(SplittableRandom random) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/categories")).GET().build());
+    }
+
+    private int updateProduct(SplittableRandom random) throws Exception {
+        long id = randomProductId(random);
+        String body = """
+                {"name":"Product %d","shortDescription":"Updated by load test","fullDescription":"Updated full description %d",
+                 "brand":"Brand %d","category":"1","listPrice":%d.99,"discount":0,"cost":5.00,
+                 "isEnabled":true,"inStock":true,
+                 "dimension":{"length":10,"width":10,"height":1,"weight":0.3},
+                 "details":[{"name":"Detail 0","value":"Value %d"},{"name":"Detail 1","value":"Value 1"}]}
+                """.formatted(id, random.nextInt(1000), random.nextInt(200), 5 + random.nextInt(200), random.nextInt(1000));
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+                .header("Content-Type", "application/json")
+                .header("Authorization", ADMIN_AUTH)
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private int uploadImage(SplittableRandom random) throws Exception {
+        String boundary = "----loadtest" + random.nextLong();
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load-test.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + randomProductId(random) + "/image"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("Authorization", ADMIN_AUTH)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofByteArray(head),
+                        HttpRequest.BodyPublishers.ofByteArray(uploadPayload),
+                        HttpRequest.BodyPublishers.ofByteArray(tail)))
+                .build());
+    }
+
+    private long randomProductId(SplittableRandom random) {
+        return 1 + random.nextInt(products);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        int execute(SplittableRandom random) throws Exception;
+    }
+
+    private record Operation(String endpoint, int weight, Call call) {
+    }
+}
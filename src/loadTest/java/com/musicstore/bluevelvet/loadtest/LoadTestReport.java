@@ -0,0 +1,97 @@
+package com.musicstore.bluevelvet.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relatório por endpoint (vazão e percentis) gravado em JSON,
+ * para comparar cada mudança de performance com um baseline.
+ */
+class LoadTestReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Map<String, Number>> endpoints = new LinkedHashMap<>();
+
+    static LoadTestReport from(Map<String, EndpointStats> stats, Duration duration) {
+        LoadTestReport report = new LoadTestReport();
+        double seconds = duration.toMillis() / 1000.0;
+        stats.forEach((endpoint, s) -> {
+            Map<String, Number> values = new LinkedHashMap<>();
+            values.put("requests", s.count());
+            values.put("errors", s.errors());
+            values.put("throughputPerSecond", round(s.count() / seconds));
+            values.put("p50Millis", round(s.percentileMillis(50)));
+            values.put("p95Millis", round(s.percentileMillis(95)));
+            values.put("p99Millis", round(s.percentileMillis(99)));
+            values.put("maxMillis", round(s.maxMillis()));
+            report.endpoints.put(endpoint, values);
+        });
+        return report;
+    }
+
+    static LoadTestReport read(Path file) throws IOException {
+        LoadTestReport report = new LoadTestReport();
+        report.endpoints.putAll(MAPPER.readValue(file.toFile(), new TypeReference<Map<String, Map<String, Number>>>() {
+        }));
+        return report;
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        MAPPER.writeValue(file.toFile(), endpoints);
+    }
+
+    String toTable() {
+        StringBuilder sb = new StringBuilder(String.format("%-28s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        endpoints.forEach((endpoint, v) -> sb.append(String.format("%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, v.get("requests").longValue(), v.get("errors").longValue(),
+                v.get("throughputPerSecond").doubleValue(), v.get("p50Millis").doubleValue(),
+                v.get("p95Millis").doubleValue(), v.get("p99Millis").doubleValue(), v.get("maxMillis").doubleValue())));
+        return sb.toString();
+    }
+
+    long totalErrors() {
+        return endpoints.values().stream().mapToLong(v -> v.get("errors").longValue()).sum();
+    }
+
+    /**
+     * Regressões em relação ao baseline: p95 acima de (1 + tolerância) ou vazão abaixo de (1 - tolerância).
+     * Endpoints que não existem no baseline são ignorados.
+     */
+    List<String> regressionsAgainst(LoadTestReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((endpoint, current) -> {
+            Map<String, Number> base = baseline.endpoints.get(endpoint);
+            if (base == null) {
+                return;
+            }
+            double currentP95 = current.get("p95Millis").doubleValue();
+            double baseP95 = base.get("p95Millis").doubleValue();
+            if (currentP95 > baseP95 * (1 + tolerance)) {
+                regressions.add(String.format("%s: p95 %.2fms > baseline %.2fms", endpoint, currentP95, baseP95));
+            }
+            double currentThroughput = current.get("throughputPerSecond").doubleValue();
+            double baseThroughput = base.get("throughputPerSecond").doubleValue();
+            if (currentThroughput < baseThroughput * (1 - tolerance)) {
+                regressions.add(String.format("%s: %.1f req/s < baseline %.1f req/s", endpoint, currentThroughput, baseThroughput));
+            }
+        });
+        return regressions;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
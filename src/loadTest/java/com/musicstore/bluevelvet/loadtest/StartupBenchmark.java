@@ -0,0 +1,138 @@
+package com.musicstore.bluevelvet.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.musicstore.bluevelvet.EmbeddedMariaDb;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo até a primeira requisição: do fork da JVM até o primeiro GET /products respondido com 200,
+ * subindo o jar empacotado como processo separado, do jeito que o deploy sobe.
+ * Compara o jar puro, o jar com AOT e, se o {@code ./gradlew cdsArchive} já rodou, AOT + CDS.
+ *
+ * <p>Rodar com {@code ./gradlew startupBenchmark}. Parâmetros (-P): startup.runs (padrão 3) e
+ * startup.timeoutSeconds (padrão 120).
+ */
+@Tag("startup")
+class StartupBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        int runs = Integer.parseInt(property("runs", "3"));
+        String datasourceUrl = EmbeddedMariaDb.shared().createDatabase("bluevelvet_startup");
+        Path workDir = Files.createDirectories(Paths.get(property("reportDir", "build/startup")));
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        String jar = System.getProperty("startup.jar");
+        Assertions.assertNotNull(jar, "startup.jar não informado: rode pelo ./gradlew startupBenchmark");
+        variants.put("jar", List.of("-jar", jar));
+        variants.put("aot", List.of("-Dspring.aot.enabled=true", "-jar", jar));
+        Path cdsArchive = Paths.get(property("cdsArchive", "build/cds/application/application.jsa"));
+        if (Files.isRegularFile(cdsArchive)) {
+            variants.put("aot+cds", List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Dspring.aot.enabled=true",
+                    "-jar", property("extractedJar", "")));
+        } else {
+            System.out.println("Sem " + cdsArchive + ": rode ./gradlew cdsArchive para medir com CDS");
+        }
+
+        // A primeira subida aplica as migrações e semeia o banco; não entra na conta (o deploy sobe num banco pronto)
+        timeToFirstRequest(variants.get("jar"), datasourceUrl, workDir.resolve("warmup.log"));
+
+        Map<String, Map<String, Number>> report = new LinkedHashMap<>();
+        StringBuilder table = new StringBuilder(String.format("%-10s %10s %10s %10s%n", "variant", "min ms", "median ms", "max ms"));
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            List<Long> millis = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                millis.add(timeToFirstRequest(variant.getValue(), datasourceUrl,
+                        workDir.resolve(variant.getKey() + "-" + run + ".log")));
+            }
+            millis.sort(null);
+            Map<String, Number> values = new LinkedHashMap<>();
+            values.put("runs", runs);
+            values.put("minMillis", millis.get(0));
+            values.put("medianMillis", millis.get(millis.size() / 2));
+            values.put("maxMillis", millis.get(millis.size() - 1));
+            report.put(variant.getKey(), values);
+            table.append(String.format("%-10s %10d %10d %10d%n", variant.getKey(),
+                    millis.get(0), millis.get(millis.size() / 2), millis.get(millis.size() - 1)));
+        }
+
+        Path reportFile = workDir.resolve("report.json");
+        MAPPER.writeValue(reportFile.toFile(), report);
+        System.out.println("\nTime to first request\n" + table + "Report: " + reportFile);
+    }
+
+    private static long timeToFirstRequest(List<String> jvmArgs, String datasourceUrl, Path log) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs);
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + datasourceUrl);
+        command.add("--spring.datasource.username=root");
+        command.add("--spring.datasource.password=");
+        command.add("--bluevelvet.stock.journal-dir=" + Files.createTempDirectory("stock-journal"));
+        command.add("--bluevelvet.storage.local.root=" + Files.createTempDirectory("user-images"));
+        command.add("--bluevelvet.catalog-cache.snapshot-dir=" + Files.createTempDirectory("catalog-snapshot"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products?size=1")).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(property("timeoutSeconds", "120")));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("A aplicação saiu com código " + process.exitValue() + ", veja " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Ainda subindo
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("A aplicação não respondeu a tempo, veja " + log);
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("startup." + name, defaultValue);
+    }
+}
@@ -1,10 +1,12 @@
 package com.musicstore.bluevelvet.api.controller;
 
+import com.musicstore.bluevelvet.domain.event.AuditEvent;
 import com.musicstore.bluevelvet.infrastructure.entity.Role;
 import com.musicstore.bluevelvet.infrastructure.entity.User;
 import com.musicstore.bluevelvet.infrastructure.repository.RoleRepository;
 import com.musicstore.bluevelvet.infrastructure.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,6 +25,8 @@ public class AuthController {
     private RoleRepository roleRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     private final UserRepository userRepository;
 
     public AuthController(UserRepository userRepository) {
@@ -76,6 +80,7 @@ public class AuthController {
 
         User newUser = new User(data.name(), data.email(), passwordEncoder.encode(data.password()), roleOptional.get());
         this.userRepository.save(newUser);
+        eventPublisher.publishEvent(AuditEvent.user(newUser.getId(), AuditEvent.Action.CREATED));
 
         return ResponseEntity.ok(new UserResponseDTO(newUser.getId(), newUser.getName(), newUser.getEmail(), roleKey));
     }
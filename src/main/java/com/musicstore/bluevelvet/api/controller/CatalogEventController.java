@@ -0,0 +1,242 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutboxDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mudanças do catálogo em Server-Sent Events (evento {@code catalog-change}, id = seq do outbox).
+ * Ao reconectar o navegador manda Last-Event-ID e recebe o que perdeu; se a retenção do outbox
+ * já apagou parte disso, recebe um {@code reset} e deve recarregar a listagem.
+ * <p>
+ * O dispatcher do outbox só enfileira: cada assinante tem uma fila limitada e os envios rodam num pool
+ * próprio ({@code catalog-sse-}). Um cliente lento bloqueia no máximo uma thread desse pool; quando a fila
+ * dele enche, a conexão é encerrada e o navegador reconecta com Last-Event-ID, recuperando o que perdeu.
+ */
+@Log4j2
+@RestController
+@RequestMapping("/catalog/events")
+public class CatalogEventController implements Closeable {
+
+    private static final int REPLAY_BATCH = 500;
+
+    private final CatalogOutbox outbox;
+    private final CatalogOutboxDispatcher dispatcher;
+    private final Duration timeout;
+    private final int queueCapacity;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final Counter droppedSubscribers;
+
+    public CatalogEventController(CatalogOutbox outbox, CatalogOutboxDispatcher dispatcher, MeterRegistry meterRegistry,
+                                  @Value("${bluevelvet.outbox.sse-timeout:30m}") Duration timeout,
+                                  @Value("${bluevelvet.outbox.sse-queue-capacity:1000}") int queueCapacity,
+                                  @Value("${bluevelvet.outbox.sse-sender-threads:4}") int senderThreads) {
+        this.outbox = outbox;
+        this.dispatcher = dispatcher;
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedSubscribers = meterRegistry.counter("catalog.events.dropped");
+        meterRegistry.gaugeCollectionSize("catalog.events.subscribers", List.of(), subscribers);
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                @RequestParam(required = false) Long since) throws IOException {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Long resumeFrom = since != null ? since : parseSeq(lastEventId);
+
+        // Registra antes de ler o histórico: o que chegar durante a leitura fica na fila do assinante
+        Subscriber subscriber = new Subscriber(emitter, resumeFrom != null ? resumeFrom : dispatcher.lastDispatchedSeq());
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        subscriber.lock.lock();
+        try {
+            if (resumeFrom != null && !outbox.canResumeFrom(resumeFrom)) {
+                subscriber.lastSentSeq = dispatcher.lastDispatchedSeq();
+                emitter.send(SseEmitter.event().name("reset").id(String.valueOf(subscriber.lastSentSeq)).data(""));
+            } else if (resumeFrom != null) {
+                List<CatalogChangeRecord> batch;
+                do {
+                    batch = outbox.readAfter(subscriber.lastSentSeq, REPLAY_BATCH);
+                    for (CatalogChangeRecord record : batch) {
+                        subscriber.sendIfNew(record);
+                    }
+                } while (batch.size() == REPLAY_BATCH);
+            }
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            throw e;
+        } finally {
+            subscriber.lock.unlock();
+        }
+        // O que chegou durante o replay ficou na fila
+        subscriber.schedule();
+        return emitter;
+    }
+
+    // Roda na thread do dispatcher: só enfileira, nunca escreve no socket
+    @EventListener
+    public void onCatalogChange(CatalogChangeRecord record) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.offer(record)) {
+                subscriber.drop();
+                continue;
+            }
+            subscriber.schedule();
+        }
+    }
+
+    // Comentário a cada 15s: mantém proxies com a conexão aberta e descobre clientes que já foram embora
+    @Scheduled(fixedDelay = 15_000)
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+    }
+
+    private static Long parseSeq(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final BlockingQueue<CatalogChangeRecord> pending = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private long lastSentSeq;
+
+        private Subscriber(SseEmitter emitter, long lastSentSeq) {
+            this.emitter = emitter;
+            this.lastSentSeq = lastSentSeq;
+        }
+
+        // No máximo uma tarefa de envio por assinante no pool
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::flush);
+                } catch (RuntimeException e) {
+                    // Pool encerrado (desligamento)
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        // Fila cheia: cliente lento demais. Encerrar é com o pool, que pode ficar preso no socket dele
+        private void drop() {
+            if (dropped.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                pending.clear();
+                droppedSubscribers.increment();
+                log.debug("Dropping slow catalog event subscriber");
+                schedule();
+            }
+        }
+
+        private void flush() {
+            do {
+                // Replay em andamento: quem tem o lock chama schedule() ao terminar
+                if (!lock.tryLock()) {
+                    scheduled.set(false);
+                    if (lock.isLocked()) {
+                        return;
+                    }
+                    // Soltou antes de ver a flag livre: a condição do laço reagenda aqui
+                    continue;
+                }
+                try {
+                    if (dropped.get()) {
+                        pending.clear();
+                        emitter.complete();
+                        return;
+                    }
+                    CatalogChangeRecord record;
+                    while ((record = pending.poll()) != null) {
+                        sendIfNew(record);
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(this);
+                    pending.clear();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                scheduled.set(false);
+                // Algo chegou entre o último poll e a liberação da flag: continua aqui mesmo
+            } while ((!pending.isEmpty() || heartbeatDue || dropped.get()) && scheduled.compareAndSet(false, true));
+        }
+
+        private void sendIfNew(CatalogChangeRecord record) throws IOException {
+            if (record.seq() <= lastSentSeq) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .name("catalog-change")
+                    .id(String.valueOf(record.seq()))
+                    .data(Map.of(
+                            "seq", record.seq(),
+                            "entity", record.change().entity(),
+                            "id", record.change().id(),
+                            "type", record.change().type(),
+                            "occurredAt", record.occurredAt().toString()), MediaType.APPLICATION_JSON));
+            lastSentSeq = record.seq();
+        }
+    }
+}
@@ -3,13 +3,16 @@ package com.musicstore.bluevelvet.api.controller;
 import com.musicstore.bluevelvet.api.request.CategoryRequest;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
 import com.musicstore.bluevelvet.domain.service.CategoryService;
+import com.musicstore.bluevelvet.infrastructure.bulkhead.UploadExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
 
@@ -20,6 +23,7 @@ import java.util.List;
 public class CategoryRestController {
 
     private final CategoryService categoryService;
+    private final UploadExecutor uploadExecutor;
 
     @GetMapping
     public ResponseEntity<?> listCategories(
@@ -38,20 +42,26 @@ public class CategoryRestController {
 
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategory(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.findById(id));
+        CategoryResponse category = categoryService.findById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(category.getVersion())).body(category);
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CategoryResponse> createCategory(@ModelAttribute CategoryRequest request) {
+    public WebAsyncTask<ResponseEntity<CategoryResponse>> createCategory(@ModelAttribute CategoryRequest request) {
         log.info("Creating category: {}", request.getName());
-        return ResponseEntity.ok(categoryService.create(request));
+        return uploadExecutor.submit(() -> ResponseEntity.ok(categoryService.create(request)));
     }
 
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<CategoryResponse> updateCategory(@PathVariable Long id, @ModelAttribute CategoryRequest request) {
+    public WebAsyncTask<ResponseEntity<CategoryResponse>> updateCategory(@PathVariable Long id, @ModelAttribute CategoryRequest request,
+                                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating category id: {}", id);
-        return ResponseEntity.ok(categoryService.update(id, request));
+        Long expectedVersion = ETags.parseVersion(ifMatch);
+        return uploadExecutor.submit(() -> {
+            CategoryResponse category = categoryService.update(id, request, expectedVersion);
+            return ResponseEntity.ok().eTag(String.valueOf(category.getVersion())).body(category);
+        });
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,28 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.domain.exception.PreconditionFailedException;
+
+/** ETag dos recursos versionados: a própria versão (@Version), entre aspas. */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /** Versão pedida no If-Match, ou null quando não há pré-condição (header ausente ou "*"). */
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            // Nenhuma versão nossa tem esse ETag, então a pré-condição não é atendida
+            throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.infrastructure.storage.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serve /user-images/** quando as imagens ficam num storage remoto.
+ * Com storage local o WebConfig continua servindo direto do disco.
+ */
+@Log4j2
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bluevelvet.storage.type", havingValue = "s3")
+public class ImageController {
+
+    private final ImageStorage storage;
+
+    @GetMapping("/user-images/{key:.+}")
+    public ResponseEntity<?> getImage(@PathVariable String key) throws IOException {
+        // Leitura assinada: o cliente baixa direto do bucket, sem ocupar a aplicação
+        Optional<URI> readUrl = storage.readUrl(key);
+        if (readUrl.isPresent()) {
+            return ResponseEntity.status(302).location(readUrl.get()).build();
+        }
+
+        try {
+            MediaType mediaType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                    .body(new InputStreamResource(storage.load(key)));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
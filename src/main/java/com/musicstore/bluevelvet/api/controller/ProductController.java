@@ -1,18 +1,31 @@
 package com.musicstore.bluevelvet.api.controller;
 
 import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.api.response.ProductBatchResponse;
+import com.musicstore.bluevelvet.api.response.ProductChangesResponse;
 import com.musicstore.bluevelvet.api.response.ProductResponse;
+import com.musicstore.bluevelvet.domain.converter.ProductView;
+import com.musicstore.bluevelvet.domain.service.ProductField;
 import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.infrastructure.bulkhead.UploadExecutor;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @Log4j2
 @RestController
@@ -21,15 +34,43 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService service;
+    private final UploadExecutor uploadExecutor;
 
+    // As leituras devolvem a entidade; o ProductJsonSerializer escreve o mesmo JSON do ProductResponse.
+    // fields=name,listPrice,... limita o JSON e o que é lido do banco (sem fields: tudo)
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(service.findById(id));
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = ProductResponse.class)))
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id,
+                                                      @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = ProductField.parse(fields);
+        Product product = service.findById(id, selected);
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(ProductView.of(product, selected));
     }
 
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(Pageable pageable) {
-        return ResponseEntity.ok(service.findAll(pageable));
+    public ResponseEntity<Page<ProductView>> getAllProducts(Pageable pageable,
+                                                            @RequestParam(required = false) BigDecimal minPrice,
+                                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                                            @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = ProductField.parse(fields);
+        return ResponseEntity.ok(service.findAll(pageable, minPrice, maxPrice, selected)
+                .map(product -> ProductView.of(product, selected)));
+    }
+
+    // Leitura em lote: /products?ids=3,1,7 (ou ids=3&ids=1...), na ordem pedida, até 500 ids
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids,
+                                                                 @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(service.findByIds(ids, ProductField.parse(fields)));
+    }
+
+    // Sincronização incremental: guarde o watermark e mande como since na próxima vez.
+    // Enquanto vier continuation, há mais páginas
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponse> getChanges(@RequestParam(required = false) Long since,
+                                                             @RequestParam(required = false) String continuation,
+                                                             @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(service.findChanges(since, continuation, limit));
     }
 
     @DeleteMapping("/{id}")
@@ -43,20 +84,24 @@ public class ProductController {
         return ResponseEntity.ok(service.createProduct(request));
     }
 
+    // If-Match com o ETag do GET: versão diferente => 412; edição concorrente no meio do caminho => 409
     @PutMapping("/{id}")
-    public ResponseEntity<ProductResponse> updateProductById(@PathVariable Long id, @RequestBody ProductRequest request) {
-        return ResponseEntity.ok(service.updateProduct(id, request));
+    public ResponseEntity<ProductResponse> updateProductById(@PathVariable Long id, @RequestBody ProductRequest request,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductResponse response = service.updateProduct(id, request, ETags.parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(response.getVersion())).body(response);
     }
 
+    // Uploads: o corpo já foi lido pelo Tomcat; gravar no storage e no banco fica com o pool de uploads
     @PostMapping("/{id}/image")
-    public ResponseEntity<ProductResponse> uploadProductImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
-        return ResponseEntity.ok(service.updateProductImage(id, file));
+    public WebAsyncTask<ResponseEntity<ProductResponse>> uploadProductImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        return uploadExecutor.submit(() -> ResponseEntity.ok(service.updateProductImage(id, file)));
     }
 
     // --- NOVO: Endpoint para imagens extras ---
     @PostMapping("/{id}/images")
-    public ResponseEntity<ProductResponse> uploadAdditionalImages(@PathVariable Long id, @RequestParam("files") List<MultipartFile> files) {
+    public WebAsyncTask<ResponseEntity<ProductResponse>> uploadAdditionalImages(@PathVariable Long id, @RequestParam("files") List<MultipartFile> files) {
         log.info("Recebendo {} imagens adicionais para o produto {}", files.size(), id);
-        return ResponseEntity.ok(service.addAdditionalImages(id, files));
+        return uploadExecutor.submit(() -> ResponseEntity.ok(service.addAdditionalImages(id, files)));
     }
 }
\ No newline at end of file
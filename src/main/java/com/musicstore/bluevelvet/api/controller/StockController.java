@@ -0,0 +1,50 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.request.StockRequest;
+import com.musicstore.bluevelvet.api.request.StockReservationRequest;
+import com.musicstore.bluevelvet.api.response.StockReservationResponse;
+import com.musicstore.bluevelvet.api.response.StockResponse;
+import com.musicstore.bluevelvet.domain.service.StockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/products/{id}/stock")
+public class StockController {
+
+    private final StockService service;
+
+    @GetMapping
+    public ResponseEntity<StockResponse> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(service.getStock(id));
+    }
+
+    @PutMapping
+    public ResponseEntity<StockResponse> setStock(@PathVariable Long id, @RequestBody StockRequest request) {
+        return ResponseEntity.ok(service.setOnHand(id, request.getOnHand()));
+    }
+
+    // Sem unidades suficientes => 409. A reserva expira sozinha (bluevelvet.stock.reservation-ttl)
+    @PostMapping("/reservations")
+    public ResponseEntity<StockReservationResponse> reserve(@PathVariable Long id,
+                                                            @RequestBody StockReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.reserve(id, request.getQuantity()));
+    }
+
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<Void> commit(@PathVariable Long id, @PathVariable UUID reservationId) {
+        service.commit(id, reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable Long id, @PathVariable UUID reservationId) {
+        service.release(id, reservationId);
+        return ResponseEntity.noContent().build();
+    }
+}
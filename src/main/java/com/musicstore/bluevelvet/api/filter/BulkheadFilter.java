@@ -0,0 +1,185 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicstore.bluevelvet.domain.dto.ProblemDetails;
+import com.musicstore.bluevelvet.infrastructure.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead por classe de endpoint: leituras, escritas e uploads (multipart) têm limites de concorrência
+ * separados, para que uma rajada de uploads de 10MB não ocupe as threads e conexões que atendem a vitrine.
+ * Acima do limite a resposta é imediata: 429 para uploads (limite de uso), 503 para leituras e escritas
+ * (capacidade), ambas com Retry-After.
+ * <p>
+ * Roda depois do CatalogResponseCacheFilter: acerto no cache de respostas não consome vaga.
+ * Em requisição assíncrona (uploads) a vaga só é devolvida quando o processamento termina.
+ */
+@Log4j2
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 3)
+@ConditionalOnProperty(name = "bluevelvet.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {
+        READ(HttpStatus.SERVICE_UNAVAILABLE),
+        WRITE(HttpStatus.SERVICE_UNAVAILABLE),
+        UPLOAD(HttpStatus.TOO_MANY_REQUESTS);
+
+        private final HttpStatus rejectionStatus;
+
+        EndpointClass(HttpStatus rejectionStatus) {
+            this.rejectionStatus = rejectionStatus;
+        }
+    }
+
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final List<String> excludedPaths;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public BulkheadFilter(@Value("${bluevelvet.bulkhead.read.max-concurrent:150}") int readMaxConcurrent,
+                          @Value("${bluevelvet.bulkhead.read.max-wait:50ms}") Duration readMaxWait,
+                          @Value("${bluevelvet.bulkhead.write.max-concurrent:6}") int writeMaxConcurrent,
+                          @Value("${bluevelvet.bulkhead.write.max-wait:200ms}") Duration writeMaxWait,
+                          @Value("${bluevelvet.bulkhead.upload.max-concurrent:4}") int uploadMaxConcurrent,
+                          @Value("${bluevelvet.bulkhead.upload.max-wait:0s}") Duration uploadMaxWait,
+                          @Value("${bluevelvet.bulkhead.excluded-paths:/actuator/**,/catalog/events}") List<String> excludedPaths,
+                          @Value("${bluevelvet.bulkhead.retry-after:1s}") Duration retryAfter,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        bulkheads.put(EndpointClass.READ, new Bulkhead("read", readMaxConcurrent, readMaxWait, meterRegistry));
+        bulkheads.put(EndpointClass.WRITE, new Bulkhead("write", writeMaxConcurrent, writeMaxWait, meterRegistry));
+        bulkheads.put(EndpointClass.UPLOAD, new Bulkhead("upload", uploadMaxConcurrent, uploadMaxWait, meterRegistry));
+        this.excludedPaths = List.copyOf(excludedPaths);
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.objectMapper = objectMapper;
+    }
+
+    /** Classe da requisição, ou null para as que não passam por limite (OPTIONS, health check, SSE). */
+    public EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("OPTIONS".equals(method)) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excluded : excludedPaths) {
+            if (pathMatcher.match(excluded, path)) {
+                return null;
+            }
+        }
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase().startsWith("multipart/")) {
+            return EndpointClass.UPLOAD;
+        }
+        return "GET".equals(method) || "HEAD".equals(method) ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Bulkhead bulkhead = bulkheads.get(endpointClass);
+        if (!bulkhead.tryAcquire()) {
+            reject(request, response, endpointClass);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkhead));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, EndpointClass endpointClass) throws IOException {
+        log.debug("Bulkhead {} full, rejecting {} {}", endpointClass, request.getMethod(), request.getRequestURI());
+        HttpStatus status = endpointClass.rejectionStatus;
+        ProblemDetails problemDetails = ProblemDetails.builder()
+                .timestamp(LocalDateTime.now())
+                .path(request.getRequestURI())
+                .error(status.getReasonPhrase())
+                .status(status.value())
+                .userMessage("Servidor ocupado. Tente novamente em instantes.")
+                .build();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), problemDetails);
+    }
+
+    // Complete, erro e timeout podem chegar juntos: a vaga é devolvida uma vez só
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnComplete(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Novo ciclo assíncrono da mesma requisição: continua ouvindo
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
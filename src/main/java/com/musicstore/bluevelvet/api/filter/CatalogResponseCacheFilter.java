@@ -0,0 +1,95 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.infrastructure.cache.CachedResponse;
+import com.musicstore.bluevelvet.infrastructure.cache.CatalogResponseCache;
+import com.musicstore.bluevelvet.infrastructure.datasource.ReplicaRoutingDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Responde as páginas quentes do catálogo direto dos bytes do {@link CatalogResponseCache},
+ * na codificação pedida pelo Accept-Encoding. Roda depois do Spring Security (CORS e autorização
+ * continuam valendo) e antes do DispatcherServlet.
+ */
+@Component
+@ConditionalOnProperty(name = "bluevelvet.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 2)
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private final CatalogResponseCache cache;
+
+    public CatalogResponseCacheFilter(CatalogResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = cache.keyOf(request);
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String encoding = CatalogResponseCache.preferredEncoding(
+                request.getHeader(HttpHeaders.ACCEPT_ENCODING), cache.isBrotliAvailable());
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            write(request, response, cached, encoding);
+            return;
+        }
+
+        // Miss: gera a resposta normalmente, mas segura o corpo para comprimir e guardar
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        // O que entra no cache é lido do primário: uma réplica atrasada deixaria a entrada velha até a próxima escrita
+        boolean primaryForced = ReplicaRoutingDataSource.isPrimaryForced();
+        ReplicaRoutingDataSource.setPrimaryForced(true);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryForced(primaryForced);
+        }
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && !response.isCommitted()
+                && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+            cached = cache.put(key, generation, wrapper.getContentType(), wrapper.getContentAsByteArray());
+        }
+        if (cached == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        write(request, response, cached, encoding);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached, String encoding)
+            throws IOException {
+        String etag = cached.etag(encoding);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = cached.body(encoding);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
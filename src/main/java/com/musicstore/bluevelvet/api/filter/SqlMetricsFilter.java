@@ -0,0 +1,65 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.infrastructure.sql.SqlEndpointMetrics;
+import com.musicstore.bluevelvet.infrastructure.sql.SqlStatementRecorder;
+import com.musicstore.bluevelvet.infrastructure.sql.SqlStatementStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Conta os statements de cada requisição e avisa quando o mesmo SQL se repete demais (provável N+1).
+ */
+@Log4j2
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "bluevelvet.sql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlEndpointMetrics endpointMetrics;
+    private final int repeatedStatementThreshold;
+
+    public SqlMetricsFilter(SqlEndpointMetrics endpointMetrics,
+                            @Value("${bluevelvet.sql.metrics.repeated-statement-threshold:5}") int repeatedStatementThreshold) {
+        this.endpointMetrics = endpointMetrics;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementRecorder.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementRecorder.end();
+            if (stats.getStatements() > 0) {
+                String endpoint = endpointOf(request);
+                Map<String, Long> repeated = stats.repeatedStatements(repeatedStatementThreshold);
+                endpointMetrics.record(endpoint, stats, !repeated.isEmpty());
+
+                log.debug("sql endpoint=\"{}\" status={} statements={} rows={} sqlTimeMs={}",
+                        endpoint, response.getStatus(), stats.getStatements(), stats.getRows(), stats.getElapsedMillis());
+                repeated.forEach((sql, count) ->
+                        log.warn("Possible N+1 on {}: statement executed {} times: {}", endpoint, count, sql));
+            }
+        }
+    }
+
+    private String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+}
@@ -2,10 +2,16 @@ package com.musicstore.bluevelvet.api.handler;
 
 import com.musicstore.bluevelvet.domain.dto.ProblemDetails;
 import com.musicstore.bluevelvet.domain.exception.CategoryNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.InsufficientStockException;
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import com.musicstore.bluevelvet.domain.exception.PreconditionFailedException;
 import com.musicstore.bluevelvet.domain.exception.ProductNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.ReservationNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.StockUnavailableException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
@@ -16,17 +22,59 @@ import java.time.LocalDateTime;
 @RestControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
-    @ExceptionHandler(value = { ProductNotFoundException.class, CategoryNotFoundException.class })
+    @ExceptionHandler(value = { ProductNotFoundException.class, CategoryNotFoundException.class,
+            ReservationNotFoundException.class })
     private ResponseEntity<?> handleNotFound(RuntimeException exception, WebRequest request) {
+        return problem(exception, HttpStatus.NOT_FOUND, exception.getMessage(), request);
+    }
+
+    @ExceptionHandler(value = { InvalidQueryParameterException.class })
+    private ResponseEntity<?> handleBadRequest(RuntimeException exception, WebRequest request) {
+        return problem(exception, HttpStatus.BAD_REQUEST, exception.getMessage(), request);
+    }
+
+    // If-Match com versão antiga
+    @ExceptionHandler(value = { PreconditionFailedException.class })
+    private ResponseEntity<?> handlePreconditionFailed(RuntimeException exception, WebRequest request) {
+        return problem(exception, HttpStatus.PRECONDITION_FAILED, exception.getMessage(), request);
+    }
+
+    // Outra edição foi gravada entre a leitura e o commit (@Version)
+    @ExceptionHandler(value = { ObjectOptimisticLockingFailureException.class })
+    private ResponseEntity<?> handleConflict(RuntimeException exception, WebRequest request) {
+        return problem(exception, HttpStatus.CONFLICT,
+                "O registro foi alterado por outra pessoa. Recarregue e tente novamente.", request);
+    }
+
+    // Reserva maior que o disponível
+    @ExceptionHandler(value = { InsufficientStockException.class })
+    private ResponseEntity<?> handleInsufficientStock(RuntimeException exception, WebRequest request) {
+        return problem(exception, HttpStatus.CONFLICT, exception.getMessage(), request);
+    }
+
+    // Estoque desligado ou este nó não é o dono da lease: outra tentativa pode cair no dono
+    @ExceptionHandler(value = { StockUnavailableException.class })
+    private ResponseEntity<?> handleStockUnavailable(RuntimeException exception, WebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "5");
+        return problem(exception, HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage(), headers, request);
+    }
+
+    private ResponseEntity<?> problem(RuntimeException exception, HttpStatus status, String message, WebRequest request) {
+        return problem(exception, status, message, new HttpHeaders(), request);
+    }
+
+    private ResponseEntity<?> problem(RuntimeException exception, HttpStatus status, String message, HttpHeaders headers,
+                                      WebRequest request) {
         ProblemDetails problemDetails = ProblemDetails.builder()
                 .timestamp(LocalDateTime.now())
                 .path(request.getContextPath())
-                .error(HttpStatus.NOT_FOUND.getReasonPhrase())
-                .status(HttpStatus.NOT_FOUND.value())
-                .userMessage(exception.getMessage())
+                .error(status.getReasonPhrase())
+                .status(status.value())
+                .userMessage(message)
                 .build();
 
-        return handleExceptionInternal(exception, problemDetails, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
+        return handleExceptionInternal(exception, problemDetails, headers, status, request);
     }
 
 }
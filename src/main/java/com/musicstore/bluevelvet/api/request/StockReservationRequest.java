@@ -0,0 +1,15 @@
+package com.musicstore.bluevelvet.api.request;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+
+    private Integer quantity;
+
+}
@@ -9,6 +9,7 @@ import java.util.List;
 @Builder
 public class CategoryResponse {
     Long id;
+    Long version;
     String name;
     String description;
     String image;
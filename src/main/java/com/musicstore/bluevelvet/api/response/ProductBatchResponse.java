@@ -0,0 +1,15 @@
+package com.musicstore.bluevelvet.api.response;
+
+import com.musicstore.bluevelvet.domain.converter.ProductView;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ProductBatchResponse {
+    // Na ordem dos ids pedidos, no mesmo JSON do GET /products/{id} (com os mesmos fields=)
+    List<ProductView> products;
+    List<Long> missingIds;
+}
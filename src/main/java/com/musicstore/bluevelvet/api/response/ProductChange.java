@@ -0,0 +1,18 @@
+package com.musicstore.bluevelvet.api.response;
+
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ProductChange {
+
+    public enum Type { UPSERT, DELETE }
+
+    Long seq;
+    Long id;
+    Type type;
+    // null quando type = DELETE; senão o mesmo JSON do GET /products/{id}
+    Product product;
+}
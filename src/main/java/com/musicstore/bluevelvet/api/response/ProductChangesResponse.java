@@ -0,0 +1,16 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ProductChangesResponse {
+    List<ProductChange> changes;
+    // Passe como since na próxima consulta
+    Long watermark;
+    // Presente quando há mais mudanças do que cabem na resposta: peça a próxima página com ?continuation=
+    String continuation;
+}
@@ -15,6 +15,7 @@ import java.util.List;
 @AllArgsConstructor
 public class ProductResponse {
     private Long id;
+    private Long version;
     private String name;
     private String shortDescription;
     private String fullDescription;
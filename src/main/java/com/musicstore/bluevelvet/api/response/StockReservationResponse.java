@@ -0,0 +1,16 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Value
+@Builder
+public class StockReservationResponse {
+    UUID id;
+    Long productId;
+    Integer quantity;
+    Instant expiresAt;
+}
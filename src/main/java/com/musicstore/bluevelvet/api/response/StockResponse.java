@@ -0,0 +1,14 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class StockResponse {
+    Long productId;
+    Long onHand;
+    Long reserved;
+    Long available;
+    Boolean inStock;
+}
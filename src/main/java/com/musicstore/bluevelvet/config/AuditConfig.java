@@ -0,0 +1,34 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.audit.AuditLog;
+import com.musicstore.bluevelvet.infrastructure.audit.JdbcAuditStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "bluevelvet.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditConfig {
+
+    // Depende do JdbcTemplate: no desligamento fecha (e esvazia a fila) antes do DataSource
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${bluevelvet.audit.queue-capacity:10000}") int queueCapacity,
+                             @Value("${bluevelvet.audit.batch-size:500}") int batchSize,
+                             @Value("${bluevelvet.audit.retry-interval:1s}") Duration retryInterval,
+                             @Value("${bluevelvet.audit.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        AuditLog auditLog = new AuditLog(new JdbcAuditStore(jdbcTemplate, transactionTemplate),
+                queueCapacity, batchSize, shutdownTimeout, Clock.systemUTC(), meterRegistry);
+        auditLog.start(retryInterval);
+        return auditLog;
+    }
+}
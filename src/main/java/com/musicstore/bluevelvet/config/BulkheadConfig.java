@@ -0,0 +1,20 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.bulkhead.UploadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class BulkheadConfig {
+
+    // Uma thread por vaga do bulkhead de upload; a fila só é usada com o bulkhead desligado
+    @Bean(destroyMethod = "close")
+    public UploadExecutor uploadExecutor(@Value("${bluevelvet.bulkhead.upload.max-concurrent:4}") int threads,
+                                         @Value("${bluevelvet.bulkhead.upload.queue-capacity:16}") int queueCapacity,
+                                         @Value("${bluevelvet.bulkhead.upload.timeout:2m}") Duration timeout) {
+        return new UploadExecutor(threads, queueCapacity, timeout);
+    }
+}
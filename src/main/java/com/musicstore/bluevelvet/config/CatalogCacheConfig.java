@@ -0,0 +1,47 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.infrastructure.cache.ProductCatalogCache;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "bluevelvet.catalog-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogCacheConfig {
+
+    // A recuperação (snapshot + delta do banco) roda aqui: o cache já está em dia quando a aplicação começa a responder
+    @Bean(destroyMethod = "close")
+    public ProductCatalogCache productCatalogCache(ProductRepository productRepository,
+                                                   ProductTombstoneRepository tombstoneRepository,
+                                                   CatalogOutbox outbox,
+                                                   PlatformTransactionManager transactionManager,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${bluevelvet.catalog-cache.snapshot-dir:catalog-snapshot}") String snapshotDir,
+                                                   @Value("${bluevelvet.catalog-cache.refresh-interval:30s}") Duration refreshInterval,
+                                                   @Value("${bluevelvet.catalog-cache.snapshot-interval:5m}") Duration snapshotInterval,
+                                                   @Value("${bluevelvet.catalog-cache.max-entries:100000}") int maxEntries,
+                                                   @Value("${bluevelvet.catalog-cache.batch-size:500}") int batchSize,
+                                                   @Value("${bluevelvet.catalog-cache.stale-while-revalidate:0s}") Duration staleWhileRevalidate) {
+        // Somente leitura: com réplica configurada, o catch-up vai para ela
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        ProductCatalogCache cache = new ProductCatalogCache(Paths.get(snapshotDir), productRepository, tombstoneRepository,
+                outbox, readOnlyTransaction, ProductField.attributesWithChangeSeq(), maxEntries, batchSize,
+                staleWhileRevalidate, Clock.systemUTC(), meterRegistry);
+        cache.recover();
+        cache.start(refreshInterval, snapshotInterval);
+        return cache;
+    }
+}
@@ -0,0 +1,33 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutboxDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// @EnableScheduling: heartbeat do stream SSE (CatalogEventController)
+@Configuration
+@EnableScheduling
+public class CatalogOutboxConfig {
+
+    // Todas as instâncias fazem polling; só a limpeza por retenção pode rodar em mais de uma ao mesmo tempo (é idempotente)
+    @Bean(destroyMethod = "close")
+    public CatalogOutboxDispatcher catalogOutboxDispatcher(CatalogOutbox outbox,
+                                                           ApplicationEventPublisher eventPublisher,
+                                                           MeterRegistry meterRegistry,
+                                                           @Value("${bluevelvet.outbox.poll-interval:200ms}") Duration pollInterval,
+                                                           @Value("${bluevelvet.outbox.batch-size:500}") int batchSize,
+                                                           @Value("${bluevelvet.outbox.retention:7d}") Duration retention) {
+        CatalogOutboxDispatcher dispatcher = new CatalogOutboxDispatcher(outbox, eventPublisher, batchSize, retention,
+                Clock.systemUTC(), meterRegistry);
+        dispatcher.start(pollInterval);
+        return dispatcher;
+    }
+}
@@ -10,15 +10,21 @@ import com.musicstore.bluevelvet.infrastructure.repository.RoleRepository;
 import com.musicstore.bluevelvet.infrastructure.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Component
 public class DataSeeder implements CommandLineRunner {
 
+    // Suba quando mudar as roles ou os usuários semeados: a próxima subida roda o seed de novo
+    static final int SEED_VERSION = 1;
+    private static final String SEED_NAME = "base";
+
     @Autowired
     private RoleRepository roleRepository;
 
@@ -34,8 +40,21 @@ public class DataSeeder implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Só existe com o perfil synthetic-catalog
+    @Autowired(required = false)
+    private SyntheticCatalogGenerator syntheticCatalogGenerator;
+
     @Override
     public void run(String... args) throws Exception {
+        // Depois da primeira subida é uma consulta só, em vez de uma por role e por usuário
+        if (isSeeded()) {
+            seedSyntheticCatalog();
+            return;
+        }
+
         // --- 1. SEEDING ROLES (ADMIN, CLIENTE e perfis administrativos) ---
         Role roleAdmin = seedRole("ADMIN");
         Role roleSalesManager = seedRole("GERENTE_VENDAS");
@@ -48,12 +67,31 @@ public class DataSeeder implements CommandLineRunner {
         seedUser("Admin Master", "admin@bluevelvet.com", "admin1234", roleAdmin);
         seedUser("Client John Doe", "cliente@bluevelvet.com", "cliente1234", roleClient);
 
-        // --- 3. SEEDING CATEGORIES ---
+        markSeeded();
 
+        // --- 3. SEEDING CATEGORIES E PRODUTOS (catálogo sintético, perfil synthetic-catalog) ---
+        seedSyntheticCatalog();
 
         System.out.println("✅ Data Seeder executado com sucesso! Roles, Usuários, Categorias e Produtos iniciais criados.");
     }
 
+    private void seedSyntheticCatalog() {
+        if (syntheticCatalogGenerator != null) {
+            syntheticCatalogGenerator.generateIfEmpty();
+        }
+    }
+
+    private boolean isSeeded() {
+        return jdbcTemplate.queryForList("SELECT version FROM seed_state WHERE name = ?", Integer.class, SEED_NAME)
+                .stream().anyMatch(version -> version >= SEED_VERSION);
+    }
+
+    private void markSeeded() {
+        jdbcTemplate.update("INSERT INTO seed_state (name, version, applied_at) VALUES (?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE version = VALUES(version), applied_at = VALUES(applied_at)",
+                SEED_NAME, SEED_VERSION, LocalDateTime.now());
+    }
+
 
 
     // --- MÉTODOS AUXILIARES ---
@@ -0,0 +1,56 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.sql.SqlInstrumentationListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Envolve o DataSource com o datasource-proxy para medir statements, linhas e tempo de SQL.
+ * Substitui o show-sql, que imprimia cada statement no stdout.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bluevelvet.sql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor(Environment environment) {
+        boolean countRows = environment.getProperty("bluevelvet.sql.metrics.count-rows", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Wrappers (ex.: LazyConnectionDataSourceProxy das réplicas) delegam a um DataSource que já é medido.
+                // O roteador de réplicas é injetado pelo tipo concreto e não pode ser trocado por um proxy:
+                // os pools dele são medidos em ReadReplicaConfig
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && !(bean instanceof DelegatingDataSource) && !(bean instanceof AbstractRoutingDataSource)) {
+                    return instrument(dataSource, beanName, countRows);
+                }
+                return bean;
+            }
+        };
+    }
+
+    public static boolean isEnabled(Environment environment) {
+        return environment.getProperty("bluevelvet.sql.metrics.enabled", Boolean.class, true);
+    }
+
+    public static DataSource instrument(DataSource dataSource, String name, boolean countRows) {
+        SqlInstrumentationListener listener = new SqlInstrumentationListener();
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                .name(name)
+                .listener(listener);
+        if (countRows) {
+            builder.methodListener(listener).proxyResultSet();
+        }
+        return builder.build();
+    }
+}
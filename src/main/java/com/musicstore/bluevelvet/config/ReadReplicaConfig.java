@@ -0,0 +1,91 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.datasource.ReadYourWritesTracker;
+import com.musicstore.bluevelvet.infrastructure.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réplicas de leitura (bluevelvet.datasource.replica.enabled=true).
+ * O primário continua vindo de spring.datasource.* (inclusive spring.datasource.hikari.*);
+ * cada URL em replica.urls vira um pool próprio, read-only.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bluevelvet.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             Environment environment,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${bluevelvet.datasource.replica.urls}") List<String> urls,
+                                                             @Value("${bluevelvet.datasource.replica.username:}") String username,
+                                                             @Value("${bluevelvet.datasource.replica.password:}") String password,
+                                                             @Value("${bluevelvet.datasource.replica.pool-size:10}") int poolSize,
+                                                             @Value("${bluevelvet.datasource.replica.max-lag:5s}") Duration maxLag,
+                                                             @Value("${bluevelvet.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                                             @Value("${bluevelvet.datasource.replica.health-interval:2s}") Duration healthInterval) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+
+        // O roteador fica fora do BeanPostProcessor do datasource-proxy; aqui cada pool é medido
+        boolean instrumented = DataSourceProxyConfig.isEnabled(environment);
+        boolean countRows = environment.getProperty("bluevelvet.sql.metrics.count-rows", Boolean.class, true);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(StringUtils.hasText(username) ? username : properties.determineUsername());
+            replica.setPassword(StringUtils.hasText(username) ? password : properties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Réplica fora do ar não pode travar a subida da aplicação
+            replica.setInitializationFailTimeout(-1);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(replica.getPoolName(),
+                    instrumented ? DataSourceProxyConfig.instrument(replica, replica.getPoolName(), countRows) : replica);
+        }
+
+        DataSource primaryTarget = instrumented ? DataSourceProxyConfig.instrument(primary, primary.getPoolName(), countRows) : primary;
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryTarget, replicas, maxLag, lagQuery, meterRegistry);
+        routing.start(healthInterval);
+        return routing;
+    }
+
+    // O que JPA, Flyway e JdbcTemplate recebem: a conexão só é escolhida no primeiro statement,
+    // quando já se sabe se a transação é read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${bluevelvet.datasource.replica.sticky-window:10s}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+}
@@ -1,5 +1,7 @@
 package com.musicstore.bluevelvet.config;
 
+import com.musicstore.bluevelvet.infrastructure.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -30,6 +32,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/user-images/**", "/css/**", "/js/**", "/images/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Métricas (inclusive /actuator/prometheus) expõem SQL por endpoint e estado do pool:
+                        // o Prometheus faz o scrape com basic auth de um usuário ADMIN
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Rotas Públicas
                         .requestMatchers("/auth/login").permitAll()
@@ -37,6 +43,7 @@ public class SecurityConfig {
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products/**", "/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/categories/**", "/categories/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/catalog/events").permitAll()
 
                         // Rotas Administrativas (Listagem de users)
                         .requestMatchers(HttpMethod.POST, "/users/**").hasRole("ADMIN")
@@ -55,7 +62,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+    }
 
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
@@ -0,0 +1,72 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.stock.JdbcStockStore;
+import com.musicstore.bluevelvet.infrastructure.stock.StockJournal;
+import com.musicstore.bluevelvet.infrastructure.stock.StockLease;
+import com.musicstore.bluevelvet.infrastructure.stock.StockLedger;
+import com.musicstore.bluevelvet.infrastructure.stock.StockOwnership;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "bluevelvet.stock.enabled", havingValue = "true")
+public class StockConfig {
+
+    // O node-id precisa ser estável entre reinícios: é ele que diz se o journal local ainda vale
+    @Bean
+    public StockLease stockLease(JdbcTemplate jdbcTemplate,
+                                 @Value("${bluevelvet.stock.node-id:}") String nodeId,
+                                 @Value("${bluevelvet.stock.lease-ttl:15s}") Duration leaseTtl) throws IOException {
+        String id = StringUtils.hasText(nodeId) ? nodeId : InetAddress.getLocalHost().getHostName();
+        return new StockLease(jdbcTemplate, id, leaseTtl);
+    }
+
+    // O dono recupera o ledger (banco + journal) aqui mesmo: nenhuma reserva é aceita antes do estado estar completo
+    @Bean(destroyMethod = "close")
+    public StockOwnership stockOwnership(StockLease stockLease,
+                                         JdbcTemplate jdbcTemplate,
+                                         TransactionTemplate transactionTemplate,
+                                         ApplicationEventPublisher eventPublisher,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${bluevelvet.stock.journal-dir:stock-journal}") String journalDir,
+                                         @Value("${bluevelvet.stock.flush-interval:1s}") Duration flushInterval,
+                                         @Value("${bluevelvet.stock.reservation-ttl:15m}") Duration reservationTtl,
+                                         @Value("${bluevelvet.stock.lease-renew-interval:5s}") Duration renewInterval,
+                                         @Value("${bluevelvet.stock.lease-ttl:15s}") Duration leaseTtl,
+                                         @Value("${bluevelvet.stock.max-flush-age:5s}") Duration maxFlushAge) {
+        // Passando da lease, um dono com o banco fora aceitaria operações que o próximo dono não vê
+        if (maxFlushAge.compareTo(leaseTtl) >= 0 || maxFlushAge.compareTo(flushInterval) <= 0) {
+            throw new IllegalStateException("bluevelvet.stock.max-flush-age must be between flush-interval ("
+                    + flushInterval + ") and lease-ttl (" + leaseTtl + "), got " + maxFlushAge);
+        }
+        JdbcStockStore store = new JdbcStockStore(jdbcTemplate, transactionTemplate, eventPublisher, stockLease.nodeId());
+        StockOwnership ownership = new StockOwnership(stockLease, store, () -> {
+            StockJournal journal = new StockJournal(Paths.get(journalDir));
+            StockLedger ledger = new StockLedger(journal, store, reservationTtl, Clock.systemUTC(), meterRegistry);
+            try {
+                ledger.recover();
+            } catch (IOException | RuntimeException e) {
+                // Sem flush: o journal fica como está para a próxima tentativa
+                journal.close();
+                throw e;
+            }
+            ledger.start(flushInterval);
+            return ledger;
+        }, maxFlushAge);
+        ownership.start(renewInterval);
+        return ownership;
+    }
+}
@@ -0,0 +1,106 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.infrastructure.storage.ImageStorage;
+import com.musicstore.bluevelvet.infrastructure.storage.LocalImageStorage;
+import com.musicstore.bluevelvet.infrastructure.storage.MeteredImageStorage;
+import com.musicstore.bluevelvet.infrastructure.storage.S3ImageStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+public class StorageConfig {
+
+    // O que os serviços recebem: o backend configurado, com métricas de gravação
+    @Bean
+    @Primary
+    public ImageStorage imageStorage(ObjectProvider<LocalImageStorage> localImageStorage,
+                                     ObjectProvider<S3ImageStorage> s3ImageStorage,
+                                     MeterRegistry meterRegistry) {
+        S3ImageStorage s3 = s3ImageStorage.getIfAvailable();
+        if (s3 != null) {
+            return new MeteredImageStorage(s3, "s3", meterRegistry);
+        }
+        return new MeteredImageStorage(localImageStorage.getObject(), "local", meterRegistry);
+    }
+
+    // Padrão: disco local, como sempre foi (bluevelvet.storage.type=local)
+    @Bean
+    @ConditionalOnProperty(name = "bluevelvet.storage.type", havingValue = "local", matchIfMissing = true)
+    public LocalImageStorage localImageStorage(@Value("${bluevelvet.storage.local.root:user-images}") String root,
+                                               @Value("${bluevelvet.storage.local.temp-dir:}") String tempDir) {
+        return new LocalImageStorage(Paths.get(root), StringUtils.hasText(tempDir) ? Paths.get(tempDir) : null);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "bluevelvet.storage.type", havingValue = "s3")
+    public S3Client s3Client(@Value("${bluevelvet.storage.s3.endpoint:}") String endpoint,
+                             @Value("${bluevelvet.storage.s3.region:us-east-1}") String region,
+                             @Value("${bluevelvet.storage.s3.path-style:true}") boolean pathStyle,
+                             AwsCredentialsProvider s3CredentialsProvider) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(s3CredentialsProvider)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+        if (StringUtils.hasText(endpoint)) {
+            // MinIO/LocalStack ou qualquer outro servidor compatível
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bluevelvet.storage.type", havingValue = "s3")
+    public AwsCredentialsProvider s3CredentialsProvider(@Value("${bluevelvet.storage.s3.access-key:}") String accessKey,
+                                                        @Value("${bluevelvet.storage.s3.secret-key:}") String secretKey) {
+        if (StringUtils.hasText(accessKey)) {
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bluevelvet.storage.type", havingValue = "s3")
+    public S3ImageStorage s3ImageStorage(S3Client s3Client,
+                                         AwsCredentialsProvider s3CredentialsProvider,
+                                         @Value("${bluevelvet.storage.s3.endpoint:}") String endpoint,
+                                         @Value("${bluevelvet.storage.s3.region:us-east-1}") String region,
+                                         @Value("${bluevelvet.storage.s3.path-style:true}") boolean pathStyle,
+                                         @Value("${bluevelvet.storage.s3.bucket}") String bucket,
+                                         @Value("${bluevelvet.storage.s3.prefix:user-images/}") String prefix,
+                                         @Value("${bluevelvet.storage.s3.part-size:8MB}") DataSize partSize,
+                                         @Value("${bluevelvet.storage.s3.presigned-reads:true}") boolean presignedReads,
+                                         @Value("${bluevelvet.storage.s3.presign-ttl:15m}") Duration presignTtl) {
+        S3Presigner presigner = null;
+        if (presignedReads) {
+            S3Presigner.Builder builder = S3Presigner.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(s3CredentialsProvider)
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+            if (StringUtils.hasText(endpoint)) {
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            presigner = builder.build();
+        }
+        return new S3ImageStorage(s3Client, presigner, bucket, prefix, (int) partSize.toBytes(), presignTtl);
+    }
+}
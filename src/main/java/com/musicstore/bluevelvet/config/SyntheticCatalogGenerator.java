@@ -0,0 +1,198 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.domain.service.ProductPricing;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gera um catálogo em escala de produção para testes de performance (perfil synthetic-catalog).
+ *
+ * <p>Determinístico: cada produto usa um gerador derivado da semente e do seu id, então o resultado
+ * não depende da ordem em que as threads executam. Os ids são explícitos pelo mesmo motivo.
+ */
+@Log4j2
+@Component
+@Profile("synthetic-catalog")
+public class SyntheticCatalogGenerator {
+
+    private static final String[] FORMATS = {"CD", "Vinyl", "MP3", "Cassette", "FLAC"};
+    private static final String[] CONDITIONS = {"New", "Used - Like New", "Used - Good", "Sealed"};
+    private static final int MAX_DETAILS = 16;
+    private static final int MAX_IMAGES = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bluevelvet.seed.synthetic.products:1000000}")
+    private int products;
+
+    @Value("${bluevelvet.seed.synthetic.categories:5000}")
+    private int categories;
+
+    @Value("${bluevelvet.seed.synthetic.depth:8}")
+    private int depth;
+
+    @Value("${bluevelvet.seed.synthetic.max-details:12}")
+    private int maxDetails;
+
+    @Value("${bluevelvet.seed.synthetic.max-images:4}")
+    private int maxImages;
+
+    @Value("${bluevelvet.seed.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${bluevelvet.seed.synthetic.threads:0}")
+    private int threads;
+
+    @Value("${bluevelvet.seed.synthetic.batch-size:2000}")
+    private int batchSize;
+
+    public SyntheticCatalogGenerator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** Gera o catálogo se a tabela de produtos estiver vazia. */
+    public void generateIfEmpty() throws Exception {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Synthetic catalog skipped: product table already has {} rows", existing);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> categoryNames = generateCategories();
+        // change_seq = base + id, e a sequência do catálogo anda junto (GET /products/changes)
+        long changeSeqBase = jdbcTemplate.queryForObject("SELECT seq FROM catalog_sequence WHERE id = 1", Long.class);
+        generateProducts(categoryNames, changeSeqBase);
+        jdbcTemplate.update("UPDATE catalog_sequence SET seq = GREATEST(seq, ?) WHERE id = 1", changeSeqBase + products);
+        log.info("Synthetic catalog generated: {} categories, {} products in {} s",
+                categories, products, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    /**
+     * Categorias em níveis: algumas raízes e o resto dividido entre os níveis abaixo,
+     * cada uma pendurada numa categoria do nível anterior. Inseridas em ordem de id (pais primeiro).
+     */
+    private List<String> generateCategories() {
+        SplittableRandom random = new SplittableRandom(seed);
+        int levels = Math.max(1, Math.min(depth, categories));
+        int roots = Math.max(1, Math.min(20, categories / levels));
+        int perLevel = levels > 1 ? Math.max(1, (categories - roots) / (levels - 1)) : 0;
+
+        List<String> names = new ArrayList<>(categories);
+        List<Object[]> rows = new ArrayList<>();
+        long previousLevelStart = 1;
+        long previousLevelEnd = roots;
+        long id = 1;
+        for (int level = 0; level < levels && id <= categories; level++) {
+            int count = level == 0 ? roots : (level == levels - 1 ? categories - (int) id + 1 : perLevel);
+            long levelStart = id;
+            for (int i = 0; i < count && id <= categories; i++, id++) {
+                Long parent = level == 0 ? null
+                        : previousLevelStart + random.nextLong(previousLevelEnd - previousLevelStart + 1);
+                String name = "Category L" + level + "-" + id;
+                names.add(name);
+                rows.add(new Object[]{id, name, "Synthetic category at level " + level, parent, true});
+            }
+            previousLevelStart = levelStart;
+            previousLevelEnd = id - 1;
+        }
+
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            List<Object[]> batch = rows.subList(i, Math.min(rows.size(), i + batchSize));
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO categories (id, name, description, parent_id, enabled) VALUES (?, ?, ?, ?, ?)", batch));
+        }
+        return names;
+    }
+
+    private void generateProducts(List<String> categoryNames, long changeSeqBase) throws Exception {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long first = 1; first <= products; first += batchSize) {
+                long from = first;
+                long to = Math.min(products, first + batchSize - 1);
+                chunks.add(executor.submit(() -> transactionTemplate.executeWithoutResult(
+                        status -> insertProducts(from, to, categoryNames, changeSeqBase))));
+            }
+            int done = 0;
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+                if (++done % 50 == 0) {
+                    log.info("Synthetic catalog: {} of {} product batches inserted", done, chunks.size());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertProducts(long from, long to, List<String> categoryNames, long changeSeqBase) {
+        Timestamp baseTime = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0));
+        List<Object[]> productRows = new ArrayList<>();
+        List<Object[]> detailRows = new ArrayList<>();
+        List<Object[]> imageRows = new ArrayList<>();
+        List<Object[]> dimensionRows = new ArrayList<>();
+
+        for (long id = from; id <= to; id++) {
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + id);
+            String format = FORMATS[random.nextInt(FORMATS.length)];
+            BigDecimal listPrice = BigDecimal.valueOf(499 + random.nextInt(30_000), 2);
+            BigDecimal discount = random.nextInt(4) == 0 ? BigDecimal.valueOf(5L * (1 + random.nextInt(6))) : BigDecimal.ZERO;
+            BigDecimal effectivePrice = ProductPricing.effectivePrice(listPrice, discount);
+            Timestamp created = new Timestamp(baseTime.getTime() + random.nextLong(300L * 24 * 3600 * 1000));
+
+            productRows.add(new Object[]{id, "Album " + id + " (" + format + ")",
+                    "Synthetic " + format + " release #" + id,
+                    "Full description for synthetic release " + id + ". ".repeat(1 + random.nextInt(60)),
+                    "Label " + random.nextInt(2_000),
+                    categoryNames.get(random.nextInt(categoryNames.size())),
+                    id + "_MAIN_cover.png",
+                    listPrice, discount, effectivePrice, ProductPricing.toCents(effectivePrice),
+                    listPrice.multiply(new BigDecimal("0.55")).setScale(2, RoundingMode.HALF_UP),
+                    random.nextInt(20) != 0, random.nextInt(10) != 0, created, created, changeSeqBase + id});
+
+            int details = random.nextInt(Math.min(maxDetails, MAX_DETAILS) + 1);
+            for (int d = 0; d < details; d++) {
+                String name = d == 0 ? "Format" : d == 1 ? "Condition" : "Track " + (d - 1);
+                String value = d == 0 ? format : d == 1 ? CONDITIONS[random.nextInt(CONDITIONS.length)] : "Song " + random.nextInt(100_000);
+                detailRows.add(new Object[]{id * MAX_DETAILS + d, name, value, id});
+            }
+
+            int images = random.nextInt(Math.min(maxImages, MAX_IMAGES) + 1);
+            for (int i = 0; i < images; i++) {
+                imageRows.add(new Object[]{id * MAX_IMAGES + i, id + "_EXTRA_" + i + ".png", id});
+            }
+
+            dimensionRows.add(new Object[]{id, 12.5f + random.nextInt(20), 12.5f + random.nextInt(20),
+                    0.2f + random.nextInt(5), 0.1f + random.nextInt(3), id});
+        }
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO product (id, name, short_description, full_description, brand, category, main_image,
+                                     list_price, discount, effective_price, effective_price_cents, cost,
+                                     enabled, in_stock, creation_time, update_time, change_seq)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""", productRows);
+        jdbcTemplate.batchUpdate("INSERT INTO product_detail (id, name, value, product_id) VALUES (?, ?, ?, ?)", detailRows);
+        jdbcTemplate.batchUpdate("INSERT INTO product_image (id, file_name, product_id) VALUES (?, ?, ?)", imageRows);
+        jdbcTemplate.batchUpdate("INSERT INTO box_dimension (id, length, width, height, weight, product_id) VALUES (?, ?, ?, ?, ?, ?)", dimensionRows);
+    }
+}
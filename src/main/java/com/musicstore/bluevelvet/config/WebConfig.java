@@ -1,5 +1,7 @@
 package com.musicstore.bluevelvet.config;
 
+import com.musicstore.bluevelvet.infrastructure.storage.LocalImageStorage;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -8,11 +10,18 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ObjectProvider<LocalImageStorage> localImageStorage;
+
+    public WebConfig(ObjectProvider<LocalImageStorage> localImageStorage) {
+        this.localImageStorage = localImageStorage;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Mapeia a pasta de uploads (user-images)
-        registry.addResourceHandler("/user-images/**")
-                .addResourceLocations("file:./user-images/"); // O "./" ajuda a fixar na raiz do projeto
+        // Mapeia a pasta de uploads (user-images) quando o storage é local.
+        // Com S3 quem responde é o ImageController.
+        localImageStorage.ifAvailable(storage -> registry.addResourceHandler("/user-images/**")
+                .addResourceLocations(storage.getRootLocation().toUri().toString()));
 
         // Mapeia arquivos estáticos padrão (CSS/JS se houver)
         registry.addResourceHandler("/**")
@@ -27,4 +36,4 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
-}
\ No newline at end of file
+}
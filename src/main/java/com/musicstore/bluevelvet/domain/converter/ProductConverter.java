@@ -48,6 +48,7 @@ public class ProductConverter {
 
         return ProductResponse.builder()
                 .id(product.getId())
+                .version(product.getVersion())
                 .name(product.getName())
                 .shortDescription(product.getShortDescription())
                 .fullDescription(product.getFullDescription())
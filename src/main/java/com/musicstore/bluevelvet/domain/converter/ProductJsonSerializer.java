@@ -0,0 +1,126 @@
+package com.musicstore.bluevelvet.domain.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductImage;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+import static com.musicstore.bluevelvet.domain.service.ProductField.*;
+
+/**
+ * Escreve o Product direto no JsonGenerator, sem montar ProductResponse, ProductDetailRequest e
+ * ProductDimensionRequest no meio do caminho. O JSON é o mesmo do ProductResponse
+ * (mesmos nomes, mesma ordem, nulls incluídos, datas em ISO-8601).
+ * Com {@code fields=} ({@link ProductView}) só saem os campos pedidos, na mesma ordem.
+ */
+@JsonComponent
+public class ProductJsonSerializer extends StdSerializer<Product> {
+
+    public ProductJsonSerializer() {
+        super(Product.class);
+    }
+
+    @Override
+    public void serialize(Product product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        writeProduct(gen, product);
+    }
+
+    public static void writeProduct(JsonGenerator gen, Product product) throws IOException {
+        writeProduct(gen, product, ProductField.ALL);
+    }
+
+    public static void writeProduct(JsonGenerator gen, Product product, Set<ProductField> fields) throws IOException {
+        gen.writeStartObject();
+        writeNumber(gen, "id", product.getId());
+        if (fields.contains(VERSION)) writeNumber(gen, "version", product.getVersion());
+        if (fields.contains(NAME)) gen.writeStringField("name", product.getName());
+        if (fields.contains(SHORT_DESCRIPTION)) gen.writeStringField("shortDescription", product.getShortDescription());
+        if (fields.contains(FULL_DESCRIPTION)) gen.writeStringField("fullDescription", product.getFullDescription());
+        if (fields.contains(BRAND)) gen.writeStringField("brand", product.getBrand());
+        if (fields.contains(CATEGORY)) gen.writeStringField("category", product.getCategory());
+        if (fields.contains(MAIN_IMAGE)) gen.writeStringField("mainImage", product.getMainImage());
+
+        if (fields.contains(ADDITIONAL_IMAGES)) {
+            gen.writeArrayFieldStart("additionalImages");
+            if (product.getAdditionalImages() != null) {
+                for (ProductImage image : product.getAdditionalImages()) {
+                    gen.writeString(image.getFileName());
+                }
+            }
+            gen.writeEndArray();
+        }
+
+        if (fields.contains(COST)) writeNumber(gen, "cost", product.getCost());
+        if (fields.contains(LIST_PRICE)) writeNumber(gen, "listPrice", product.getListPrice());
+        if (fields.contains(DISCOUNT)) writeNumber(gen, "discount", product.getDiscount());
+        if (fields.contains(CREATION_TIME)) writeDateTime(gen, "creationTime", product.getCreationTime());
+        if (fields.contains(UPDATE_TIME)) writeDateTime(gen, "updateTime", product.getUpdateTime());
+        if (fields.contains(IS_ENABLED)) writeBoolean(gen, "isEnabled", product.getEnabled());
+        if (fields.contains(IN_STOCK)) writeBoolean(gen, "inStock", product.getInStock());
+
+        if (fields.contains(DIMENSION)) {
+            BoxDimension dimension = product.getBoxDimension();
+            if (dimension == null) {
+                gen.writeNullField("dimension");
+            } else {
+                gen.writeObjectFieldStart("dimension");
+                writeNumber(gen, "length", dimension.getLength());
+                writeNumber(gen, "width", dimension.getWidth());
+                writeNumber(gen, "height", dimension.getHeight());
+                writeNumber(gen, "weight", dimension.getWeight());
+                gen.writeEndObject();
+            }
+        }
+
+        if (fields.contains(DETAILS)) {
+            gen.writeArrayFieldStart("details");
+            if (product.getProductDetails() != null) {
+                for (ProductDetail detail : product.getProductDetails()) {
+                    gen.writeStartObject();
+                    gen.writeStringField("name", detail.getName());
+                    gen.writeStringField("value", detail.getValue());
+                    gen.writeEndObject();
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, Long value) throws IOException {
+        if (value == null) gen.writeNullField(field);
+        else gen.writeNumberField(field, value);
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, BigDecimal value) throws IOException {
+        if (value == null) gen.writeNullField(field);
+        else gen.writeNumberField(field, value);
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, Float value) throws IOException {
+        if (value == null) gen.writeNullField(field);
+        else gen.writeNumberField(field, value);
+    }
+
+    private static void writeBoolean(JsonGenerator gen, String field, Boolean value) throws IOException {
+        if (value == null) gen.writeNullField(field);
+        else gen.writeBooleanField(field, value);
+    }
+
+    // Mesmo formato do LocalDateTimeSerializer do Jackson com WRITE_DATES_AS_TIMESTAMPS desligado (padrão do Spring Boot)
+    private static void writeDateTime(JsonGenerator gen, String field, LocalDateTime value) throws IOException {
+        if (value == null) gen.writeNullField(field);
+        else gen.writeStringField(field, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+    }
+}
@@ -0,0 +1,17 @@
+package com.musicstore.bluevelvet.domain.converter;
+
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+
+import java.util.Set;
+
+/**
+ * Produto com os campos que o cliente pediu em {@code fields=}. Escrito pelo {@link ProductViewJsonSerializer};
+ * com {@link ProductField#ALL} o JSON é exatamente o do Product.
+ */
+public record ProductView(Product product, Set<ProductField> fields) {
+
+    public static ProductView of(Product product, Set<ProductField> fields) {
+        return new ProductView(product, fields);
+    }
+}
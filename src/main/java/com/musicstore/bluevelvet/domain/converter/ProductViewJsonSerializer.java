@@ -0,0 +1,21 @@
+package com.musicstore.bluevelvet.domain.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+@JsonComponent
+public class ProductViewJsonSerializer extends StdSerializer<ProductView> {
+
+    public ProductViewJsonSerializer() {
+        super(ProductView.class);
+    }
+
+    @Override
+    public void serialize(ProductView view, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        ProductJsonSerializer.writeProduct(gen, view.product(), view.fields());
+    }
+}
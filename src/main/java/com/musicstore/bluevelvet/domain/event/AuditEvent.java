@@ -0,0 +1,25 @@
+package com.musicstore.bluevelvet.domain.event;
+
+/**
+ * Operação administrativa que vai para o log de auditoria: publicada por quem faz a operação, uma por
+ * entidade alterada diretamente. O CatalogChangeEvent não serve para isso, ele também cobre efeitos
+ * colaterais (produtos de uma categoria renomeada, flush do estoque). Quem fez e quando é preenchido pelo AuditLog.
+ */
+public record AuditEvent(Entity entity, Long id, Action action) {
+
+    public enum Entity { PRODUCT, CATEGORY, USER }
+
+    public enum Action { CREATED, UPDATED, DELETED }
+
+    public static AuditEvent product(Long id, Action action) {
+        return new AuditEvent(Entity.PRODUCT, id, action);
+    }
+
+    public static AuditEvent category(Long id, Action action) {
+        return new AuditEvent(Entity.CATEGORY, id, action);
+    }
+
+    public static AuditEvent user(Long id, Action action) {
+        return new AuditEvent(Entity.USER, id, action);
+    }
+}
@@ -0,0 +1,20 @@
+package com.musicstore.bluevelvet.domain.event;
+
+/**
+ * Publicado pelos serviços sempre que um produto ou categoria é criado, alterado ou removido.
+ * Quem mantém cópias do catálogo (caches de resposta etc.) escuta este evento para invalidar.
+ */
+public record CatalogChangeEvent(Entity entity, Long id, Type type) {
+
+    public enum Entity { PRODUCT, CATEGORY }
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static CatalogChangeEvent product(Long id, Type type) {
+        return new CatalogChangeEvent(Entity.PRODUCT, id, type);
+    }
+
+    public static CatalogChangeEvent category(Long id, Type type) {
+        return new CatalogChangeEvent(Entity.CATEGORY, id, type);
+    }
+}
@@ -0,0 +1,10 @@
+package com.musicstore.bluevelvet.domain.event;
+
+import java.time.Instant;
+
+/**
+ * Uma mudança do catálogo já commitada, lida do outbox. Publicado pelo CatalogOutboxDispatcher em todas
+ * as instâncias, na ordem dos commits ({@code seq} crescente e sem repetição).
+ */
+public record CatalogChangeRecord(long seq, CatalogChangeEvent change, Instant occurredAt) {
+}
@@ -0,0 +1,9 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+public class InvalidQueryParameterException extends RuntimeException {
+
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
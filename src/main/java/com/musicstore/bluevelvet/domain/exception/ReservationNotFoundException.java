@@ -0,0 +1,9 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+public class StockUnavailableException extends RuntimeException {
+
+    public StockUnavailableException(String message) {
+        super(message);
+    }
+
+}
@@ -2,56 +2,72 @@ package com.musicstore.bluevelvet.domain.service;
 
 import com.musicstore.bluevelvet.api.request.CategoryRequest;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.event.AuditEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
 import com.musicstore.bluevelvet.domain.exception.CategoryNotFoundException;
 import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
 import com.musicstore.bluevelvet.infrastructure.entity.Category;
 import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
 import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.storage.ImageStorage;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Log4j2
 @Service
+@Timed("catalog.service")
 public class CategoryService {
 
     private final CategoryRepository repository;
     private final ProductRepository productRepository;
-    private final Path rootLocation = Paths.get("user-images");
+    private final ImageStorage imageStorage;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryService(CategoryRepository repository, ProductRepository productRepository) {
+    public CategoryService(CategoryRepository repository, ProductRepository productRepository, ImageStorage imageStorage,
+                           ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
         this.productRepository = productRepository;
-        try {
-            Files.createDirectories(rootLocation);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not initialize storage", e);
-        }
+        this.imageStorage = imageStorage;
+        this.eventPublisher = eventPublisher;
     }
 
+    // Escritas transacionais: a mudança e o seu evento no outbox são gravados juntos
+    @Transactional
     public CategoryResponse create(CategoryRequest request) {
-        return saveOrUpdate(null, request);
+        return saveOrUpdate(null, request, null);
     }
 
+    @Transactional
     public CategoryResponse update(Long id, CategoryRequest request) {
-        return saveOrUpdate(id, request);
+        return saveOrUpdate(id, request, null);
+    }
+
+    /** @param expectedVersion versão vinda do If-Match; null para não checar */
+    @Transactional
+    public CategoryResponse update(Long id, CategoryRequest request, Long expectedVersion) {
+        return saveOrUpdate(id, request, expectedVersion);
     }
 
-    private CategoryResponse saveOrUpdate(Long id, CategoryRequest request) {
+    private CategoryResponse saveOrUpdate(Long id, CategoryRequest request, Long expectedVersion) {
         Category category;
         String oldName = null; // Para guardar o nome antigo
 
         if (id != null) {
             category = repository.findById(id)
                     .orElseThrow(() -> new CategoryNotFoundException("Category not found: " + id));
+            VersionCheck.requireVersion(expectedVersion, category.getVersion(), "Category " + id);
             oldName = category.getName(); // Guarda o nome antes de mudar
         } else {
             category = new Category();
@@ -78,10 +94,12 @@ public class CategoryService {
         if (imageFile != null && !imageFile.isEmpty()) {
             try {
                 if (category.getImage() != null) {
-                    Files.deleteIfExists(this.rootLocation.resolve(category.getImage()));
+                    imageStorage.delete(category.getImage());
                 }
                 String filename = System.currentTimeMillis() + "_" + imageFile.getOriginalFilename();
-                Files.copy(imageFile.getInputStream(), this.rootLocation.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+                try (InputStream in = imageFile.getInputStream()) {
+                    imageStorage.store(filename, in, imageFile.getSize(), imageFile.getContentType());
+                }
                 category.setImage(filename);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to store file", e);
@@ -99,9 +117,17 @@ public class CategoryService {
                 p.setCategory(request.getName()); // Muda para o novo nome
             }
             productRepository.saveAll(productsToUpdate); // Salva todos os produtos
+            productsToUpdate.forEach(p -> eventPublisher.publishEvent(
+                    CatalogChangeEvent.product(p.getId(), CatalogChangeEvent.Type.UPDATED)));
         }
         // ---------------------------------------
 
+        eventPublisher.publishEvent(CatalogChangeEvent.category(saved.getId(),
+                id == null ? CatalogChangeEvent.Type.CREATED : CatalogChangeEvent.Type.UPDATED));
+        // Só a categoria: os produtos renomeados acima são efeito colateral, não operação do admin
+        eventPublisher.publishEvent(AuditEvent.category(saved.getId(),
+                id == null ? AuditEvent.Action.CREATED : AuditEvent.Action.UPDATED));
+
         return mapToResponse(saved);
     }
 
@@ -132,6 +158,7 @@ public class CategoryService {
         return listPaginated(page, size, sort).map(this::mapToResponse);
     }
 
+    @Transactional
     public void delete(Long id) {
         Category category = repository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found: " + id));
@@ -145,21 +172,24 @@ public class CategoryService {
 
         if (category.getImage() != null) {
             try {
-                Files.deleteIfExists(this.rootLocation.resolve(category.getImage()));
+                imageStorage.delete(category.getImage());
             } catch (IOException e) {
                 log.warn("Failed to delete stored image {} for category {}", category.getImage(), category.getId(), e);
             }
         }
 
         repository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangeEvent.category(id, CatalogChangeEvent.Type.DELETED));
+        eventPublisher.publishEvent(AuditEvent.category(id, AuditEvent.Action.DELETED));
     }
 
-    private CategoryResponse mapToResponse(Category category) {
+    CategoryResponse mapToResponse(Category category) {
         String imagePath = category.getImage() != null
                 ? "/user-images/" + category.getImage()
                 : null;
         return CategoryResponse.builder()
                 .id(category.getId())
+                .version(category.getVersion())
                 .name(category.getName())
                 .description(category.getDescription())
                 .image(imagePath).enabled(category.getEnabled())
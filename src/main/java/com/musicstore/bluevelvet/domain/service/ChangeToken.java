@@ -0,0 +1,31 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/** Token de continuação do GET /products/changes: opaco para o cliente, hoje só carrega o seq. */
+final class ChangeToken {
+
+    private static final String PREFIX = "v1:";
+
+    private ChangeToken() {
+    }
+
+    static String encode(long seq) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + seq).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                return Long.parseLong(decoded.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // cai no erro abaixo (NumberFormatException também é IllegalArgumentException)
+        }
+        throw new InvalidQueryParameterException("continuation inválido");
+    }
+}
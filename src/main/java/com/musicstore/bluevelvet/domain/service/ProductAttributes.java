@@ -0,0 +1,83 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.request.ProductDetailRequest;
+import com.musicstore.bluevelvet.api.request.ProductDimensionRequest;
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aplica os detalhes e a dimensão de um PUT sobre as linhas que já existem, em vez de apagar e inserir tudo.
+ * Detalhe é casado pelo nome: mesmo valor não gera SQL, valor diferente vira UPDATE, nome novo vira INSERT
+ * e o que não veio no pedido é removido (orphanRemoval).
+ * Ao recarregar, os detalhes vêm por id ({@code @OrderBy("id")}): os que ficaram mantêm a posição
+ * e os novos vão para o fim, independentemente da ordem do pedido.
+ */
+public final class ProductAttributes {
+
+    private ProductAttributes() {
+    }
+
+    /** @param requested detalhes do pedido; null equivale a lista vazia */
+    public static void mergeDetails(Product product, List<ProductDetailRequest> requested) {
+        if (product.getProductDetails() == null) {
+            product.setProductDetails(new ArrayList<>());
+        }
+        List<ProductDetail> details = product.getProductDetails();
+
+        // Nome repetido é permitido: cada ocorrência casa com uma linha existente, na ordem
+        Map<String, Deque<ProductDetail>> existingByName = new HashMap<>();
+        for (ProductDetail detail : details) {
+            existingByName.computeIfAbsent(detail.getName(), name -> new ArrayDeque<>()).add(detail);
+        }
+
+        List<ProductDetail> merged = new ArrayList<>(requested != null ? requested.size() : 0);
+        if (requested != null) {
+            for (ProductDetailRequest request : requested) {
+                Deque<ProductDetail> candidates = existingByName.get(request.getName());
+                ProductDetail detail = candidates != null ? candidates.poll() : null;
+                if (detail == null) {
+                    detail = ProductDetail.builder().name(request.getName()).value(request.getValue()).product(product).build();
+                } else if (!Objects.equals(detail.getValue(), request.getValue())) {
+                    detail.setValue(request.getValue());
+                }
+                merged.add(detail);
+            }
+        }
+
+        // As instâncias existentes voltam para a coleção: o Hibernate só apaga as que ficaram de fora
+        details.clear();
+        details.addAll(merged);
+    }
+
+    /** Sem dimensão no pedido a atual é mantida, como antes. */
+    public static void mergeBoxDimension(Product product, ProductDimensionRequest requested) {
+        if (requested == null) {
+            return;
+        }
+        BoxDimension dimension = product.getBoxDimension();
+        if (dimension == null) {
+            product.setBoxDimension(BoxDimension.builder()
+                    .width(requested.getWidth())
+                    .height(requested.getHeight())
+                    .length(requested.getLength())
+                    .weight(requested.getWeight())
+                    .product(product)
+                    .build());
+            return;
+        }
+        // Setter com o mesmo valor não marca a entidade como suja: dimensão igual não gera UPDATE
+        dimension.setWidth(requested.getWidth());
+        dimension.setHeight(requested.getHeight());
+        dimension.setLength(requested.getLength());
+        dimension.setWeight(requested.getWeight());
+    }
+}
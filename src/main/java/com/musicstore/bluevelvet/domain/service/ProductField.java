@@ -0,0 +1,99 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campos que o cliente pode pedir em {@code fields=} nas leituras de produto. O nome do parâmetro é o
+ * do JSON; o atributo é o da entidade, que diz o que precisa ser lido do banco.
+ * O id sempre vem, peça ou não.
+ */
+public enum ProductField {
+
+    ID("id", "id"),
+    VERSION("version", "version"),
+    NAME("name", "name"),
+    SHORT_DESCRIPTION("shortDescription", "shortDescription"),
+    FULL_DESCRIPTION("fullDescription", "fullDescription"),
+    BRAND("brand", "brand"),
+    CATEGORY("category", "category"),
+    MAIN_IMAGE("mainImage", "mainImage"),
+    ADDITIONAL_IMAGES("additionalImages", "additionalImages"),
+    COST("cost", "cost"),
+    LIST_PRICE("listPrice", "listPrice"),
+    DISCOUNT("discount", "discount"),
+    CREATION_TIME("creationTime", "creationTime"),
+    UPDATE_TIME("updateTime", "updateTime"),
+    IS_ENABLED("isEnabled", "enabled"),
+    IN_STOCK("inStock", "inStock"),
+    DIMENSION("dimension", "boxDimension"),
+    DETAILS("details", "productDetails");
+
+    /** Sem fields=: o produto completo, como sempre foi. */
+    public static final Set<ProductField> ALL = Collections.unmodifiableSet(EnumSet.allOf(ProductField.class));
+
+    private final String parameter;
+    private final String attribute;
+
+    ProductField(String parameter, String attribute) {
+        this.parameter = parameter;
+        this.attribute = attribute;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Traduz {@code fields=name,listPrice,mainImage}. Null quer dizer tudo; campo desconhecido é rejeitado
+     * para o cliente não achar que pediu algo que nunca vai chegar.
+     */
+    public static Set<ProductField> parse(String fields) {
+        if (fields == null) {
+            return ALL;
+        }
+        Set<ProductField> selected = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.parameter.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidQueryParameterException("Unknown field '" + trimmed + "'. Allowed: "
+                            + Arrays.stream(values()).map(ProductField::getParameter).collect(Collectors.joining(", ")))));
+        }
+        return selected;
+    }
+
+    public static boolean isAll(Set<ProductField> fields) {
+        return fields.size() == values().length;
+    }
+
+    /** Atributos da entidade a carregar; id e version entram sempre (o ETag depende da versão). */
+    public static Set<String> attributesOf(Set<ProductField> fields) {
+        Set<String> attributes = new LinkedHashSet<>();
+        attributes.add(ID.attribute);
+        attributes.add(VERSION.attribute);
+        fields.forEach(field -> attributes.add(field.attribute));
+        return attributes;
+    }
+
+    /** Todos os atributos mais o changeSeq: o que a sincronização e o cache de produtos carregam. */
+    public static Set<String> attributesWithChangeSeq() {
+        Set<String> attributes = attributesOf(ALL);
+        attributes.add("changeSeq");
+        return attributes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Regra do preço final: listPrice com o desconto (percentual, 0 a 100) aplicado,
+ * arredondado HALF_UP em 2 casas. A migração V2 faz o backfill com a mesma conta.
+ */
+public final class ProductPricing {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private ProductPricing() {
+    }
+
+    public static BigDecimal effectivePrice(BigDecimal listPrice, BigDecimal discount) {
+        if (listPrice == null) {
+            return null;
+        }
+        BigDecimal percent = discount != null ? discount : BigDecimal.ZERO;
+        return listPrice.multiply(HUNDRED.subtract(percent)).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+    }
+
+    public static Long toCents(BigDecimal price) {
+        return price != null ? price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact() : null;
+    }
+
+    /** Recalcula effectivePrice e effectivePriceCents a partir de listPrice e discount. */
+    public static void applyEffectivePrice(Product product) {
+        BigDecimal price = effectivePrice(product.getListPrice(), product.getDiscount());
+        product.setEffectivePrice(price);
+        product.setEffectivePriceCents(toCents(price));
+    }
+}
@@ -1,14 +1,27 @@
 package com.musicstore.bluevelvet.domain.service;
 
 import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.api.response.ProductBatchResponse;
+import com.musicstore.bluevelvet.api.response.ProductChange;
+import com.musicstore.bluevelvet.api.response.ProductChangesResponse;
 import com.musicstore.bluevelvet.api.response.ProductResponse;
 import com.musicstore.bluevelvet.domain.converter.ProductConverter;
+import com.musicstore.bluevelvet.domain.converter.ProductView;
+import com.musicstore.bluevelvet.domain.event.AuditEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
 import com.musicstore.bluevelvet.domain.exception.ProductNotFoundException;
+import com.musicstore.bluevelvet.infrastructure.cache.ProductCatalogCache;
 import com.musicstore.bluevelvet.infrastructure.entity.*;
 import com.musicstore.bluevelvet.infrastructure.repository.*;
+import com.musicstore.bluevelvet.infrastructure.storage.ImageStorage;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -17,17 +30,20 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Log4j2
 @Service
+@Timed("catalog.service")
 @RequiredArgsConstructor
 public class ProductService {
 
@@ -36,43 +52,206 @@ public class ProductService {
     private final BoxDimensionRepository boxDimensionRepository;
     private final ProductDetailRepository productDetailRepository;
     private final ProductImageRepository productImageRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final ImageStorage imageStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockService stockService;
+    private final ObjectProvider<ProductCatalogCache> catalogCache;
 
-    private final Path rootLocation = Paths.get("user-images");
+    // As leituras passam pelo ProductProjectionRepository: só as colunas pedidas, coleções em uma consulta cada.
+    // Quem escreve o JSON é o ProductJsonSerializer, sem passar por ProductResponse.
+    // A leitura por id não abre transação: acerto no cache, ou espera por uma carga em andamento, não ocupa
+    // conexão do pool. O repositório abre a sua (read-only) só quando vai ao banco
+    public Product findById(Long id) {
+        return findById(id, ProductField.ALL);
+    }
+
+    /** @param fields campos pedidos em fields=; os demais não são lidos do banco */
+    public Product findById(Long id, Set<ProductField> fields) {
+        ProductCatalogCache cache = catalogCache.getIfAvailable();
+        Product product;
+        if (cache != null && ProductField.isAll(fields)) {
+            // Muitos pedidos do mesmo produto logo depois de ele sair do cache fazem uma consulta só
+            product = cache.getOrLoad(id, productId ->
+                    repository.findProjectedByIdIn(cache.attributes(), List.of(productId)).stream().findFirst().orElse(null));
+        } else {
+            // Com fields= o SELECT traz só o pedido, e o resultado não entra no cache
+            product = cache != null ? cache.get(id) : null;
+            if (product == null) {
+                product = repository.findProjectedByIdIn(ProductField.attributesOf(fields), List.of(id)).stream()
+                        .findFirst()
+                        .orElse(null);
+            }
+        }
+        if (product == null) {
+            throw new ProductNotFoundException("Produto não encontrado: " + id);
+        }
+        return product;
+    }
+
+    static final int MAX_BATCH_IDS = 500;
+
+    public ProductBatchResponse findByIds(List<Long> ids) {
+        return findByIds(ids, ProductField.ALL);
+    }
+
+    /**
+     * Vários produtos de uma vez (carrinho, lista de desejos, pedidos), na ordem pedida.
+     * Ids repetidos são devolvidos uma vez; os que não existem vão em missingIds.
+     * Sem transação, como o findById: só a consulta dos que não estão no cache usa conexão.
+     */
+    public ProductBatchResponse findByIds(List<Long> ids, Set<ProductField> fields) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new InvalidQueryParameterException("ids não pode ser vazio");
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new InvalidQueryParameterException("No máximo " + MAX_BATCH_IDS + " ids por requisição");
+        }
+
+        Map<Long, Product> found = new HashMap<>();
+        ProductCatalogCache cache = catalogCache.getIfAvailable();
+        List<Long> uncached = new ArrayList<>(requested);
+        if (cache != null) {
+            uncached.clear();
+            for (Long id : requested) {
+                Product cached = cache.get(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    uncached.add(id);
+                }
+            }
+        }
+
+        // Produto e dimensão num SELECT, imagens e detalhes em um cada: três consultas IN qualquer que seja o número de ids
+        if (!uncached.isEmpty()) {
+            boolean fill = cache != null && ProductField.isAll(fields);
+            long observedEvictions = fill ? cache.evictionCount() : 0;
+            for (Product product : repository.findProjectedByIdIn(fill ? cache.attributes() : ProductField.attributesOf(fields), uncached)) {
+                found.put(product.getId(), product);
+                if (fill) {
+                    cache.put(product, observedEvictions);
+                }
+            }
+        }
+
+        List<ProductView> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(ProductView.of(product, fields));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return ProductBatchResponse.builder().products(products).missingIds(missingIds).build();
+    }
 
-    {
-        try { Files.createDirectories(rootLocation); } catch (IOException e) { throw new RuntimeException(e); }
+    /** @param minPrice, maxPrice filtro opcional pelo preço final (com desconto), limites inclusivos */
+    @Transactional(readOnly = true)
+    public Page<Product> findAll(Pageable pageable, BigDecimal minPrice, BigDecimal maxPrice) {
+        return findAll(pageable, minPrice, maxPrice, ProductField.ALL);
     }
 
+    // Só ordenações com índice (ProductSort); com filtro de preço, só a ordem do índice de effective_price_cents
     @Transactional(readOnly = true)
-    public ProductResponse findById(Long id) {
-        return repository.findById(id)
-                .map(ProductConverter::convertToProductResponse)
-                .orElseThrow(() -> new ProductNotFoundException("Produto não encontrado: " + id));
+    public Page<Product> findAll(Pageable pageable, BigDecimal minPrice, BigDecimal maxPrice, Set<ProductField> fields) {
+        Long minCents = null;
+        Long maxCents = null;
+        if (minPrice != null || maxPrice != null) {
+            minCents = minPrice != null ? ProductPricing.toCents(minPrice) : 0L;
+            maxCents = maxPrice != null ? ProductPricing.toCents(maxPrice) : Long.MAX_VALUE;
+            if (minCents > maxCents) {
+                throw new InvalidQueryParameterException("minPrice não pode ser maior que maxPrice");
+            }
+        }
+        Pageable indexed = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                ProductSort.resolve(pageable.getSort(), minCents != null));
+        // Com fields= o SELECT traz só as colunas pedidas (sem o TEXT de full_description, por exemplo)
+        return repository.findProjected(ProductField.attributesOf(fields), minCents, maxCents, indexed);
     }
 
+    static final int MAX_CHANGES = 1000;
+
+    /**
+     * Produtos criados, alterados ou apagados depois da marca d'água, em ordem de commit.
+     * Um produto alterado várias vezes aparece uma vez só, com o estado atual.
+     *
+     * @param since        watermark da última sincronização; null para começar do zero
+     * @param continuation token da página anterior (tem precedência sobre since)
+     */
     @Transactional(readOnly = true)
-    public Page<ProductResponse> findAll(Pageable pageable) {
-        return repository.findAll(pageable).map(ProductConverter::convertToProductResponse);
+    public ProductChangesResponse findChanges(Long since, String continuation, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new InvalidQueryParameterException("limit deve estar entre 1 e " + MAX_CHANGES);
+        }
+        if (since != null && since < 0) {
+            throw new InvalidQueryParameterException("since não pode ser negativo");
+        }
+        // -1: inclui também produtos gravados por fora da aplicação (change_seq 0)
+        long after = continuation != null ? ChangeToken.decode(continuation) : since != null ? since : -1;
+
+        // As duas consultas andam pelo índice de change_seq; limit + 1 diz se ainda há mais
+        List<Product> products = repository.findProjectedByChangeSeqGreaterThan(ProductField.attributesWithChangeSeq(), after, limit + 1);
+        List<ProductTombstone> tombstones = tombstoneRepository.findByChangeSeqGreaterThanOrderByChangeSeqAsc(after, PageRequest.of(0, limit + 1));
+
+        List<ProductChange> changes = new ArrayList<>(Math.min(limit, products.size() + tombstones.size()));
+        int p = 0;
+        int t = 0;
+        while (changes.size() < limit && (p < products.size() || t < tombstones.size())) {
+            boolean takeProduct = t >= tombstones.size()
+                    || (p < products.size() && products.get(p).getChangeSeq() < tombstones.get(t).getChangeSeq());
+            if (takeProduct) {
+                Product product = products.get(p++);
+                changes.add(ProductChange.builder()
+                        .seq(product.getChangeSeq())
+                        .id(product.getId())
+                        .type(ProductChange.Type.UPSERT)
+                        .product(product)
+                        .build());
+            } else {
+                ProductTombstone tombstone = tombstones.get(t++);
+                changes.add(ProductChange.builder()
+                        .seq(tombstone.getChangeSeq())
+                        .id(tombstone.getProductId())
+                        .type(ProductChange.Type.DELETE)
+                        .build());
+            }
+        }
+
+        boolean hasMore = p < products.size() || t < tombstones.size();
+        long watermark = changes.isEmpty() ? Math.max(after, 0) : changes.get(changes.size() - 1).getSeq();
+        return ProductChangesResponse.builder()
+                .changes(changes)
+                .watermark(watermark)
+                .continuation(hasMore ? ChangeToken.encode(watermark) : null)
+                .build();
     }
 
     @Transactional
     public void deleteById(Long id) {
         Product product = repository.findById(id).orElseThrow(() -> new ProductNotFoundException("ID: " + id));
         try {
-            if (product.getMainImage() != null) Files.deleteIfExists(rootLocation.resolve(product.getMainImage()));
+            if (product.getMainImage() != null) imageStorage.delete(product.getMainImage());
             if (product.getAdditionalImages() != null) {
                 for (ProductImage img : product.getAdditionalImages()) {
-                    Files.deleteIfExists(rootLocation.resolve(img.getFileName()));
+                    imageStorage.delete(img.getFileName());
                 }
             }
         } catch (IOException e) { log.warn("Erro ao deletar arquivos"); }
         repository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangeEvent.product(id, CatalogChangeEvent.Type.DELETED));
+        eventPublisher.publishEvent(AuditEvent.product(id, AuditEvent.Action.DELETED));
     }
 
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
         Product productCreated = ProductConverter.convertToProduct(request);
         resolveCategory(request, productCreated);
+        ProductPricing.applyEffectivePrice(productCreated);
 
         productCreated.setProductDetails(new ArrayList<>());
         productCreated.setAdditionalImages(new ArrayList<>());
@@ -93,12 +272,21 @@ public class ProductService {
             productDetailRepository.saveAll(product.getProductDetails());
         }
 
+        eventPublisher.publishEvent(CatalogChangeEvent.product(product.getId(), CatalogChangeEvent.Type.CREATED));
+        eventPublisher.publishEvent(AuditEvent.product(product.getId(), AuditEvent.Action.CREATED));
         return ProductConverter.convertToProductResponse(product);
     }
 
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest request) {
+        return updateProduct(id, request, null);
+    }
+
+    /** @param expectedVersion versão vinda do If-Match; null para não checar */
+    @Transactional
+    public ProductResponse updateProduct(Long id, ProductRequest request, Long expectedVersion) {
         Product product = repository.findById(id).orElseThrow(() -> new ProductNotFoundException("ID: " + id));
+        VersionCheck.requireVersion(expectedVersion, product.getVersion(), "Product " + id);
 
         product.setName(request.getName());
         product.setShortDescription(request.getShortDescription());
@@ -110,43 +298,40 @@ public class ProductService {
         product.setListPrice(request.getListPrice());
         product.setDiscount(request.getDiscount());
         product.setCost(request.getCost());
+        ProductPricing.applyEffectivePrice(product);
 
         product.setEnabled(request.getIsEnabled());
-        product.setInStock(request.getInStock());
-        product.setUpdateTime(LocalDateTime.now());
-
-        if (product.getBoxDimension() == null && request.getDimension() != null) {
-            BoxDimension newDim = ProductConverter.convertBoxDimension(request);
-            newDim.setProduct(product);
-            product.setBoxDimension(newDim);
-        } else if (product.getBoxDimension() != null && request.getDimension() != null) {
-            product.getBoxDimension().setWidth(request.getDimension().getWidth());
-            product.getBoxDimension().setHeight(request.getDimension().getHeight());
-            product.getBoxDimension().setLength(request.getDimension().getLength());
-            product.getBoxDimension().setWeight(request.getDimension().getWeight());
+        // Com quantidade controlada, quem decide o in_stock é o estoque
+        if (!stockService.isTracked(id)) {
+            product.setInStock(request.getInStock());
         }
+        product.setUpdateTime(LocalDateTime.now());
 
-        List<ProductDetail> newDetails = ProductConverter.convertProductDetail(request);
-        if (product.getProductDetails() == null) product.setProductDetails(new ArrayList<>());
-        product.getProductDetails().clear();
-        if (newDetails != null) {
-            newDetails.forEach(d -> d.setProduct(product));
-            product.getProductDetails().addAll(newDetails);
-        }
+        // Só o que mudou vai para o banco: detalhes e dimensão iguais não geram DELETE + INSERT
+        ProductAttributes.mergeBoxDimension(product, request.getDimension());
+        ProductAttributes.mergeDetails(product, request.getDetails());
 
-        return ProductConverter.convertToProductResponse(repository.save(product));
+        // flush para a resposta já trazer a versão nova (e o conflito aparecer aqui, como 409)
+        Product saved = repository.saveAndFlush(product);
+        eventPublisher.publishEvent(CatalogChangeEvent.product(id, CatalogChangeEvent.Type.UPDATED));
+        eventPublisher.publishEvent(AuditEvent.product(id, AuditEvent.Action.UPDATED));
+        return ProductConverter.convertToProductResponse(saved);
     }
 
+    @Transactional
     public ProductResponse updateProductImage(Long id, MultipartFile file) {
         Product product = repository.findById(id).orElseThrow(() -> new ProductNotFoundException("ID: " + id));
         if (file == null || file.isEmpty()) return ProductConverter.convertToProductResponse(product);
 
         try {
-            if (product.getMainImage() != null) Files.deleteIfExists(rootLocation.resolve(product.getMainImage()));
+            if (product.getMainImage() != null) imageStorage.delete(product.getMainImage());
             String filename = System.currentTimeMillis() + "_MAIN_" + file.getOriginalFilename();
-            Files.copy(file.getInputStream(), rootLocation.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+            storeImage(filename, file);
             product.setMainImage(filename);
-            return ProductConverter.convertToProductResponse(repository.save(product));
+            Product saved = repository.save(product);
+            eventPublisher.publishEvent(CatalogChangeEvent.product(id, CatalogChangeEvent.Type.UPDATED));
+            eventPublisher.publishEvent(AuditEvent.product(id, AuditEvent.Action.UPDATED));
+            return ProductConverter.convertToProductResponse(saved);
         } catch (IOException e) { throw new RuntimeException("Erro upload", e); }
     }
 
@@ -159,7 +344,7 @@ public class ProductService {
             if (!file.isEmpty()) {
                 try {
                     String filename = System.currentTimeMillis() + "_EXTRA_" + file.getOriginalFilename();
-                    Files.copy(file.getInputStream(), rootLocation.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+                    storeImage(filename, file);
 
                     ProductImage img = ProductImage.builder().fileName(filename).product(product).build();
 
@@ -169,7 +354,16 @@ public class ProductService {
                 } catch (IOException e) { log.error("Erro upload extra", e); }
             }
         }
-        return ProductConverter.convertToProductResponse(repository.save(product));
+        Product saved = repository.save(product);
+        eventPublisher.publishEvent(CatalogChangeEvent.product(id, CatalogChangeEvent.Type.UPDATED));
+        eventPublisher.publishEvent(AuditEvent.product(id, AuditEvent.Action.UPDATED));
+        return ProductConverter.convertToProductResponse(saved);
+    }
+
+    private void storeImage(String filename, MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            imageStorage.store(filename, in, file.getSize(), file.getContentType());
+        }
     }
 
     private void resolveCategory(ProductRequest request, Product product) {
@@ -0,0 +1,92 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Campos pelos quais GET /products pode ser ordenado. Cada um tem um índice composto (coluna, id)
+ * criado por migração, e a ordenação sempre termina em id na mesma direção, para o banco
+ * percorrer o índice em vez de ordenar a tabela inteira.
+ */
+public enum ProductSort {
+
+    ID("id", "id", "id", "PRIMARY"),
+    NAME("name", "name", "name", "idx_product_name"),
+    LIST_PRICE("listPrice", "listPrice", "list_price", "idx_product_list_price"),
+    EFFECTIVE_PRICE("effectivePrice", "effectivePriceCents", "effective_price_cents", "idx_product_effective_price"),
+    CREATION_TIME("creationTime", "creationTime", "creation_time", "idx_product_creation_time"),
+    UPDATE_TIME("updateTime", "updateTime", "update_time", "idx_product_update_time");
+
+    private final String parameter;
+    private final String property;
+    private final String column;
+    private final String index;
+
+    ProductSort(String parameter, String property, String column, String index) {
+        this.parameter = parameter;
+        this.property = property;
+        this.column = column;
+        this.index = index;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    /** Sort da entidade para esta coluna, com id como desempate na mesma direção. */
+    public Sort toSort(Sort.Direction direction) {
+        return this == ID ? Sort.by(direction, "id") : Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Traduz o sort pedido pelo cliente. Sem sort, a listagem sai por id.
+     * Mais de um campo ou campo fora da lista é rejeitado: nenhum índice atende.
+     */
+    public static Sort resolve(Sort requested) {
+        return resolve(requested, false);
+    }
+
+    /**
+     * Com filtro de preço (minPrice/maxPrice) a faixa percorre idx_product_effective_price, e só a ordem
+     * desse mesmo índice sai sem filesort: qualquer outro campo é rejeitado, e sem sort a listagem sai por preço.
+     */
+    public static Sort resolve(Sort requested, boolean priceFiltered) {
+        if (priceFiltered) {
+            List<Sort.Order> orders = requested.toList();
+            if (orders.isEmpty()) {
+                return EFFECTIVE_PRICE.toSort(Sort.Direction.ASC);
+            }
+            if (orders.size() > 1 || !EFFECTIVE_PRICE.parameter.equals(orders.get(0).getProperty())) {
+                throw new InvalidQueryParameterException("With minPrice/maxPrice the only supported sort is '"
+                        + EFFECTIVE_PRICE.parameter + "', got: " + requested);
+            }
+            return EFFECTIVE_PRICE.toSort(orders.get(0).getDirection());
+        }
+        List<Sort.Order> orders = requested.toList();
+        if (orders.isEmpty()) {
+            return ID.toSort(Sort.Direction.ASC);
+        }
+        if (orders.size() > 1) {
+            throw new InvalidQueryParameterException("Only one sort field is supported, got: " + requested);
+        }
+        Sort.Order order = orders.get(0);
+        return Arrays.stream(values())
+                .filter(sort -> sort.parameter.equals(order.getProperty()))
+                .findFirst()
+                .map(sort -> sort.toSort(order.getDirection()))
+                .orElseThrow(() -> new InvalidQueryParameterException("Cannot sort by '" + order.getProperty()
+                        + "'. Allowed: " + Arrays.stream(values()).map(ProductSort::getParameter).collect(Collectors.joining(", "))));
+    }
+}
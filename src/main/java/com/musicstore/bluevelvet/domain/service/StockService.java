@@ -0,0 +1,118 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.StockReservationResponse;
+import com.musicstore.bluevelvet.api.response.StockResponse;
+import com.musicstore.bluevelvet.domain.exception.InsufficientStockException;
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import com.musicstore.bluevelvet.domain.exception.ProductNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.ReservationNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.StockUnavailableException;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import com.musicstore.bluevelvet.infrastructure.stock.Reservation;
+import com.musicstore.bluevelvet.infrastructure.stock.StockLedger;
+import com.musicstore.bluevelvet.infrastructure.stock.StockOwnership;
+import com.musicstore.bluevelvet.infrastructure.stock.StockSnapshot;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Quantidades em estoque e reservas. Nada aqui abre transação: o caminho quente fica em memória
+ * (StockLedger) e o banco é atualizado em lote.
+ */
+@Service
+@Timed("catalog.service")
+@RequiredArgsConstructor
+public class StockService {
+
+    private final ObjectProvider<StockOwnership> stockOwnership;
+    private final ProductRepository productRepository;
+
+    /** Produtos com quantidade controlada têm o in_stock derivado dela, e não do cadastro. */
+    public boolean isTracked(Long productId) {
+        StockOwnership ownership = stockOwnership.getIfAvailable();
+        return ownership != null && ownership.isTracked(productId);
+    }
+
+    public StockResponse getStock(Long productId) {
+        StockSnapshot snapshot = ledger().get(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Estoque não controlado para o produto: " + productId));
+        return toResponse(snapshot);
+    }
+
+    public StockResponse setOnHand(Long productId, Long onHand) {
+        if (onHand == null || onHand < 0) {
+            throw new InvalidQueryParameterException("onHand deve ser zero ou positivo");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException("ID: " + productId);
+        }
+        StockSnapshot snapshot = ledger().setOnHand(productId, onHand)
+                .orElseThrow(() -> new InsufficientStockException(
+                        "Quantidade menor que o total já reservado para o produto " + productId));
+        return toResponse(snapshot);
+    }
+
+    public StockReservationResponse reserve(Long productId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new InvalidQueryParameterException("quantity deve ser positivo");
+        }
+        Reservation reservation = ledger().reserve(productId, quantity)
+                .orElseThrow(() -> new InsufficientStockException(
+                        "Estoque insuficiente para reservar " + quantity + " unidade(s) do produto " + productId));
+        return StockReservationResponse.builder()
+                .id(reservation.id())
+                .productId(reservation.productId())
+                .quantity(reservation.quantity())
+                .expiresAt(reservation.expiresAt())
+                .build();
+    }
+
+    public void commit(Long productId, UUID reservationId) {
+        requireReservation(productId, reservationId);
+        if (!ledger().commit(reservationId)) {
+            throw new ReservationNotFoundException("Reserva não encontrada: " + reservationId);
+        }
+    }
+
+    public void release(Long productId, UUID reservationId) {
+        requireReservation(productId, reservationId);
+        if (!ledger().release(reservationId)) {
+            throw new ReservationNotFoundException("Reserva não encontrada: " + reservationId);
+        }
+    }
+
+    private void requireReservation(Long productId, UUID reservationId) {
+        ledger().getReservation(reservationId)
+                .filter(reservation -> reservation.productId() == productId)
+                .orElseThrow(() -> new ReservationNotFoundException("Reserva não encontrada: " + reservationId));
+    }
+
+    // 503 e não 500: o estoque pode estar desligado aqui ou ser atendido por outro nó (o dono da lease)
+    private StockLedger ledger() {
+        StockOwnership ownership = stockOwnership.getIfAvailable();
+        if (ownership == null) {
+            throw new StockUnavailableException("Controle de estoque desligado (bluevelvet.stock.enabled=false)");
+        }
+        StockLedger ledger = ownership.ledger().orElseThrow(() -> new StockUnavailableException(
+                "O estoque está sendo atendido por outra instância. Tente novamente."));
+        // Sem flush o que for aceito agora só fica no journal deste nó e se perde se outro nó assumir
+        if (!ownership.isFlushCurrent()) {
+            throw new StockUnavailableException("O estoque não está conseguindo gravar no banco. Tente novamente.");
+        }
+        return ledger;
+    }
+
+    private static StockResponse toResponse(StockSnapshot snapshot) {
+        return StockResponse.builder()
+                .productId(snapshot.productId())
+                .onHand(snapshot.onHand())
+                .reserved(snapshot.reserved())
+                .available(snapshot.available())
+                .inStock(snapshot.available() > 0)
+                .build();
+    }
+}
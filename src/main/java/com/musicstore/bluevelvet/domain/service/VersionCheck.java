@@ -0,0 +1,18 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.exception.PreconditionFailedException;
+
+final class VersionCheck {
+
+    private VersionCheck() {
+    }
+
+    // If-Match: a edição foi feita sobre uma versão que já não é a atual.
+    // Se a troca acontecer entre esta checagem e o commit, quem barra é o @Version (409)
+    static void requireVersion(Long expectedVersion, Long currentVersion, String what) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException(what + " was modified: expected version " + expectedVersion
+                    + ", current version " + currentVersion);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.musicstore.bluevelvet.infrastructure.audit;
+
+import com.musicstore.bluevelvet.domain.event.AuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log de auditoria fora do caminho da requisição: o evento só entra numa fila em memória (limitada) depois
+ * do commit, e uma thread própria grava em lote no {@link AuditStore}. Enquanto um lote está sendo gravado
+ * a fila acumula o próximo, então sob carga os lotes crescem sozinhos.
+ * <p>
+ * No desligamento a fila é esvaziada antes de o DataSource fechar. Num crash, perde-se no máximo o que
+ * ainda estava na fila. Com a fila cheia (banco fora do ar por muito tempo) o evento é descartado, contado
+ * em audit.events{outcome=dropped} e escrito no log da aplicação: a escrita do admin nunca espera pela auditoria.
+ */
+@Log4j2
+public class AuditLog implements Closeable {
+
+    static final String SYSTEM_ACTOR = "system";
+    static final String ANONYMOUS_ACTOR = "anonymous";
+
+    private final AuditStore store;
+    private final BlockingQueue<AuditRecord> queue;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final Clock clock;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer writeTimer;
+
+    // Lote que a thread de gravação tirou da fila e ainda não conseguiu gravar: o close() tenta de novo
+    private final List<AuditRecord> inFlight = new ArrayList<>();
+    private volatile boolean closed;
+    private Thread writer;
+
+    public AuditLog(AuditStore store, int capacity, int batchSize, Duration shutdownTimeout, Clock clock,
+                    MeterRegistry meterRegistry) {
+        this.store = store;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+        this.clock = clock;
+        this.written = Counter.builder("audit.events").tag("outcome", "written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.events").tag("outcome", "dropped").register(meterRegistry);
+        this.writeTimer = Timer.builder("audit.write").register(meterRegistry);
+        meterRegistry.gauge("audit.queue", queue, BlockingQueue::size);
+    }
+
+    public void start(Duration retryInterval) {
+        writer = new Thread(() -> run(retryInterval), "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // AFTER_COMMIT: rollback não gera auditoria, e quem fez continua no SecurityContext desta thread.
+    // Só AuditEvent: CatalogChangeEvent é invalidação de cache e inclui efeitos colaterais e o flush do estoque
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAuditEvent(AuditEvent event) {
+        append(event.entity().name(), event.id(), event.action().name());
+    }
+
+    /** @return false se a fila estava cheia e o evento foi descartado */
+    public boolean append(String entity, long entityId, String action) {
+        AuditRecord record = new AuditRecord(clock.instant(), currentActor(), entity, entityId, action);
+        if (queue.offer(record)) {
+            return true;
+        }
+        dropped.increment();
+        log.error("Audit queue full, dropping {}", record);
+        return false;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            // Threads internas (flush do estoque etc.)
+            return SYSTEM_ACTOR;
+        }
+        if (authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return ANONYMOUS_ACTOR;
+        }
+        return authentication.getName();
+    }
+
+    private void run(Duration retryInterval) {
+        while (!closed) {
+            try {
+                AuditRecord first = queue.poll(retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                synchronized (inFlight) {
+                    inFlight.add(first);
+                    queue.drainTo(inFlight, batchSize - 1);
+                }
+                while (!closed && !writeInFlight()) {
+                    Thread.sleep(retryInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean writeInFlight() {
+        synchronized (inFlight) {
+            if (inFlight.isEmpty()) {
+                return true;
+            }
+            try {
+                writeTimer.record(() -> store.append(inFlight));
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} audit records, will retry", inFlight.size(), e);
+                return false;
+            }
+            written.increment(inFlight.size());
+            inFlight.clear();
+            return true;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.join(shutdownTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                // Preso numa gravação: não dá para mexer no lote dele
+                List<AuditRecord> lost = new ArrayList<>();
+                queue.drainTo(lost);
+                dropped.increment(lost.size());
+                log.error("Audit writer did not stop within {}, {} queued audit records not written: {}",
+                        shutdownTimeout, lost.size(), lost);
+                return;
+            }
+        }
+        // O que sobrou na fila vai agora, em lotes, com o DataSource ainda aberto
+        synchronized (inFlight) {
+            do {
+                queue.drainTo(inFlight, batchSize - inFlight.size());
+                if (!writeInFlight()) {
+                    List<AuditRecord> lost = new ArrayList<>(inFlight);
+                    queue.drainTo(lost);
+                    dropped.increment(lost.size());
+                    log.error("Could not write {} audit records on shutdown: {}", lost.size(), lost);
+                    return;
+                }
+            } while (!queue.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.musicstore.bluevelvet.infrastructure.audit;
+
+import java.time.Instant;
+
+/** Uma linha de audit_log: quem ({@code actor}) fez o quê ({@code action}) em qual entidade, e quando. */
+public record AuditRecord(Instant occurredAt, String actor, String entity, long entityId, String action) {
+}
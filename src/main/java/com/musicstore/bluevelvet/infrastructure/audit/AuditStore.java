@@ -0,0 +1,10 @@
+package com.musicstore.bluevelvet.infrastructure.audit;
+
+import java.util.List;
+
+/** Onde o log de auditoria fica gravado. Só acrescenta: nada é alterado nem removido. */
+public interface AuditStore {
+
+    /** Grava o lote inteiro ou nada (uma nova tentativa não duplica linhas). */
+    void append(List<AuditRecord> records);
+}
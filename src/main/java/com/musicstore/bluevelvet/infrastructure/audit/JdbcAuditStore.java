@@ -0,0 +1,32 @@
+package com.musicstore.bluevelvet.infrastructure.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/** Tabela audit_log: um batch de INSERTs numa transação por lote. */
+public class JdbcAuditStore implements AuditStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcAuditStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void append(List<AuditRecord> records) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO audit_log (occurred_at, actor, entity, entity_id, action) VALUES (?, ?, ?, ?, ?)",
+                records, records.size(), (ps, record) -> {
+                    ps.setTimestamp(1, Timestamp.from(record.occurredAt()));
+                    ps.setString(2, record.actor());
+                    ps.setString(3, record.entity());
+                    ps.setLong(4, record.entityId());
+                    ps.setString(5, record.action());
+                }));
+    }
+}
@@ -0,0 +1,68 @@
+package com.musicstore.bluevelvet.infrastructure.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de requisições simultâneas de uma classe de endpoints. Quem não consegue vaga em até
+ * {@code maxWait} é recusado na hora, em vez de ocupar uma thread do Tomcat (e uma conexão do Hikari)
+ * que faria falta às outras classes.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final Counter rejected;
+    private final Timer waitTimer;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        Tags tags = Tags.of("class", name);
+        this.rejected = meterRegistry.counter("http.bulkhead.rejected", tags);
+        this.waitTimer = Timer.builder("http.bulkhead.wait").tags(tags).register(meterRegistry);
+        meterRegistry.gauge("http.bulkhead.active", tags, this, Bulkhead::active);
+        meterRegistry.gauge("http.bulkhead.limit", tags, this, bulkhead -> bulkhead.maxConcurrent);
+    }
+
+    /** @return true se conseguiu vaga; nesse caso {@link #release()} tem que ser chamado no fim da requisição */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        long started = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = !maxWait.isZero() && permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
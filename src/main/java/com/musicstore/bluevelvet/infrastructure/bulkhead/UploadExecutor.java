@@ -0,0 +1,38 @@
+package com.musicstore.bluevelvet.infrastructure.bulkhead;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Pool próprio para o processamento dos uploads (gravação no storage e no banco). O controller devolve
+ * um {@link WebAsyncTask} e a thread do Tomcat volta para o pool assim que o corpo multipart foi lido.
+ */
+public class UploadExecutor implements Closeable {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration timeout;
+
+    public UploadExecutor(int threads, int queueCapacity, Duration timeout) {
+        this.timeout = timeout;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("upload-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    public <T> WebAsyncTask<T> submit(Callable<T> task) {
+        return new WebAsyncTask<>(timeout.toMillis(), executor, task);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
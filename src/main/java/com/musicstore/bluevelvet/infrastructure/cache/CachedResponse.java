@@ -0,0 +1,27 @@
+package com.musicstore.bluevelvet.infrastructure.cache;
+
+/**
+ * Uma resposta pronta, já com as codificações que o cliente pode pedir.
+ * {@code brotli} é null quando a biblioteca nativa do Brotli não está disponível.
+ */
+public record CachedResponse(String contentType, String etag, byte[] identity, byte[] gzip, byte[] brotli) {
+
+    public static final String GZIP = "gzip";
+    public static final String BROTLI = "br";
+
+    /** @param encoding "br", "gzip" ou null (sem compressão) */
+    public byte[] body(String encoding) {
+        if (BROTLI.equals(encoding)) return brotli;
+        if (GZIP.equals(encoding)) return gzip;
+        return identity;
+    }
+
+    // Cada representação tem seu próprio ETag, como pede o HTTP quando há Content-Encoding
+    public String etag(String encoding) {
+        return encoding == null ? "\"" + etag + "\"" : "\"" + etag + "-" + encoding + "\"";
+    }
+
+    public long size() {
+        return identity.length + gzip.length + (brotli != null ? brotli.length : 0);
+    }
+}
@@ -0,0 +1,215 @@
+package com.musicstore.bluevelvet.infrastructure.cache;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache das páginas mais acessadas do catálogo (/products, /api/categories), guardadas já serializadas
+ * e comprimidas em gzip e Brotli. A compressão acontece uma vez, quando a entrada é criada.
+ * <p>
+ * Qualquer escrita em produto ou categoria descarta tudo: as desta instância logo depois do commit, as das
+ * outras quando chegam pelo catalog_outbox. O contador de geração impede que uma resposta montada antes da
+ * escrita entre no cache depois da invalidação.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "bluevelvet.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogResponseCache {
+
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Set<String> paths;
+    private final int maxPages;
+    private final int maxEntries;
+    private final long maxBodySize;
+    private final int brotliQuality;
+    private final boolean brotliAvailable;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CatalogResponseCache(@Value("${bluevelvet.response-cache.paths:/products,/api/categories}") List<String> paths,
+                                @Value("${bluevelvet.response-cache.max-pages:3}") int maxPages,
+                                @Value("${bluevelvet.response-cache.max-entries:256}") int maxEntries,
+                                @Value("${bluevelvet.response-cache.max-body-size:2MB}") DataSize maxBodySize,
+                                @Value("${bluevelvet.response-cache.brotli-quality:9}") int brotliQuality,
+                                MeterRegistry meterRegistry) {
+        this.paths = Set.copyOf(paths);
+        this.maxPages = maxPages;
+        this.maxEntries = maxEntries;
+        this.maxBodySize = maxBodySize.toBytes();
+        this.brotliQuality = brotliQuality;
+        this.brotliAvailable = Brotli4jLoader.isAvailable();
+        this.hits = meterRegistry.counter("catalog.response.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("catalog.response.cache.requests", "result", "miss");
+        if (!brotliAvailable) {
+            log.warn("Brotli native library not available, cached responses will be gzip only",
+                    Brotli4jLoader.getUnavailabilityCause());
+        }
+        meterRegistry.gaugeMapSize("catalog.response.cache.entries", List.of(), entries);
+    }
+
+    public boolean isBrotliAvailable() {
+        return brotliAvailable;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Chave da requisição (caminho + parâmetros em ordem alfabética), ou null se ela não deve passar pelo cache.
+     * Só as primeiras {@code max-pages} páginas são guardadas; o resto vai direto para o banco.
+     */
+    public String keyOf(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || !paths.contains(request.getRequestURI())) {
+            return null;
+        }
+        // Leitura em lote: cada carrinho tem o seu conjunto de ids, o que só encheria o cache
+        if (request.getParameter("ids") != null) {
+            return null;
+        }
+        String page = request.getParameter("page");
+        if (page != null && !(page.matches("\\d{1,9}") && Integer.parseInt(page) < maxPages)) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            // A ordem dos valores repetidos importa, então não é reordenada
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    /**
+     * Comprime o corpo e guarda, a menos que o catálogo tenha mudado desde {@code observedGeneration}.
+     * Devolve a entrada (guardada ou não) para que a requisição atual já responda comprimida,
+     * ou null se o corpo for grande demais.
+     */
+    public CachedResponse put(String key, long observedGeneration, String contentType, byte[] body) {
+        if (body.length > maxBodySize) {
+            return null;
+        }
+        CachedResponse cached = new CachedResponse(contentType, DigestUtils.md5DigestAsHex(body),
+                body, gzip(body), brotliAvailable ? brotli(body) : null);
+
+        if (generation.get() == observedGeneration && entries.size() < maxEntries) {
+            entries.put(key, cached);
+            // Uma invalidação pode ter acontecido entre a verificação e o put
+            if (generation.get() != observedGeneration) {
+                entries.remove(key, cached);
+            }
+        }
+        return cached;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    // Depois do commit (ou na hora, se não houver transação), para que uma nova leitura já veja os dados novos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        log.debug("Invalidating cached catalog responses after {}", event);
+        invalidateAll();
+    }
+
+    // Escritas feitas em outras instâncias (as desta também chegam, e custam só mais uma invalidação)
+    @EventListener
+    public void onCatalogChangeRecord(CatalogChangeRecord record) {
+        log.debug("Invalidating cached catalog responses after outbox seq {}", record.seq());
+        invalidateAll();
+    }
+
+    /**
+     * Escolhe a codificação a partir do Accept-Encoding: Brotli, depois gzip, senão null (sem compressão).
+     * Respeita q=0 e o curinga "*".
+     */
+    public static String preferredEncoding(String acceptEncoding, boolean brotliAvailable) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Boolean br = null, gzip = null, wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            switch (coding) {
+                case CachedResponse.BROTLI -> br = accepted;
+                case CachedResponse.GZIP, "x-gzip" -> gzip = accepted;
+                case "*" -> wildcard = accepted;
+                default -> { }
+            }
+        }
+        if (brotliAvailable && Boolean.TRUE.equals(br != null ? br : wildcard)) {
+            return CachedResponse.BROTLI;
+        }
+        if (Boolean.TRUE.equals(gzip != null ? gzip : wildcard)) {
+            return CachedResponse.GZIP;
+        }
+        return null;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] body) {
+        try {
+            return Encoder.compress(body, new Encoder.Parameters().setQuality(brotliQuality));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.musicstore.bluevelvet.infrastructure.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot do {@link ProductCatalogCache} em disco, lido com mmap: a subida não desserializa nada,
+ * cada produto só é decodificado quando é pedido.
+ * <pre>
+ *   header   magic "BVCS" | formato | formato do ProductCodec | catalog_id (16) | watermark | criado em (ms) | n
+ *   dados    n produtos codificados, um depois do outro
+ *   índice   n entradas (id, offset, tamanho) ordenadas por id: a busca binária é feita direto no arquivo
+ *   trailer  CRC32C de tudo o que vem antes
+ * </pre>
+ * A gravação vai para um arquivo temporário, com fsync, e só então substitui o anterior (rename atômico).
+ */
+public final class CatalogSnapshot {
+
+    public static final int MAGIC = 0x42564353; // "BVCS"
+    public static final int FORMAT = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 16 + 8 + 8 + 4;
+    private static final int INDEX_ENTRY_SIZE = 8 + 4 + 4;
+    private static final int TRAILER_SIZE = 4;
+
+    private final MappedByteBuffer buffer;
+    private final UUID catalogId;
+    private final long watermark;
+    private final long createdAt;
+    private final int count;
+    private final int indexStart;
+
+    private CatalogSnapshot(MappedByteBuffer buffer, UUID catalogId, long watermark, long createdAt, int count, int indexStart) {
+        this.buffer = buffer;
+        this.catalogId = catalogId;
+        this.watermark = watermark;
+        this.createdAt = createdAt;
+        this.count = count;
+        this.indexStart = indexStart;
+    }
+
+    /**
+     * Mapeia e valida o arquivo (magic, formatos, tamanhos e CRC).
+     *
+     * @throws InvalidSnapshotException se o arquivo não puder ser usado; quem chama descarta e segue sem ele
+     */
+    public static CatalogSnapshot open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new InvalidSnapshotException(file + ": unexpected size " + size);
+            }
+            // O mapeamento continua válido depois que o canal é fechado
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int magic = buffer.getInt(0);
+        int format = buffer.getInt(4);
+        int codecFormat = buffer.getInt(8);
+        if (magic != MAGIC || format != FORMAT || codecFormat != ProductCodec.FORMAT) {
+            throw new InvalidSnapshotException(file + ": format " + format + "/" + codecFormat
+                    + " (expected " + FORMAT + "/" + ProductCodec.FORMAT + ")");
+        }
+        UUID catalogId = new UUID(buffer.getLong(12), buffer.getLong(20));
+        long watermark = buffer.getLong(28);
+        long createdAt = buffer.getLong(36);
+        int count = buffer.getInt(44);
+
+        int trailerStart = buffer.limit() - TRAILER_SIZE;
+        long indexStart = trailerStart - (long) count * INDEX_ENTRY_SIZE;
+        if (count < 0 || indexStart < HEADER_SIZE) {
+            throw new InvalidSnapshotException(file + ": index does not fit (" + count + " entries)");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(trailerStart));
+        if (buffer.getInt(trailerStart) != (int) crc.getValue()) {
+            throw new InvalidSnapshotException(file + ": checksum mismatch");
+        }
+        return new CatalogSnapshot(buffer, catalogId, watermark, createdAt, count, (int) indexStart);
+    }
+
+    /** Grava os produtos (já codificados, em ordem de id) em {@code file}, substituindo o anterior. */
+    public static void write(Path file, UUID catalogId, long watermark, long createdAt,
+                             SortedMap<Long, ByteBuffer> entries) throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), ".snapshot-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                CRC32C crc = new CRC32C();
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(ProductCodec.FORMAT);
+                out.writeLong(catalogId.getMostSignificantBits());
+                out.writeLong(catalogId.getLeastSignificantBits());
+                out.writeLong(watermark);
+                out.writeLong(createdAt);
+                out.writeInt(entries.size());
+
+                long offset = HEADER_SIZE;
+                for (ByteBuffer entry : entries.values()) {
+                    writeFully(out, entry);
+                    offset += entry.remaining();
+                }
+                if (offset + (long) entries.size() * INDEX_ENTRY_SIZE + TRAILER_SIZE > Integer.MAX_VALUE) {
+                    throw new IOException("Catalog snapshot would exceed 2GB, not writing it");
+                }
+                int position = HEADER_SIZE;
+                for (Map.Entry<Long, ByteBuffer> entry : entries.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeInt(position);
+                    out.writeInt(entry.getValue().remaining());
+                    position += entry.getValue().remaining();
+                }
+                // O CRC do trailer não entra na própria conta
+                int checksum = (int) crc.getValue();
+                out.writeInt(checksum);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeFully(DataOutputStream out, ByteBuffer entry) throws IOException {
+        if (entry.hasArray()) {
+            out.write(entry.array(), entry.arrayOffset() + entry.position(), entry.remaining());
+        } else {
+            byte[] bytes = new byte[entry.remaining()];
+            entry.duplicate().get(bytes);
+            out.write(bytes);
+        }
+    }
+
+    public UUID catalogId() {
+        return catalogId;
+    }
+
+    /** change_seq até o qual o conteúdo está completo. */
+    public long watermark() {
+        return watermark;
+    }
+
+    public long createdAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** O produto codificado (uma fatia do arquivo, sem cópia), ou null se o id não está no snapshot. */
+    public ByteBuffer get(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = indexStart + mid * INDEX_ENTRY_SIZE;
+            long midId = buffer.getLong(entry);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return slice(entry);
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(long id) {
+        return get(id) != null;
+    }
+
+    /** Percorre os produtos em ordem de id. */
+    public void forEach(BiConsumer<Long, ByteBuffer> consumer) {
+        for (int i = 0; i < count; i++) {
+            int entry = indexStart + i * INDEX_ENTRY_SIZE;
+            consumer.accept(buffer.getLong(entry), slice(entry));
+        }
+    }
+
+    private ByteBuffer slice(int indexEntry) {
+        int offset = buffer.getInt(indexEntry + 8);
+        int length = buffer.getInt(indexEntry + 12);
+        return buffer.slice(offset, length);
+    }
+
+    /** O arquivo existe mas não serve: formato antigo, corrompido ou truncado. */
+    public static class InvalidSnapshotException extends IOException {
+        public InvalidSnapshotException(String message) {
+            super(message);
+        }
+    }
+}
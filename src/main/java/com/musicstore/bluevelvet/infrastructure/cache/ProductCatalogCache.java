@@ -0,0 +1,512 @@
+package com.musicstore.bluevelvet.infrastructure.cache;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import com.musicstore.bluevelvet.infrastructure.datasource.ReplicaRoutingDataSource;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductTombstone;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Cache dos produtos lidos por id (GET /products/{id} e ?ids=), em forma binária ({@link ProductCodec}),
+ * que sobrevive ao restart: de tempos em tempos (e no shutdown) o conteúdo vai para um {@link CatalogSnapshot}.
+ * <p>
+ * Na subida o snapshot é mapeado e validado contra o banco (mesmo catalog_id, watermark não maior que o
+ * seq atual), e só o que mudou depois do watermark é lido: produtos pelo índice de change_seq, remoções
+ * pelo product_tombstone.
+ * <p>
+ * Coerência entre instâncias: cada mudança commitada chega a todas pelo catalog_outbox
+ * ({@link CatalogChangeRecord}, a cada {@code outbox.poll-interval}) e descarta a entrada. O catch-up a cada
+ * {@code refresh-interval} fica como rede de segurança. As escritas desta instância descartam a entrada
+ * logo depois do commit, sem esperar o outbox.
+ * <p>
+ * Entradas novas ficam num mapa em memória por cima do snapshot até a próxima gravação.
+ * <p>
+ * Misses simultâneos do mesmo produto (um produto popular logo depois de alterado) dividem uma única
+ * consulta ({@link SingleFlight}). Com {@code stale-while-revalidate} maior que zero, o produto descartado por
+ * uma escrita de outra instância continua sendo servido por até esse tempo enquanto a versão nova é
+ * buscada em segundo plano. As escritas desta instância nunca são servidas velhas.
+ * <p>
+ * Leituras forçadas no primário (quem acabou de escrever) não usam o cache: depois de uma escrita local a entrada
+ * pode ter sido preenchida por uma réplica atrasada, ou a carga em andamento pode ter começado antes do commit.
+ */
+@Log4j2
+public class ProductCatalogCache implements Closeable {
+
+    public static final String FILE_NAME = "products.snapshot";
+
+    // Marca de descarte no mapa em memória: só o seq da mudança que a causou (8 bytes; um produto codificado é maior).
+    // Um put com change_seq menor (lido de uma réplica atrasada, por exemplo) não passa por cima dela
+    private static final int MARKER_SIZE = Long.BYTES;
+
+    private final Path snapshotFile;
+    private final ProductRepository repository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final CatalogOutbox outbox;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Set<String> attributes;
+    private final int maxEntries;
+    private final int batchSize;
+    private final Duration staleWhileRevalidate;
+    private final Clock clock;
+
+    private final Map<Long, byte[]> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private final SingleFlight<Long, Product> loads = new SingleFlight<>();
+    // Última versão conhecida dos produtos descartados por escritas de outras instâncias
+    private final Map<Long, StaleEntry> stale = new ConcurrentHashMap<>();
+    private final ExecutorService revalidator;
+    private volatile CatalogSnapshot base;
+    private volatile long watermark;
+    private UUID catalogId;
+    private ScheduledExecutorService scheduler;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter loadCounter;
+    private final Timer refreshTimer;
+    private final Timer snapshotTimer;
+
+    private record StaleEntry(byte[] bytes, long evictedAt) {
+    }
+
+    /**
+     * @param attributes           o que é carregado para o cache: todos os campos do produto mais o changeSeq
+     * @param staleWhileRevalidate por quanto tempo um produto alterado em outra instância ainda pode ser servido; zero desliga
+     */
+    public ProductCatalogCache(Path directory,
+                               ProductRepository repository,
+                               ProductTombstoneRepository tombstoneRepository,
+                               CatalogOutbox outbox,
+                               TransactionTemplate readOnlyTransaction,
+                               Set<String> attributes,
+                               int maxEntries,
+                               int batchSize,
+                               Duration staleWhileRevalidate,
+                               Clock clock,
+                               MeterRegistry meterRegistry) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create catalog snapshot directory " + directory, e);
+        }
+        this.snapshotFile = directory.resolve(FILE_NAME);
+        this.repository = repository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.outbox = outbox;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.attributes = Set.copyOf(attributes);
+        this.maxEntries = maxEntries;
+        this.batchSize = batchSize;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.clock = clock;
+        this.revalidator = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "product-cache-revalidate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hits = meterRegistry.counter("catalog.product.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("catalog.product.cache.requests", "result", "miss");
+        this.staleHits = meterRegistry.counter("catalog.product.cache.requests", "result", "stale");
+        // Comparado com os misses, mostra quantas leituras foram atendidas por uma carga já em andamento
+        this.loadCounter = meterRegistry.counter("catalog.product.cache.loads");
+        this.refreshTimer = Timer.builder("catalog.product.cache.refresh").register(meterRegistry);
+        this.snapshotTimer = Timer.builder("catalog.product.snapshot.write").register(meterRegistry);
+        meterRegistry.gauge("catalog.product.cache.entries", this, ProductCatalogCache::size);
+        meterRegistry.gauge("catalog.product.cache.watermark", this, cache -> cache.watermark);
+    }
+
+    /**
+     * Abre o snapshot (se houver um válido para este banco) e aplica o que mudou desde ele.
+     * Deve ser chamado uma vez, antes de qualquer leitura.
+     */
+    public void recover() {
+        long started = System.nanoTime();
+        catalogId = outbox.catalogId();
+        long latest = outbox.latestSeq();
+
+        CatalogSnapshot snapshot = openSnapshot(latest);
+        base = snapshot;
+        // Sem snapshot o cache começa vazio, e tudo o que entrar a partir daqui já é atual
+        watermark = snapshot != null ? snapshot.watermark() : latest;
+        long delta = latest - watermark;
+        refresh();
+        log.info("Product cache ready in {} ms: {} products from snapshot, catching up {} catalog changes",
+                Duration.ofNanos(System.nanoTime() - started).toMillis(), snapshot != null ? snapshot.size() : 0, delta);
+    }
+
+    private CatalogSnapshot openSnapshot(long latestSeq) {
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(snapshotFile);
+            if (!snapshot.catalogId().equals(catalogId)) {
+                log.warn("Discarding catalog snapshot {}: it belongs to catalog {}, this database is {}",
+                        snapshotFile, snapshot.catalogId(), catalogId);
+                return null;
+            }
+            // Banco restaurado de um backup mais antigo que o snapshot: o snapshot pode ter dados que não existem mais
+            if (snapshot.watermark() > latestSeq) {
+                log.warn("Discarding catalog snapshot {}: watermark {} is ahead of the database ({})",
+                        snapshotFile, snapshot.watermark(), latestSeq);
+                return null;
+            }
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            log.info("No catalog snapshot at {}, starting with an empty product cache", snapshotFile);
+            return null;
+        } catch (IOException e) {
+            log.warn("Discarding unreadable catalog snapshot {}", snapshotFile, e);
+            return null;
+        }
+    }
+
+    public void start(Duration refreshInterval, Duration snapshotInterval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.error("Product cache refresh failed, will retry in {}", refreshInterval, e);
+            }
+        }, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                writeSnapshot();
+            } catch (RuntimeException | IOException e) {
+                log.error("Catalog snapshot failed, will retry in {}", snapshotInterval, e);
+            }
+        }, snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** O produto completo, ou null se não está no cache. */
+    public Product get(long id) {
+        byte[] bytes = overlay.get(id);
+        ByteBuffer entry = null;
+        if (bytes != null && !isMarker(bytes)) {
+            entry = ByteBuffer.wrap(bytes);
+        } else if (bytes == null) {
+            CatalogSnapshot snapshot = base;
+            entry = snapshot != null ? snapshot.get(id) : null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return ProductCodec.decode(entry);
+    }
+
+    /**
+     * O produto do cache ou, se não estiver, o resultado de {@code loader} (null se o produto não existe),
+     * que passa a ficar no cache. Quem pedir o mesmo id enquanto a carga está em andamento espera por ela.
+     * Com {@link ReplicaRoutingDataSource#isPrimaryForced()} vai sempre ao {@code loader}.
+     */
+    public Product getOrLoad(long id, LongFunction<Product> loader) {
+        if (ReplicaRoutingDataSource.isPrimaryForced()) {
+            return load(id, loader);
+        }
+        Product cached = get(id);
+        if (cached != null) {
+            return cached;
+        }
+        StaleEntry previous = stale.get(id);
+        if (previous != null && clock.millis() - previous.evictedAt() <= staleWhileRevalidate.toMillis()) {
+            staleHits.increment();
+            loads.loadAsync(id, () -> revalidate(id, loader), revalidator);
+            return ProductCodec.decode(ByteBuffer.wrap(previous.bytes()));
+        }
+        return loads.load(id, () -> load(id, loader));
+    }
+
+    private Product load(long id, LongFunction<Product> loader) {
+        long observedEvictions = evictions.get();
+        loadCounter.increment();
+        Product product = loader.apply(id);
+        if (product != null) {
+            put(product, observedEvictions);
+        }
+        stale.remove(id);
+        return product;
+    }
+
+    // Ninguém espera pelo resultado: a falha só é registrada, e o próximo pedido tenta de novo
+    private Product revalidate(long id, LongFunction<Product> loader) {
+        try {
+            return load(id, loader);
+        } catch (RuntimeException e) {
+            log.warn("Background reload of product {} failed", id, e);
+            throw e;
+        }
+    }
+
+    /** Passe o valor lido antes de ir ao banco para o {@link #put}: se algo for descartado nesse meio tempo, o put é ignorado. */
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    /** Atributos que um produto precisa ter para entrar no cache. */
+    public Set<String> attributes() {
+        return attributes;
+    }
+
+    /**
+     * Guarda um produto lido do banco com {@link #attributes()}, a menos que algum produto tenha sido
+     * descartado desde {@code observedEvictions} (a leitura pode ser anterior a essa escrita).
+     */
+    public void put(Product product, long observedEvictions) {
+        if (evictions.get() != observedEvictions) {
+            return;
+        }
+        long id = product.getId();
+        if (!overlay.containsKey(id) && size() >= maxEntries) {
+            return;
+        }
+        byte[] bytes = ProductCodec.encode(product);
+        long changeSeq = ProductCodec.changeSeq(bytes);
+        byte[] stored = overlay.compute(id, (key, current) -> current != null && seqOf(current) > changeSeq ? current : bytes);
+        if (stored == bytes && evictions.get() != observedEvictions) {
+            overlay.remove(id, bytes);
+        }
+    }
+
+    public void evict(long id) {
+        evict(id, 0);
+    }
+
+    /**
+     * Descarta o produto; até a próxima gravação do snapshot, leituras com change_seq menor que {@code seq}
+     * não voltam para o cache. A marca fica mesmo que o id não esteja no snapshot atual: um snapshot sendo
+     * gravado agora pode tê-lo.
+     */
+    public void evict(long id, long seq) {
+        evictions.incrementAndGet();
+        byte[] marker = ByteBuffer.allocate(MARKER_SIZE).putLong(seq).array();
+        byte[][] previous = new byte[1][];
+        overlay.compute(id, (key, current) -> {
+            if (current != null && isMarker(current) && seqOf(current) > seq) {
+                return current;
+            }
+            previous[0] = current;
+            return marker;
+        });
+        // seq 0 é escrita desta instância: quem escreveu tem que ler o que escreveu
+        if (seq > 0 && !staleWhileRevalidate.isZero()) {
+            keepStale(id, previous[0]);
+        } else {
+            stale.remove(id);
+        }
+    }
+
+    private void keepStale(long id, byte[] previous) {
+        byte[] bytes = previous;
+        if (bytes == null) {
+            CatalogSnapshot snapshot = base;
+            ByteBuffer entry = snapshot != null ? snapshot.get(id) : null;
+            if (entry != null) {
+                bytes = new byte[entry.remaining()];
+                entry.get(bytes);
+            }
+        }
+        // Uma marca no lugar da entrada quer dizer que a cópia do snapshot já estava velha
+        if (bytes != null && !isMarker(bytes)) {
+            stale.put(id, new StaleEntry(bytes, clock.millis()));
+        }
+    }
+
+    // Leitura do próprio usuário: a entrada some logo depois do commit, sem esperar o outbox
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.entity() == CatalogChangeEvent.Entity.PRODUCT) {
+            evict(event.id());
+        }
+    }
+
+    // Mudanças de todas as instâncias (inclusive esta), lidas do outbox pelo CatalogOutboxDispatcher
+    @EventListener
+    public void onCatalogChangeRecord(CatalogChangeRecord record) {
+        if (record.change().entity() == CatalogChangeEvent.Entity.PRODUCT) {
+            evict(record.change().id(), record.seq());
+        }
+    }
+
+    private static boolean isMarker(byte[] bytes) {
+        return bytes.length == MARKER_SIZE;
+    }
+
+    private static long seqOf(byte[] bytes) {
+        return isMarker(bytes) ? ByteBuffer.wrap(bytes).getLong() : ProductCodec.changeSeq(bytes);
+    }
+
+    /**
+     * Aplica as mudanças com seq entre o watermark e o seq atual do banco. Só os produtos que estão no
+     * cache são atualizados; os demais continuam fora e serão lidos quando alguém pedir.
+     */
+    public synchronized void refresh() {
+        long now = clock.millis();
+        stale.values().removeIf(entry -> now - entry.evictedAt() > staleWhileRevalidate.toMillis());
+        refreshTimer.record(() -> readOnlyTransaction.executeWithoutResult(status -> {
+            // O seq é lido antes: o que commitar depois fica para o próximo refresh
+            long latest = outbox.latestSeq();
+            if (latest <= watermark) {
+                return;
+            }
+            applyProductChanges(watermark, latest);
+            applyDeletions(watermark, latest);
+            watermark = latest;
+        }));
+    }
+
+    private void applyProductChanges(long after, long latest) {
+        List<Product> changed;
+        do {
+            long observedEvictions = evictions.get();
+            changed = repository.findProjectedByChangeSeqGreaterThan(attributes, after, batchSize);
+            for (Product product : changed) {
+                if (product.getChangeSeq() > latest) {
+                    return;
+                }
+                after = product.getChangeSeq();
+                if (isCached(product.getId())) {
+                    put(product, observedEvictions);
+                    // put ignorado (houve um evict durante a leitura): melhor sair do cache do que ficar velho
+                    if (evictions.get() != observedEvictions) {
+                        evict(product.getId());
+                    }
+                }
+            }
+        } while (changed.size() == batchSize);
+    }
+
+    private void applyDeletions(long after, long latest) {
+        List<ProductTombstone> deleted;
+        do {
+            deleted = tombstoneRepository.findByChangeSeqGreaterThanOrderByChangeSeqAsc(after, PageRequest.of(0, batchSize));
+            for (ProductTombstone tombstone : deleted) {
+                if (tombstone.getChangeSeq() > latest) {
+                    return;
+                }
+                after = tombstone.getChangeSeq();
+                if (isCached(tombstone.getProductId())) {
+                    evict(tombstone.getProductId());
+                }
+            }
+        } while (deleted.size() == batchSize);
+    }
+
+    private boolean isCached(long id) {
+        byte[] bytes = overlay.get(id);
+        if (bytes != null) {
+            return !isMarker(bytes);
+        }
+        CatalogSnapshot snapshot = base;
+        return snapshot != null && snapshot.contains(id);
+    }
+
+    /**
+     * Grava snapshot + entradas em memória num novo arquivo e passa a servir dele. Sincronizado com o refresh,
+     * para que o watermark gravado corresponda ao conteúdo.
+     */
+    public synchronized void writeSnapshot() throws IOException {
+        CatalogSnapshot current = base;
+        if (overlay.isEmpty() && current != null && current.watermark() == watermark) {
+            return;
+        }
+        long started = System.nanoTime();
+        // O mapa é copiado antes de percorrer o snapshot: o que mudar depois da cópia fica para a próxima gravação
+        Map<Long, byte[]> written = new HashMap<>(overlay);
+        SortedMap<Long, ByteBuffer> entries = new TreeMap<>();
+        if (current != null) {
+            current.forEach((id, entry) -> {
+                if (!written.containsKey(id)) {
+                    entries.put(id, entry);
+                }
+            });
+        }
+        written.forEach((id, bytes) -> {
+            if (!isMarker(bytes)) {
+                entries.put(id, ByteBuffer.wrap(bytes));
+            }
+        });
+
+        CatalogSnapshot.write(snapshotFile, catalogId, watermark, clock.millis(), entries);
+        base = CatalogSnapshot.open(snapshotFile);
+        // O que foi gravado já está no novo arquivo; o que mudou durante a gravação fica no mapa.
+        // Marcas com seq além do watermark continuam valendo: o banco de onde o refresh lê ainda não chegou lá
+        long snapshotWatermark = watermark;
+        written.forEach((id, bytes) -> {
+            if (!isMarker(bytes) || seqOf(bytes) <= snapshotWatermark) {
+                overlay.remove(id, bytes);
+            }
+        });
+        snapshotTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        log.debug("Catalog snapshot written: {} products at watermark {}", entries.size(), watermark);
+    }
+
+    public int size() {
+        CatalogSnapshot snapshot = base;
+        return (snapshot != null ? snapshot.size() : 0) + overlay.size();
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    // No shutdown o snapshot é gravado de novo: a próxima subida só precisa do que mudar a partir daqui
+    @Override
+    public void close() throws IOException {
+        revalidator.shutdown();
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            refresh();
+            writeSnapshot();
+        } catch (RuntimeException | IOException e) {
+            log.warn("Final catalog snapshot failed, the next startup will catch up from the previous one", e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.musicstore.bluevelvet.infrastructure.cache;
+
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductImage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Produto em forma binária compacta (big-endian), para o {@link ProductCatalogCache} e o snapshot em disco.
+ * Guarda tudo o que o ProductJsonSerializer escreve, mais o change_seq logo depois do id.
+ * Mudou o layout? Suba {@link #FORMAT}: snapshots gravados com outro formato são descartados na subida.
+ */
+public final class ProductCodec {
+
+    public static final int FORMAT = 1;
+
+    private ProductCodec() {
+    }
+
+    public static byte[] encode(Product product) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(product.getId());
+            out.writeLong(product.getChangeSeq() != null ? product.getChangeSeq() : 0L);
+            writeLong(out, product.getVersion());
+            writeString(out, product.getName());
+            writeString(out, product.getShortDescription());
+            writeString(out, product.getFullDescription());
+            writeString(out, product.getBrand());
+            writeString(out, product.getCategory());
+            writeString(out, product.getMainImage());
+            writeDecimal(out, product.getCost());
+            writeDecimal(out, product.getListPrice());
+            writeDecimal(out, product.getDiscount());
+            writeDateTime(out, product.getCreationTime());
+            writeDateTime(out, product.getUpdateTime());
+            writeBoolean(out, product.getEnabled());
+            writeBoolean(out, product.getInStock());
+
+            List<ProductImage> images = product.getAdditionalImages() != null ? product.getAdditionalImages() : List.of();
+            out.writeInt(images.size());
+            for (ProductImage image : images) {
+                writeString(out, image.getFileName());
+            }
+
+            BoxDimension dimension = product.getBoxDimension();
+            out.writeBoolean(dimension != null);
+            if (dimension != null) {
+                writeFloat(out, dimension.getLength());
+                writeFloat(out, dimension.getWidth());
+                writeFloat(out, dimension.getHeight());
+                writeFloat(out, dimension.getWeight());
+            }
+
+            List<ProductDetail> details = product.getProductDetails() != null ? product.getProductDetails() : List.of();
+            out.writeInt(details.size());
+            for (ProductDetail detail : details) {
+                writeString(out, detail.getName());
+                writeString(out, detail.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Lê um produto a partir da posição atual do buffer (que avança). */
+    public static Product decode(ByteBuffer in) {
+        Product product = new Product();
+        product.setId(in.getLong());
+        product.setChangeSeq(in.getLong());
+        product.setVersion(readLong(in));
+        product.setName(readString(in));
+        product.setShortDescription(readString(in));
+        product.setFullDescription(readString(in));
+        product.setBrand(readString(in));
+        product.setCategory(readString(in));
+        product.setMainImage(readString(in));
+        product.setCost(readDecimal(in));
+        product.setListPrice(readDecimal(in));
+        product.setDiscount(readDecimal(in));
+        product.setCreationTime(readDateTime(in));
+        product.setUpdateTime(readDateTime(in));
+        product.setEnabled(readBoolean(in));
+        product.setInStock(readBoolean(in));
+
+        int images = in.getInt();
+        List<ProductImage> additionalImages = new ArrayList<>(images);
+        for (int i = 0; i < images; i++) {
+            additionalImages.add(ProductImage.builder().fileName(readString(in)).build());
+        }
+        product.setAdditionalImages(additionalImages);
+
+        if (in.get() != 0) {
+            product.setBoxDimension(BoxDimension.builder()
+                    .length(readFloat(in))
+                    .width(readFloat(in))
+                    .height(readFloat(in))
+                    .weight(readFloat(in))
+                    .build());
+        }
+
+        int details = in.getInt();
+        List<ProductDetail> productDetails = new ArrayList<>(details);
+        for (int i = 0; i < details; i++) {
+            productDetails.add(ProductDetail.builder().name(readString(in)).value(readString(in)).build());
+        }
+        product.setProductDetails(productDetails);
+        return product;
+    }
+
+    /** change_seq de um registro codificado, sem decodificar o resto. */
+    public static long changeSeq(byte[] encoded) {
+        return ByteBuffer.wrap(encoded).getLong(Long.BYTES);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeLong(value);
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    // Comprimento em int (-1 = null): full_description é TEXT e passa do limite de 64KB do writeUTF
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(value.scale());
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.getInt());
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer in) {
+        return in.get() != 0 ? LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC) : null;
+    }
+
+    // -1 null, 0 false, 1 true
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    private static Boolean readBoolean(ByteBuffer in) {
+        byte value = in.get();
+        return value < 0 ? null : value != 0;
+    }
+
+    private static void writeFloat(DataOutputStream out, Float value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeFloat(value);
+    }
+
+    private static Float readFloat(ByteBuffer in) {
+        return in.get() != 0 ? in.getFloat() : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.musicstore.bluevelvet.infrastructure.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Junta cargas concorrentes da mesma chave: a primeira chamada carrega, as que chegam enquanto ela está
+ * em andamento esperam e recebem o mesmo resultado (ou a mesma exceção). Nada fica guardado depois que
+ * a carga termina; quem guarda é o cache que usa esta classe.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /** Carrega na thread atual, ou espera a carga que já está em andamento para a mesma chave. */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+        run(key, call, loader);
+        return await(call);
+    }
+
+    /** Como {@link #load}, mas sem esperar: a carga (se ainda não houver uma) roda no {@code executor}. */
+    public CompletableFuture<V> loadAsync(K key, Supplier<V> loader, Executor executor) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> run(key, call, loader));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+        }
+        return call;
+    }
+
+    private void run(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            call.complete(loader.get());
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // Quem espera recebe a exceção original (ex.: ProductNotFoundException), não um CompletionException
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.musicstore.bluevelvet.infrastructure.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lembra quem escreveu há pouco, para que as leituras dessa pessoa vão ao primário
+ * até as réplicas terem tempo de alcançar a escrita.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String user) {
+        lastWrite.put(user, System.nanoTime());
+    }
+
+    public boolean recentlyWrote(String user) {
+        Long writtenAt = lastWrite.get(user);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWrite.remove(user, writtenAt);
+        return false;
+    }
+}
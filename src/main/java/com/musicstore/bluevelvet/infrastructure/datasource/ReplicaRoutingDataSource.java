@@ -0,0 +1,202 @@
+package com.musicstore.bluevelvet.infrastructure.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Manda transações read-only para uma réplica disponível (round-robin) e todo o resto para o primário.
+ * <p>
+ * Precisa ficar atrás de um LazyConnectionDataSourceProxy: a conexão só é pedida no primeiro statement,
+ * quando o flag read-only da transação já foi definido.
+ * Uma réplica sai da rotação quando não responde ou quando o atraso de replicação passa de {@code maxLag};
+ * sem réplica disponível, a leitura vai para o primário.
+ */
+@Log4j2
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    // Leituras desta thread vão para o primário (read-your-writes, preenchimento de cache)
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param lagQuery consulta que devolve o atraso em segundos ("SHOW REPLICA STATUS" ou uma consulta própria,
+     *                 primeira coluna); vazia para checar só a conexão
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.lagQuery = lagQuery;
+        this.fallbacks = meterRegistry.counter("datasource.replica.fallback");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds).tag("replica", name)
+                    .baseUnit("seconds").register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0).tag("replica", name)
+                    .register(meterRegistry);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    public static void setPrimaryForced(boolean forced) {
+        if (forced) {
+            PRIMARY_FORCED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPrimaryForced() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    /** Faz a primeira checagem na hora e agenda as próximas. */
+    public void start(Duration interval) {
+        checkReplicas();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                replica.lagSeconds = StringUtils.hasText(lagQuery) ? lagSeconds(statement) : ping(statement);
+                replica.available = replica.lagSeconds >= 0 && replica.lagSeconds <= maxLagSeconds;
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = -1;
+                replica.available = false;
+                log.debug("Replica {} health check failed", replica.name, e);
+            }
+            if (wasAvailable != replica.available) {
+                if (replica.available) {
+                    log.info("Replica {} is back in rotation (lag {}s)", replica.name, replica.lagSeconds);
+                } else {
+                    log.warn("Replica {} removed from rotation (lag {}s, max {}s), reads fall back to primary",
+                            replica.name, replica.lagSeconds, maxLagSeconds);
+                }
+            }
+        }
+    }
+
+    public boolean isAvailable(String replica) {
+        return replicas.stream().anyMatch(r -> r.name.equals(replica) && r.available);
+    }
+
+    private static long ping(Statement statement) throws SQLException {
+        statement.execute("SELECT 1");
+        return 0;
+    }
+
+    // -1 quando a replicação está parada (Seconds_Behind_* nulo)
+    private long lagSeconds(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                // Servidor sem replicação configurada (ex.: dois bancos locais em teste): sem atraso
+                return 0;
+            }
+            ResultSetMetaData meta = rs.getMetaData();
+            int column = 1;
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String label = meta.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    column = i;
+                    break;
+                }
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? -1 : lag;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source", e);
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+        private volatile long lagSeconds = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.musicstore.bluevelvet.infrastructure.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 
@@ -11,6 +12,7 @@ import java.io.Serializable;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@BatchSize(size = 50)
 @Table(schema = "db", name = "box_dimension")
 public class BoxDimension implements Serializable {
 
@@ -26,6 +26,9 @@ public class Category {
     @Column(name = "enabled")
     private Boolean enabled = true;
 
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "parent_id")
     private Category parentCategory;
@@ -99,6 +102,14 @@ public class Category {
         this.enabled = enabled;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Category getParentCategory() {
         return parentCategory;
     }
@@ -2,6 +2,7 @@ package com.musicstore.bluevelvet.infrastructure.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -22,11 +23,19 @@ public class Product implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Lock otimista: duas edições concorrentes não se sobrescrevem em silêncio
+    @Version
+    private Long version;
+
     private String name;
 
     @Column(name = "short_description", length = 500)
     private String shortDescription;
 
+    // Lazy com bytecode enhancement (plugin org.hibernate.orm no build.gradle): as escritas que carregam o
+    // produto (renomear categoria, excluir, upload de imagem) não leem o TEXT. Outros campos grandes
+    // entram aqui também, cada um no seu @LazyGroup se puderem ser lidos separadamente
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "full_description", columnDefinition = "TEXT")
     private String fullDescription;
 
@@ -38,6 +47,7 @@ public class Product implements Serializable {
 
     // --- NOVO: Lista de Imagens Extras ---
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<ProductImage> additionalImages = new ArrayList<>();
 
@@ -48,6 +58,14 @@ public class Product implements Serializable {
     private BigDecimal discount;
     private BigDecimal cost;
 
+    // Preço final (listPrice com o desconto percentual), mantido pelo ProductPricing.
+    // Ordenação e filtros por preço usam o espelho em centavos, que é indexado.
+    @Column(name = "effective_price", precision = 38, scale = 2)
+    private BigDecimal effectivePrice;
+
+    @Column(name = "effective_price_cents")
+    private Long effectivePriceCents;
+
     private Boolean enabled;
 
     @Column(name = "in_stock")
@@ -59,9 +77,16 @@ public class Product implements Serializable {
     @Column(name = "update_time")
     private LocalDateTime updateTime;
 
+    // Seq do último evento do produto no catalog_outbox; quem grava é o CatalogOutbox, nunca o Hibernate
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
     @OneToOne(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private BoxDimension boxDimension;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    // Ordem estável ao carregar: a ordem de inserção, já que o merge de um PUT mantém os ids existentes
+    @OrderBy("id")
     private List<ProductDetail> productDetails;
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.musicstore.bluevelvet.infrastructure.outbox;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Grava cada CatalogChangeEvent na tabela catalog_outbox, na mesma transação da mudança:
+ * se a transação não commitar, o evento também não existe.
+ */
+@Component
+public class CatalogOutbox {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock = Clock.systemUTC();
+
+    public CatalogOutbox(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // BEFORE_COMMIT: a linha de catalog_sequence fica travada só entre este ponto e o commit.
+    // Fora de transação (fallbackExecution) o TransactionTemplate abre uma só para o evento.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(CatalogChangeEvent event) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE catalog_sequence SET seq = LAST_INSERT_ID(seq + 1) WHERE id = 1");
+            Long seq = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            Timestamp now = Timestamp.from(clock.instant());
+            jdbcTemplate.update("INSERT INTO catalog_outbox (seq, entity, entity_id, type, occurred_at) VALUES (?, ?, ?, ?, ?)",
+                    seq, event.entity().name(), event.id(), event.type().name(), now);
+            if (event.entity() == CatalogChangeEvent.Entity.PRODUCT) {
+                trackProductChange(event, seq, now);
+            }
+        });
+    }
+
+    // Marca d'água do GET /products/changes: o mesmo seq, então a ordem também é a dos commits
+    private void trackProductChange(CatalogChangeEvent event, Long seq, Timestamp now) {
+        if (event.type() == CatalogChangeEvent.Type.DELETED) {
+            jdbcTemplate.update("""
+                    INSERT INTO product_tombstone (product_id, change_seq, deleted_at) VALUES (?, ?, ?)
+                    ON DUPLICATE KEY UPDATE change_seq = VALUES(change_seq), deleted_at = VALUES(deleted_at)
+                    """, event.id(), seq, now);
+        } else {
+            jdbcTemplate.update("UPDATE product SET change_seq = ? WHERE id = ?", seq, event.id());
+        }
+    }
+
+    /** Eventos com seq maior que {@code afterSeq}, em ordem. */
+    public List<CatalogChangeRecord> readAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT seq, entity, entity_id, type, occurred_at FROM catalog_outbox
+                        WHERE seq > ? ORDER BY seq LIMIT ?
+                        """,
+                (rs, i) -> new CatalogChangeRecord(rs.getLong("seq"),
+                        new CatalogChangeEvent(CatalogChangeEvent.Entity.valueOf(rs.getString("entity")),
+                                rs.getLong("entity_id"), CatalogChangeEvent.Type.valueOf(rs.getString("type"))),
+                        rs.getTimestamp("occurred_at").toInstant()),
+                afterSeq, limit);
+    }
+
+    public long latestSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT seq FROM catalog_sequence WHERE id = 1", Long.class);
+        return seq != null ? seq : 0;
+    }
+
+    /** Identidade deste banco (catalog_sequence.catalog_id), gerada pela migração. */
+    public UUID catalogId() {
+        return UUID.fromString(jdbcTemplate.queryForObject("SELECT catalog_id FROM catalog_sequence WHERE id = 1", String.class));
+    }
+
+    /** Menor seq ainda guardado, ou vazio se o outbox está vazio. */
+    public Long oldestSeq() {
+        return jdbcTemplate.queryForObject("SELECT MIN(seq) FROM catalog_outbox", Long.class);
+    }
+
+    /** Apaga os eventos anteriores a {@code before}. */
+    public int purgeOlderThan(Instant before) {
+        return jdbcTemplate.update("DELETE FROM catalog_outbox WHERE occurred_at < ?", Timestamp.from(before));
+    }
+
+    /**
+     * Se quem já viu até {@code lastSeenSeq} consegue continuar só com o que está no outbox.
+     * Falso quando a retenção já apagou eventos que ele não viu, ou quando o seq não é deste banco.
+     */
+    public boolean canResumeFrom(long lastSeenSeq) {
+        long latest = latestSeq();
+        if (lastSeenSeq > latest) {
+            return false;
+        }
+        Long oldest = oldestSeq();
+        return oldest != null ? lastSeenSeq >= oldest - 1 : lastSeenSeq == latest;
+    }
+}
@@ -0,0 +1,117 @@
+package com.musicstore.bluevelvet.infrastructure.outbox;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acompanha o catalog_outbox e publica cada evento novo como {@link CatalogChangeRecord}, em ordem.
+ * Cada instância tem o seu: todas veem todas as mudanças, inclusive as feitas por outras instâncias.
+ * Começa do fim do outbox; quem precisa do histórico (SSE com Last-Event-ID) lê direto do CatalogOutbox.
+ * <p>
+ * É também o log de invalidação dos caches em memória: o atraso entre o commit numa instância e o descarte
+ * nas outras fica em torno de {@code poll-interval} (métrica {@code catalog.outbox.lag}).
+ */
+@Log4j2
+public class CatalogOutboxDispatcher implements Closeable {
+
+    private final CatalogOutbox outbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final Duration retention;
+    private final Clock clock;
+    private final Counter dispatched;
+    private final Timer lag;
+    private volatile long lastDispatchedSeq;
+    private Instant nextPurge;
+    private ScheduledExecutorService scheduler;
+
+    public CatalogOutboxDispatcher(CatalogOutbox outbox, ApplicationEventPublisher eventPublisher, int batchSize,
+                                   Duration retention, Clock clock, MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.clock = clock;
+        this.dispatched = Counter.builder("catalog.outbox.dispatched").register(meterRegistry);
+        // occurred_at vem do relógio de quem escreveu: diferença entre relógios das instâncias entra na conta
+        this.lag = Timer.builder("catalog.outbox.lag").register(meterRegistry);
+        meterRegistry.gauge("catalog.outbox.last.seq", this, CatalogOutboxDispatcher::lastDispatchedSeq);
+    }
+
+    public void start(Duration pollInterval) {
+        lastDispatchedSeq = outbox.latestSeq();
+        nextPurge = clock.instant();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+                purgeIfDue();
+            } catch (RuntimeException e) {
+                log.warn("Catalog outbox poll failed, retrying in {}", pollInterval, e);
+            }
+        }, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Catalog outbox dispatcher started at seq {}", lastDispatchedSeq);
+    }
+
+    /** Publica tudo o que chegou desde a última chamada. @return quantos eventos foram publicados */
+    public int poll() {
+        int total = 0;
+        List<CatalogChangeRecord> batch;
+        do {
+            batch = outbox.readAfter(lastDispatchedSeq, batchSize);
+            for (CatalogChangeRecord record : batch) {
+                try {
+                    eventPublisher.publishEvent(record);
+                } catch (RuntimeException e) {
+                    // Um consumidor com problema não pode travar a fila para os outros
+                    log.warn("Catalog change consumer failed for seq {}", record.seq(), e);
+                }
+                lastDispatchedSeq = record.seq();
+                dispatched.increment();
+                lag.record(Duration.between(record.occurredAt(), clock.instant()));
+                total++;
+            }
+        } while (batch.size() == batchSize);
+        return total;
+    }
+
+    public long lastDispatchedSeq() {
+        return lastDispatchedSeq;
+    }
+
+    private void purgeIfDue() {
+        Instant now = clock.instant();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plus(Duration.ofHours(1));
+        int purged = outbox.purgeOlderThan(now.minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} catalog outbox events older than {}", purged, retention);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Leituras do catálogo que trazem só alguns atributos do produto (GET /products?fields=...).
+ * O SELECT lista apenas as colunas pedidas, com a dimensão no mesmo SELECT (LEFT JOIN); imagens e
+ * detalhes só são consultados se estiverem entre os atributos, uma consulta por associação.
+ * Os produtos devolvidos não são gerenciados pelo Hibernate: servem só para leitura.
+ * <p>
+ * Read-only por conta própria: quem chama de fora de uma transação (a leitura por id, que antes tenta o
+ * cache) só segura conexão durante as consultas.
+ */
+@Transactional(readOnly = true)
+public interface ProductProjectionRepository {
+
+    /** @param minPriceCents, maxPriceCents faixa de effective_price_cents; null nos dois para não filtrar */
+    Page<Product> findProjected(Collection<String> attributes, Long minPriceCents, Long maxPriceCents, Pageable pageable);
+
+    List<Product> findProjectedByIdIn(Collection<String> attributes, Collection<Long> ids);
+
+    /** Sincronização incremental: índice (change_seq), sem COUNT. */
+    List<Product> findProjectedByChangeSeqGreaterThan(Collection<String> attributes, long changeSeq, int limit);
+}
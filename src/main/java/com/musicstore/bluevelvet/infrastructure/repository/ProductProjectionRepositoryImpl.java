@@ -0,0 +1,175 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductImage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    private static final String IMAGES = "additionalImages";
+    private static final String DETAILS = "productDetails";
+    private static final String DIMENSION = "boxDimension";
+    private static final Set<String> ASSOCIATIONS = Set.of(IMAGES, DETAILS, DIMENSION);
+    private static final List<String> DIMENSION_COLUMNS = List.of("id", "length", "width", "height", "weight");
+
+    private final EntityManager entityManager;
+
+    ProductProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Product> findProjected(Collection<String> attributes, Long minPriceCents, Long maxPriceCents, Pageable pageable) {
+        List<Product> products = select(attributes,
+                (cb, root) -> pricePredicate(cb, root, minPriceCents, maxPriceCents),
+                (cb, root) -> QueryUtils.toOrders(pageable.getSort(), root, cb),
+                pageable.isPaged() ? (int) pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+        return PageableExecutionUtils.getPage(products, pageable, () -> count(minPriceCents, maxPriceCents));
+    }
+
+    @Override
+    public List<Product> findProjectedByIdIn(Collection<String> attributes, Collection<Long> ids) {
+        return select(attributes, (cb, root) -> root.get("id").in(ids), (cb, root) -> List.of(), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> findProjectedByChangeSeqGreaterThan(Collection<String> attributes, long changeSeq, int limit) {
+        return select(attributes,
+                (cb, root) -> cb.greaterThan(root.get("changeSeq"), changeSeq),
+                (cb, root) -> List.of(cb.asc(root.get("changeSeq"))),
+                0, limit);
+    }
+
+    private List<Product> select(Collection<String> attributes,
+                                 BiFunction<CriteriaBuilder, Root<Product>, Predicate> where,
+                                 BiFunction<CriteriaBuilder, Root<Product>, List<Order>> orderBy,
+                                 int firstResult, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<String> columns = attributes.stream().filter(attribute -> !ASSOCIATIONS.contains(attribute)).toList();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String column : columns) {
+            selections.add(root.get(column).alias(column));
+        }
+        boolean withDimension = attributes.contains(DIMENSION);
+        if (withDimension) {
+            // Um para um: vem no mesmo SELECT, sem multiplicar linhas
+            Join<Product, BoxDimension> dimension = root.join(DIMENSION, JoinType.LEFT);
+            for (String column : DIMENSION_COLUMNS) {
+                selections.add(dimension.get(column).alias(DIMENSION + "." + column));
+            }
+        }
+        query.multiselect(selections);
+        Predicate predicate = where.apply(cb, root);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(orderBy.apply(cb, root));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+
+        List<Product> products = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Product product = new Product();
+            BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(product);
+            for (String column : columns) {
+                bean.setPropertyValue(column, row.get(column));
+            }
+            if (withDimension && row.get(DIMENSION + ".id") != null) {
+                product.setBoxDimension(BoxDimension.builder()
+                        .length(row.get(DIMENSION + ".length", Float.class))
+                        .width(row.get(DIMENSION + ".width", Float.class))
+                        .height(row.get(DIMENSION + ".height", Float.class))
+                        .weight(row.get(DIMENSION + ".weight", Float.class))
+                        .build());
+            }
+            products.add(product);
+        }
+        fetchCollections(products, attributes);
+        return products;
+    }
+
+    private long count(Long minPriceCents, Long maxPriceCents) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate price = pricePredicate(cb, root, minPriceCents, maxPriceCents);
+        if (price != null) {
+            query.where(price);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Faixa de preço final: cai no índice (effective_price_cents, id). A ordenação já vem restrita aos campos de ProductSort
+    private static Predicate pricePredicate(CriteriaBuilder cb, Root<Product> root, Long minPriceCents, Long maxPriceCents) {
+        if (minPriceCents == null && maxPriceCents == null) {
+            return null;
+        }
+        return cb.between(root.get("effectivePriceCents"),
+                minPriceCents != null ? minPriceCents : 0L,
+                maxPriceCents != null ? maxPriceCents : Long.MAX_VALUE);
+    }
+
+    // Só as colunas que o JSON usa; nenhuma entidade é carregada, então nada de ManyToOne EAGER trazendo o produto inteiro
+    private void fetchCollections(List<Product> products, Collection<String> attributes) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> byId = new LinkedHashMap<>();
+        products.forEach(product -> byId.put(product.getId(), product));
+
+        if (attributes.contains(IMAGES)) {
+            products.forEach(product -> product.setAdditionalImages(new ArrayList<>()));
+            for (Object[] row : rows("SELECT i.product.id, i.fileName FROM ProductImage i"
+                    + " WHERE i.product.id IN :ids ORDER BY i.id", byId.keySet())) {
+                byId.get((Long) row[0]).getAdditionalImages().add(ProductImage.builder().fileName((String) row[1]).build());
+            }
+        }
+        if (attributes.contains(DETAILS)) {
+            products.forEach(product -> product.setProductDetails(new ArrayList<>()));
+            for (Object[] row : rows("SELECT d.product.id, d.name, d.value FROM ProductDetail d"
+                    + " WHERE d.product.id IN :ids ORDER BY d.id", byId.keySet())) {
+                byId.get((Long) row[0]).getProductDetails().add(ProductDetail.builder()
+                        .name((String) row[1])
+                        .value((String) row[2])
+                        .build());
+            }
+        }
+    }
+
+    private List<Object[]> rows(String jpql, Collection<Long> ids) {
+        return entityManager.createQuery(jpql, Object[].class).setParameter("ids", ids).getResultList();
+    }
+}
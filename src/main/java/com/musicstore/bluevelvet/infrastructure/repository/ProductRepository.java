@@ -3,10 +3,13 @@ package com.musicstore.bluevelvet.infrastructure.repository;
 import com.musicstore.bluevelvet.infrastructure.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+
 import java.util.List;
 
+// As leituras do catálogo (listagem, detalhe, lote, sincronização) ficam no ProductProjectionRepository;
+// as entidades aqui são para escrita
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductProjectionRepository {
     // Método necessário para a atualização em massa quando a categoria mudar de nome
     List<Product> findByCategory(String category);
 
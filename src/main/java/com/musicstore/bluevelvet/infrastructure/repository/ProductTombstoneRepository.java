@@ -0,0 +1,15 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.infrastructure.entity.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    // Índice (change_seq): só lê as linhas depois da marca d'água
+    List<ProductTombstone> findByChangeSeqGreaterThanOrderByChangeSeqAsc(long changeSeq, Pageable pageable);
+}
@@ -0,0 +1,42 @@
+package com.musicstore.bluevelvet.infrastructure.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** Mede o custo do BCrypt no login (auth.password.verify) e no cadastro (auth.password.encode). */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final MeterRegistry registry;
+    private final Timer encodeTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.encodeTimer = Timer.builder("auth.password.encode").register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            outcome = matches ? "match" : "mismatch";
+            return matches;
+        } finally {
+            sample.stop(Timer.builder("auth.password.verify").tag("outcome", outcome).register(registry));
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
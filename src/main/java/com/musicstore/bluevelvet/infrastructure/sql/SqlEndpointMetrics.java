@@ -0,0 +1,80 @@
+package com.musicstore.bluevelvet.infrastructure.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregado de SQL por endpoint HTTP (ex.: "GET /products/{id}"), exposto em /actuator/sqlmetrics
+ * e também no /actuator/prometheus (http.server.sql.statements e http.server.sql.time).
+ */
+@Component
+@Endpoint(id = "sqlmetrics")
+public class SqlEndpointMetrics {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SqlEndpointMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String endpoint, SqlStatementStats stats, boolean repeatedStatementsDetected) {
+        DistributionSummary.builder("http.server.sql.statements")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.sql.time")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+
+        EndpointStats endpointStats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        endpointStats.requests.increment();
+        endpointStats.statements.add(stats.getStatements());
+        endpointStats.rows.add(stats.getRows());
+        endpointStats.elapsedMillis.add(stats.getElapsedMillis());
+        endpointStats.maxStatements.accumulateAndGet(stats.getStatements(), Math::max);
+        if (repeatedStatementsDetected) {
+            endpointStats.repeatedStatementRequests.increment();
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> sqlMetrics() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            long requests = stats.requests.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("requests", requests);
+            values.put("statements", stats.statements.sum());
+            values.put("statementsPerRequest", requests == 0 ? 0 : (double) stats.statements.sum() / requests);
+            values.put("maxStatementsPerRequest", stats.maxStatements.get());
+            values.put("rows", stats.rows.sum());
+            values.put("sqlTimeMillis", stats.elapsedMillis.sum());
+            values.put("repeatedStatementRequests", stats.repeatedStatementRequests.sum());
+            result.put(endpoint, values);
+        });
+        return result;
+    }
+
+    private static class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder elapsedMillis = new LongAdder();
+        private final LongAdder repeatedStatementRequests = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+    }
+}
@@ -0,0 +1,59 @@
+package com.musicstore.bluevelvet.infrastructure.sql;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liga os eventos do proxy JDBC às estatísticas em andamento.
+ * Cada thread de requisição tem as suas estatísticas; capturas de teste recebem tudo, de qualquer thread.
+ */
+public final class SqlStatementRecorder {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+    private static final Set<SqlStatementStats> CAPTURES = ConcurrentHashMap.newKeySet();
+
+    private SqlStatementRecorder() {
+    }
+
+    /** Começa a contar os statements da thread atual (usado pelo filtro HTTP). */
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** Inicia uma captura global, usada pela API de orçamento de queries nos testes. */
+    public static SqlStatementStats startCapture() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CAPTURES.add(stats);
+        return stats;
+    }
+
+    public static void stopCapture(SqlStatementStats stats) {
+        CAPTURES.remove(stats);
+    }
+
+    static void recordStatement(String sql, long elapsedMillis) {
+        SqlStatementStats current = CURRENT.get();
+        if (current != null) {
+            current.addStatement(sql, elapsedMillis);
+        }
+        for (SqlStatementStats capture : CAPTURES) {
+            capture.addStatement(sql, elapsedMillis);
+        }
+    }
+
+    static void recordRow() {
+        SqlStatementStats current = CURRENT.get();
+        if (current != null) {
+            current.addRow();
+        }
+        for (SqlStatementStats capture : CAPTURES) {
+            capture.addRow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.musicstore.bluevelvet.infrastructure.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de SQL de uma unidade de trabalho (uma requisição HTTP ou uma captura de teste).
+ * Alimentado pelo {@link SqlStatementRecorder}.
+ */
+public class SqlStatementStats {
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder elapsedMillis = new LongAdder();
+    private final Map<String, LongAdder> countsBySql = new ConcurrentHashMap<>();
+
+    void addStatement(String sql, long elapsed) {
+        statements.increment();
+        elapsedMillis.add(elapsed);
+        countsBySql.computeIfAbsent(normalize(sql), k -> new LongAdder()).increment();
+    }
+
+    void addRow() {
+        rows.increment();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis.sum();
+    }
+
+    /**
+     * Statements idênticos executados pelo menos {@code threshold} vezes.
+     * O padrão clássico de N+1 é o mesmo SELECT parametrizado repetido uma vez por linha da consulta principal.
+     */
+    public Map<String, Long> repeatedStatements(int threshold) {
+        Map<String, Long> repeated = new LinkedHashMap<>();
+        countsBySql.forEach((sql, count) -> {
+            if (count.sum() >= threshold) {
+                repeated.put(sql, count.sum());
+            }
+        });
+        return repeated;
+    }
+
+    static String normalize(String sql) {
+        return sql == null ? "" : sql.replaceAll("\\s+", " ").trim();
+    }
+}
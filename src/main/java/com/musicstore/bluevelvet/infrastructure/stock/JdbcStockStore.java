@@ -0,0 +1,146 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persistência dos contadores em MySQL, em lotes (um batch por tabela a cada flush).
+ * Com {@code nodeId}, cada flush só grava se este nó ainda está com a {@link StockLease}.
+ * <p>
+ * As mudanças de in_stock são publicadas dentro da transação do flush: o CatalogOutbox grava o evento
+ * e o change_seq antes do commit, então não existe flush gravado sem o evento correspondente.
+ */
+public class JdbcStockStore implements StockStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+
+    public JdbcStockStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher) {
+        this(jdbcTemplate, transactionTemplate, eventPublisher, null);
+    }
+
+    /** @param nodeId dono da lease; null para não conferir (um único nó, sem lease) */
+    public JdbcStockStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher, String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public long loadCheckpoint() {
+        Long seq = jdbcTemplate.queryForObject("SELECT journal_seq FROM stock_checkpoint WHERE id = 1", Long.class);
+        return seq != null ? seq : 0;
+    }
+
+    @Override
+    public boolean continuesLocalJournal() {
+        String owner = jdbcTemplate.queryForObject("SELECT owner FROM stock_checkpoint WHERE id = 1", String.class);
+        return nodeId == null || owner == null || owner.equals(nodeId);
+    }
+
+    @Override
+    public List<StockSnapshot> loadCounters() {
+        return jdbcTemplate.query("SELECT product_id, on_hand, reserved, last_seq FROM stock_counter",
+                (rs, i) -> new StockSnapshot(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+    }
+
+    @Override
+    public boolean isTracked(long productId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM stock_counter WHERE product_id = ?)", Boolean.class, productId));
+    }
+
+    @Override
+    public List<Reservation> loadReservations() {
+        return jdbcTemplate.query("SELECT id, product_id, quantity, expires_at FROM stock_reservation",
+                (rs, i) -> new Reservation(UUID.fromString(rs.getString(1)), rs.getLong(2), rs.getInt(3),
+                        rs.getTimestamp(4).toInstant()));
+    }
+
+    @Override
+    public void flush(Collection<StockSnapshot> counters, Collection<Reservation> opened,
+                      Collection<UUID> closed, long checkpointSeq) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (nodeId != null) {
+                // Fencing: um dono antigo (travado além da lease) não grava por cima do novo.
+                // FOR UPDATE segura a lease até o commit: ninguém a pega no meio deste flush
+                Boolean held = jdbcTemplate.queryForObject(
+                        "SELECT owner = ? AND expires_at > NOW(6) FROM stock_lease WHERE id = 1 FOR UPDATE",
+                        Boolean.class, nodeId);
+                if (!Boolean.TRUE.equals(held)) {
+                    throw new IllegalStateException("Stock lease is no longer held by " + nodeId);
+                }
+            }
+            if (!counters.isEmpty()) {
+                // last_seq só anda para frente: um flush atrasado nunca sobrescreve um estado mais novo
+                jdbcTemplate.batchUpdate("""
+                                INSERT INTO stock_counter (product_id, on_hand, reserved, last_seq) VALUES (?, ?, ?, ?)
+                                ON DUPLICATE KEY UPDATE
+                                    on_hand = IF(VALUES(last_seq) > last_seq, VALUES(on_hand), on_hand),
+                                    reserved = IF(VALUES(last_seq) > last_seq, VALUES(reserved), reserved),
+                                    last_seq = GREATEST(last_seq, VALUES(last_seq))
+                                """,
+                        counters, counters.size(), (ps, counter) -> {
+                            ps.setLong(1, counter.productId());
+                            ps.setLong(2, counter.onHand());
+                            ps.setLong(3, counter.reserved());
+                            ps.setLong(4, counter.lastSeq());
+                        });
+            }
+            if (!opened.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT IGNORE INTO stock_reservation (id, product_id, quantity, expires_at) VALUES (?, ?, ?, ?)",
+                        opened, opened.size(), (ps, reservation) -> {
+                            ps.setString(1, reservation.id().toString());
+                            ps.setLong(2, reservation.productId());
+                            ps.setInt(3, reservation.quantity());
+                            ps.setTimestamp(4, Timestamp.from(reservation.expiresAt()));
+                        });
+            }
+            if (!closed.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM stock_reservation WHERE id = ?",
+                        closed, closed.size(), (ps, id) -> ps.setString(1, id.toString()));
+            }
+            jdbcTemplate.update("UPDATE stock_checkpoint SET journal_seq = GREATEST(journal_seq, ?), owner = ? WHERE id = 1",
+                    checkpointSeq, nodeId);
+
+            if (counters.isEmpty()) {
+                return;
+            }
+            // in_stock deixa de ser editado à mão: vale o que os contadores dizem
+            List<StockSnapshot> ordered = new ArrayList<>(counters);
+            int[][] updated = jdbcTemplate.batchUpdate(
+                    "UPDATE product SET in_stock = ? WHERE id = ? AND (in_stock IS NULL OR in_stock <> ?)",
+                    ordered, ordered.size(), (ps, counter) -> {
+                        boolean inStock = counter.available() > 0;
+                        ps.setBoolean(1, inStock);
+                        ps.setLong(2, counter.productId());
+                        ps.setBoolean(3, inStock);
+                    });
+            int index = 0;
+            for (int[] batch : updated) {
+                for (int count : batch) {
+                    // Com rewriteBatchedStatements o driver pode não saber quantas linhas mudaram (SUCCESS_NO_INFO):
+                    // na dúvida, conta como alterado, o pior caso é uma invalidação de cache a mais
+                    if (count != 0) {
+                        eventPublisher.publishEvent(CatalogChangeEvent.product(ordered.get(index).productId(),
+                                CatalogChangeEvent.Type.UPDATED));
+                    }
+                    index++;
+                }
+            }
+        });
+    }
+}
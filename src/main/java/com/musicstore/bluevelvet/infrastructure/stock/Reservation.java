@@ -0,0 +1,7 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record Reservation(UUID id, long productId, int quantity, Instant expiresAt) {
+}
@@ -0,0 +1,315 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Journal local (write-ahead) das operações de estoque, com group commit: uma thread grava tudo o que
+ * chegou desde o último fsync num único write + force, e só então libera quem estava esperando.
+ * Sob carga, milhares de reservas dividem o mesmo fsync.
+ * <p>
+ * O arquivo é dividido em segmentos. A cada flush para o banco o segmento atual é fechado, e os
+ * segmentos cujo último registro já está no banco (checkpoint) são apagados.
+ */
+@Log4j2
+public class StockJournal implements Closeable {
+
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+    private static final int MAX_BATCH = 4096;
+
+    private final Path directory;
+    private final Object appendLock = new Object();
+    private final Object channelLock = new Object();
+    private final Object durableLock = new Object();
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    // Segmentos fechados -> último seq gravado neles
+    private final Map<Path, Long> closedSegments = new LinkedHashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(StockRecord.SIZE * MAX_BATCH);
+
+    private long nextSeq;
+    private long segmentIndex;
+    private long lastWrittenSeq;
+    // lastWrittenSeq quando o segmento atual foi aberto: igual a ele, o segmento está vazio
+    private long segmentStartSeq;
+    private FileChannel channel;
+    private Path segment;
+    private volatile long durableSeq;
+    private volatile IOException failure;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    private record Pending(StockRecord record, CompletableFuture<Void> durable) {
+    }
+
+    public StockJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create stock journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Lê os segmentos existentes, em ordem, entregando os registros com seq maior que {@code afterSeq}.
+     * Um registro corrompido no fim de um segmento (crash no meio do write) encerra a leitura daquele segmento.
+     *
+     * @return o maior seq encontrado (ou {@code afterSeq})
+     */
+    public long replay(long afterSeq, Consumer<StockRecord> consumer) throws IOException {
+        long maxSeq = afterSeq;
+        for (Path file : existingSegments()) {
+            segmentIndex = Math.max(segmentIndex, indexOf(file));
+            long lastSeqInFile = 0;
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer read = ByteBuffer.allocate(StockRecord.SIZE);
+                while (true) {
+                    read.clear();
+                    while (read.hasRemaining() && in.read(read) > 0) {
+                        // lê o registro inteiro
+                    }
+                    if (read.hasRemaining()) {
+                        break;
+                    }
+                    read.flip();
+                    StockRecord record = StockRecord.readFrom(read);
+                    if (record == null) {
+                        log.warn("Stock journal {} has a torn record at offset {}, ignoring the rest of the segment",
+                                file.getFileName(), in.position() - StockRecord.SIZE);
+                        break;
+                    }
+                    lastSeqInFile = record.seq();
+                    maxSeq = Math.max(maxSeq, record.seq());
+                    if (record.seq() > afterSeq) {
+                        consumer.accept(record);
+                    }
+                }
+            }
+            closedSegments.put(file, lastSeqInFile);
+        }
+        return maxSeq;
+    }
+
+    /**
+     * Tira de uso os segmentos existentes sem reaplicar, renomeando para {@code .discarded} (ficam para inspeção).
+     * Usado quando outro nó foi dono do estoque depois deles: o banco já está à frente deste journal.
+     *
+     * @return quantos segmentos foram descartados
+     */
+    public int discard() throws IOException {
+        List<Path> segments = existingSegments();
+        for (Path file : segments) {
+            segmentIndex = Math.max(segmentIndex, indexOf(file));
+            Files.move(file, file.resolveSibling(file.getFileName() + ".discarded"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return segments.size();
+    }
+
+    /** Abre um segmento novo e começa a aceitar registros a partir de {@code lastSeq + 1}. */
+    public void start(long lastSeq) throws IOException {
+        this.nextSeq = lastSeq;
+        this.lastWrittenSeq = lastSeq;
+        this.durableSeq = lastSeq;
+        openSegment();
+        writer = new Thread(this::writeLoop, "stock-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reserva o próximo seq, monta o registro com ele e o enfileira. A ordem da fila é a ordem dos seqs,
+     * então um registro só fica durável depois de todos os anteriores.
+     */
+    public Appended append(LongFunction<StockRecord> factory) {
+        if (failure != null) {
+            throw new IllegalStateException("Stock journal is unavailable", failure);
+        }
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        StockRecord record;
+        synchronized (appendLock) {
+            record = factory.apply(++nextSeq);
+            queue.add(new Pending(record, durable));
+            appendLock.notify();
+        }
+        return new Appended(record, durable);
+    }
+
+    public record Appended(StockRecord record, CompletableFuture<Void> durable) {
+    }
+
+    public long durableSeq() {
+        return durableSeq;
+    }
+
+    /** Último seq entregue a um {@link #append}, durável ou não. */
+    public long lastSeq() {
+        synchronized (appendLock) {
+            return nextSeq;
+        }
+    }
+
+    /** Bloqueia até todos os registros com seq menor ou igual a {@code seq} estarem no disco. */
+    public void awaitDurable(long seq) throws InterruptedException {
+        synchronized (durableLock) {
+            while (durableSeq < seq) {
+                if (failure != null) {
+                    throw new IllegalStateException("Stock journal is unavailable", failure);
+                }
+                durableLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Fecha o segmento atual; os próximos registros vão para um novo. Sem nada gravado no atual não faz nada:
+     * um nó parado não deixa um segmento vazio a cada flush.
+     */
+    public void roll() throws IOException {
+        synchronized (channelLock) {
+            if (lastWrittenSeq == segmentStartSeq) {
+                return;
+            }
+            channel.close();
+            closedSegments.put(segment, lastWrittenSeq);
+            openSegment();
+        }
+    }
+
+    /** Apaga os segmentos fechados cujos registros já estão todos no banco. */
+    public void deleteSegmentsUpTo(long checkpointSeq) {
+        synchronized (channelLock) {
+            Iterator<Map.Entry<Path, Long>> it = closedSegments.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Path, Long> closed = it.next();
+                if (closed.getValue() <= checkpointSeq) {
+                    try {
+                        Files.deleteIfExists(closed.getKey());
+                        it.remove();
+                    } catch (IOException e) {
+                        log.warn("Could not delete stock journal segment {}", closed.getKey(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            synchronized (appendLock) {
+                while (queue.isEmpty() && running) {
+                    try {
+                        appendLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                while (!queue.isEmpty() && batch.size() < MAX_BATCH) {
+                    batch.add(queue.poll());
+                }
+            }
+
+            try {
+                synchronized (channelLock) {
+                    buffer.clear();
+                    for (Pending pending : batch) {
+                        pending.record().writeTo(buffer);
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                    lastWrittenSeq = batch.get(batch.size() - 1).record().seq();
+                }
+                synchronized (durableLock) {
+                    durableSeq = lastWrittenSeq;
+                    durableLock.notifyAll();
+                }
+                batch.forEach(pending -> pending.durable().complete(null));
+            } catch (IOException e) {
+                // Sem journal não há como garantir que não vendemos além do estoque: para tudo
+                log.error("Stock journal write failed, stock operations are disabled", e);
+                synchronized (durableLock) {
+                    failure = e;
+                    durableLock.notifyAll();
+                }
+                batch.forEach(pending -> pending.durable().completeExceptionally(e));
+                synchronized (appendLock) {
+                    queue.forEach(pending -> pending.durable().completeExceptionally(e));
+                    queue.clear();
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segment = directory.resolve(String.format("%s%020d%s", PREFIX, ++segmentIndex, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentStartSeq = lastWrittenSeq;
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Espera os registros pendentes ficarem duráveis e fecha o segmento atual. */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        synchronized (appendLock) {
+            appendLock.notifyAll();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (channelLock) {
+            if (channel != null && channel.isOpen()) {
+                channel.close();
+            }
+        }
+    }
+}
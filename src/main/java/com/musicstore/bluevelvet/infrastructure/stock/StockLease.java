@@ -0,0 +1,59 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Lease de dono do estoque (tabela stock_lease). O prazo é gravado e comparado com o relógio do banco,
+ * então relógios diferentes entre os nós não importam.
+ * <p>
+ * Localmente a lease vale até o instante em que o pedido de renovação saiu + ttl: esse prazo termina antes do
+ * que ficou no banco, então este nó para de se considerar dono antes de outro conseguir a lease.
+ */
+public class StockLease {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final Duration ttl;
+
+    private volatile boolean held;
+    private volatile long validUntilNanos;
+
+    public StockLease(JdbcTemplate jdbcTemplate, String nodeId, Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId;
+        this.ttl = ttl;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /** Pega a lease se estiver livre ou vencida, ou renova se já for deste nó. */
+    public boolean tryAcquire() {
+        long requestedAt = System.nanoTime();
+        int updated = jdbcTemplate.update("""
+                        UPDATE stock_lease SET owner = ?, expires_at = NOW(6) + INTERVAL ? MICROSECOND
+                        WHERE id = 1 AND (owner = ? OR owner IS NULL OR expires_at <= NOW(6))
+                        """,
+                nodeId, ttl.toNanos() / 1_000, nodeId);
+        if (updated == 1) {
+            validUntilNanos = requestedAt + ttl.toNanos();
+            held = true;
+        } else {
+            held = false;
+        }
+        return held;
+    }
+
+    public boolean isHeld() {
+        return held && System.nanoTime() - validUntilNanos < 0;
+    }
+
+    /** Solta a lease (desligamento): outro nó pode assumir na próxima tentativa, sem esperar o ttl. */
+    public void release() {
+        held = false;
+        jdbcTemplate.update("UPDATE stock_lease SET owner = NULL, expires_at = NOW(6) WHERE id = 1 AND owner = ?", nodeId);
+    }
+}
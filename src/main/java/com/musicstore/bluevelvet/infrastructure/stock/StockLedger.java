@@ -0,0 +1,391 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contadores de estoque em memória, um lock por produto: reservas de produtos diferentes nunca disputam
+ * nada além do journal, e o journal agrupa o fsync de todas elas. O MySQL recebe o estado em lote
+ * (write-behind) a cada {@code flushInterval}, numa única transação.
+ * <p>
+ * Uma operação só retorna depois que o seu registro está no journal, então nada que o cliente recebeu
+ * se perde num crash: na subida o estado do banco é completado com os registros posteriores ao checkpoint.
+ * <p>
+ * Assume um único nó dono do journal: as quantidades não podem ser alteradas por fora nem por outra instância.
+ * Com vários nós, quem garante isso é o {@link StockOwnership}.
+ */
+@Log4j2
+public class StockLedger implements Closeable {
+
+    private final StockJournal journal;
+    private final StockStore store;
+    private final Duration reservationTtl;
+    private final Clock clock;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+    // Marcados antes do append no journal: todo registro com seq <= durableSeq já está aqui quando o flush lê
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> openedReservations = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> closedReservations = ConcurrentHashMap.newKeySet();
+
+    private final Counter reserved;
+    private final Counter rejected;
+    private final Timer flushTimer;
+    // Removido no close(): um ledger aberto depois (troca de dono do estoque) registra o seu
+    private final MeterRegistry meterRegistry;
+    private final Gauge pendingGauge;
+    private volatile long lastCheckpoint;
+    // System.nanoTime() do início do último flush que deixou o banco em dia
+    private volatile long lastFlushNanos;
+    // O primeiro flush sempre vai ao banco: marca este nó como dono do checkpoint
+    private boolean checkpointClaimed;
+    private ScheduledExecutorService scheduler;
+
+    private static final class StockCounter {
+        private long onHand;
+        private long reserved;
+        private long lastSeq;
+
+        private StockSnapshot snapshot(long productId) {
+            return new StockSnapshot(productId, onHand, reserved, lastSeq);
+        }
+    }
+
+    public StockLedger(StockJournal journal, StockStore store, Duration reservationTtl, Clock clock,
+                       MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.store = store;
+        this.reservationTtl = reservationTtl;
+        this.clock = clock;
+        this.reserved = Counter.builder("stock.reservations").tag("outcome", "reserved").register(meterRegistry);
+        this.rejected = Counter.builder("stock.reservations").tag("outcome", "insufficient").register(meterRegistry);
+        this.flushTimer = Timer.builder("stock.flush").register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+        // Registros no journal que ainda não chegaram ao banco
+        this.pendingGauge = Gauge.builder("stock.journal.pending", this, ledger -> ledger.journal.lastSeq() - ledger.lastCheckpoint)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega o banco, reaplica o journal a partir do checkpoint e grava o resultado.
+     * Deve ser chamado uma vez, antes de qualquer operação.
+     */
+    public void recover() throws IOException {
+        long checkpoint = store.loadCheckpoint();
+        long lastSeq = checkpoint;
+        for (StockSnapshot snapshot : store.loadCounters()) {
+            StockCounter counter = new StockCounter();
+            counter.onHand = snapshot.onHand();
+            counter.reserved = snapshot.reserved();
+            counter.lastSeq = snapshot.lastSeq();
+            counters.put(snapshot.productId(), counter);
+            lastSeq = Math.max(lastSeq, snapshot.lastSeq());
+        }
+        store.loadReservations().forEach(reservation -> reservations.put(reservation.id(), reservation));
+
+        long[] replayed = new long[1];
+        if (store.continuesLocalJournal()) {
+            lastSeq = Math.max(lastSeq, journal.replay(checkpoint, record -> {
+                replay(record);
+                replayed[0]++;
+            }));
+        } else {
+            // Outro nó foi dono depois deste journal: o banco vale, e os seqs continuam a partir dele
+            log.warn("Stock checkpoint was written by another node, discarded {} local journal segments",
+                    journal.discard());
+        }
+        lastCheckpoint = checkpoint;
+        journal.start(lastSeq);
+        log.info("Stock ledger recovered {} counters and {} reservations ({} journal records after checkpoint {})",
+                counters.size(), reservations.size(), replayed[0], checkpoint);
+        flush();
+    }
+
+    // Os registros guardam o estado absoluto: reaplicar o que o banco já tem não muda nada
+    private void replay(StockRecord record) {
+        StockCounter counter = counters.computeIfAbsent(record.productId(), id -> new StockCounter());
+        if (record.seq() > counter.lastSeq) {
+            counter.onHand = record.onHand();
+            counter.reserved = record.reserved();
+            counter.lastSeq = record.seq();
+            dirtyProducts.add(record.productId());
+        }
+        switch (record.type()) {
+            case RESERVE -> {
+                reservations.putIfAbsent(record.reservationId(), new Reservation(record.reservationId(),
+                        record.productId(), record.quantity(), record.expiresAt()));
+                openedReservations.add(record.reservationId());
+            }
+            case COMMIT, RELEASE -> {
+                reservations.remove(record.reservationId());
+                closedReservations.add(record.reservationId());
+            }
+            case SET -> {
+            }
+        }
+    }
+
+    public void start(Duration flushInterval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                releaseExpired();
+                flush();
+            } catch (RuntimeException | IOException e) {
+                log.error("Stock flush failed, will retry in {}", flushInterval, e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<StockSnapshot> get(long productId) {
+        StockCounter counter = counters.get(productId);
+        if (counter == null) {
+            return Optional.empty();
+        }
+        synchronized (counter) {
+            return Optional.of(counter.snapshot(productId));
+        }
+    }
+
+    public boolean isTracked(long productId) {
+        return counters.containsKey(productId);
+    }
+
+    /** Quanto do journal pode não estar no banco: o que foi aceito desde o último flush bem-sucedido. */
+    public Duration sinceLastFlush() {
+        return Duration.ofNanos(System.nanoTime() - lastFlushNanos);
+    }
+
+    public Optional<Reservation> getReservation(UUID id) {
+        return Optional.ofNullable(reservations.get(id));
+    }
+
+    /**
+     * Define a quantidade física. Começa a controlar o estoque do produto se ainda não controlava.
+     *
+     * @return o novo estado, ou vazio se {@code onHand} for menor que o que já está reservado
+     */
+    public Optional<StockSnapshot> setOnHand(long productId, long onHand) {
+        StockCounter counter = counters.computeIfAbsent(productId, id -> new StockCounter());
+        StockSnapshot snapshot;
+        CompletableFuture<Void> durable;
+        synchronized (counter) {
+            if (onHand < counter.reserved) {
+                return Optional.empty();
+            }
+            counter.onHand = onHand;
+            dirtyProducts.add(productId);
+            StockJournal.Appended appended = journal.append(seq ->
+                    new StockRecord(seq, StockRecord.Type.SET, productId, counter.onHand, counter.reserved,
+                            null, 0, null));
+            counter.lastSeq = appended.record().seq();
+            snapshot = counter.snapshot(productId);
+            durable = appended.durable();
+        }
+        awaitDurable(durable);
+        return Optional.of(snapshot);
+    }
+
+    /** @return a reserva, ou vazio se não há {@code quantity} unidades disponíveis (ou o produto não é controlado) */
+    public Optional<Reservation> reserve(long productId, int quantity) {
+        StockCounter counter = counters.get(productId);
+        if (counter == null) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        Reservation reservation;
+        CompletableFuture<Void> durable;
+        synchronized (counter) {
+            if (counter.onHand - counter.reserved < quantity) {
+                rejected.increment();
+                return Optional.empty();
+            }
+            counter.reserved += quantity;
+            reservation = new Reservation(UUID.randomUUID(), productId, quantity, clock.instant().plus(reservationTtl));
+            reservations.put(reservation.id(), reservation);
+            dirtyProducts.add(productId);
+            openedReservations.add(reservation.id());
+            StockJournal.Appended appended = journal.append(seq ->
+                    new StockRecord(seq, StockRecord.Type.RESERVE, productId, counter.onHand, counter.reserved,
+                            reservation.id(), quantity, reservation.expiresAt()));
+            counter.lastSeq = appended.record().seq();
+            durable = appended.durable();
+        }
+        // Espera o fsync fora do lock: as próximas reservas do mesmo produto entram no mesmo lote
+        awaitDurable(durable);
+        reserved.increment();
+        return Optional.of(reservation);
+    }
+
+    /** Baixa as unidades reservadas do estoque físico. @return false se a reserva não existe mais */
+    public boolean commit(UUID reservationId) {
+        return close(reservationId, StockRecord.Type.COMMIT);
+    }
+
+    /** Devolve as unidades reservadas. @return false se a reserva não existe mais */
+    public boolean release(UUID reservationId) {
+        return close(reservationId, StockRecord.Type.RELEASE);
+    }
+
+    private boolean close(UUID reservationId, StockRecord.Type type) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        long productId = reservation.productId();
+        StockCounter counter = counters.get(productId);
+        CompletableFuture<Void> durable;
+        synchronized (counter) {
+            // Commit e release concorrentes: só o primeiro leva
+            if (reservations.remove(reservationId) == null) {
+                return false;
+            }
+            if (type == StockRecord.Type.COMMIT) {
+                counter.onHand -= reservation.quantity();
+            }
+            counter.reserved -= reservation.quantity();
+            dirtyProducts.add(productId);
+            closedReservations.add(reservationId);
+            StockJournal.Appended appended = journal.append(seq ->
+                    new StockRecord(seq, type, productId, counter.onHand, counter.reserved,
+                            reservationId, reservation.quantity(), null));
+            counter.lastSeq = appended.record().seq();
+            durable = appended.durable();
+        }
+        awaitDurable(durable);
+        return true;
+    }
+
+    /** Libera as reservas vencidas (carrinho abandonado). */
+    public int releaseExpired() {
+        Instant now = clock.instant();
+        int released = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.expiresAt().isBefore(now) && release(reservation.id())) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.debug("Released {} expired stock reservations", released);
+        }
+        return released;
+    }
+
+    /**
+     * Grava no banco tudo o que mudou desde o último flush. Só grava estado que já está no journal,
+     * então o banco nunca fica à frente do que sobrevive a um crash.
+     */
+    public synchronized void flush() throws IOException {
+        long startedAt = System.nanoTime();
+        journal.roll();
+        long checkpoint = journal.durableSeq();
+
+        List<UUID> closed = drain(closedReservations);
+        List<Reservation> opened = new ArrayList<>();
+        for (UUID id : drain(openedReservations)) {
+            Reservation reservation = reservations.get(id);
+            // Aberta e fechada no mesmo intervalo: o DELETE já cobre
+            if (reservation != null) {
+                opened.add(reservation);
+            }
+        }
+        List<Long> products = drain(dirtyProducts);
+        List<StockSnapshot> snapshots = new ArrayList<>(products.size());
+        for (Long productId : products) {
+            get(productId).ifPresent(snapshots::add);
+        }
+        if (snapshots.isEmpty() && opened.isEmpty() && closed.isEmpty() && checkpoint == lastCheckpoint
+                && checkpointClaimed) {
+            lastFlushNanos = startedAt;
+            return;
+        }
+
+        try {
+            journal.awaitDurable(journal.lastSeq());
+            flushTimer.record(() -> store.flush(snapshots, opened, closed, checkpoint));
+        } catch (Exception e) {
+            // Nada foi gravado: volta tudo para a próxima tentativa
+            dirtyProducts.addAll(products);
+            opened.forEach(reservation -> openedReservations.add(reservation.id()));
+            closedReservations.addAll(closed);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+        }
+        lastCheckpoint = checkpoint;
+        lastFlushNanos = startedAt;
+        checkpointClaimed = true;
+        journal.deleteSegmentsUpTo(checkpoint);
+    }
+
+    private static <T> List<T> drain(Set<T> set) {
+        List<T> drained = new ArrayList<>();
+        Iterator<T> it = set.iterator();
+        while (it.hasNext()) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> durable) {
+        try {
+            durable.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stock journal", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stock journal write failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // O journal continua no disco: a próxima subida reaplica
+            log.warn("Final stock flush failed, the journal will be replayed on startup", e);
+        } finally {
+            meterRegistry.remove(pendingGauge);
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Garante um único {@link StockLedger} no cluster: com dois nós contando em memória, cada um venderia o mesmo
+ * estoque. Todos os nós com estoque ligado disputam a {@link StockLease}; quem a pega recupera o ledger (banco +
+ * journal local, se o último flush foi dele) e atende as operações. Os outros não têm ledger.
+ * <p>
+ * Sem renovar a tempo (nó travado, banco inacessível) o ledger é fechado e outro nó pode assumir a partir do
+ * último flush. O flush confere a lease na mesma transação, então um dono antigo nunca grava por cima do novo.
+ * <p>
+ * O que o dono aceitou depois do último flush só existe no journal dele e se perde numa troca de dono. Por isso,
+ * com os flushes falhando, ele para de aceitar operações depois de {@code maxFlushAge}, bem antes de a lease vencer.
+ */
+@Log4j2
+public class StockOwnership implements Closeable {
+
+    /** Cria, recupera e inicia um ledger novo. */
+    @FunctionalInterface
+    public interface LedgerFactory {
+        StockLedger open() throws IOException;
+    }
+
+    private final StockLease lease;
+    private final StockStore store;
+    private final LedgerFactory ledgerFactory;
+    private final Duration maxFlushAge;
+
+    private volatile StockLedger ledger;
+    private ScheduledExecutorService scheduler;
+
+    public StockOwnership(StockLease lease, StockStore store, LedgerFactory ledgerFactory, Duration maxFlushAge) {
+        this.lease = lease;
+        this.store = store;
+        this.ledgerFactory = ledgerFactory;
+        this.maxFlushAge = maxFlushAge;
+    }
+
+    /** A primeira tentativa roda aqui: o dono já sobe com o ledger pronto. */
+    public void start(Duration renewInterval) {
+        renew();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = renewInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::renew, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** O ledger, só enquanto este nó estiver com a lease. */
+    public Optional<StockLedger> ledger() {
+        StockLedger current = ledger;
+        return current != null && lease.isHeld() ? Optional.of(current) : Optional.empty();
+    }
+
+    public boolean isOwner() {
+        return ledger().isPresent();
+    }
+
+    /** Se o ledger pode aceitar operações: o último flush bem-sucedido foi há menos de {@code maxFlushAge}. */
+    public boolean isFlushCurrent() {
+        return ledger().map(current -> current.sinceLastFlush().compareTo(maxFlushAge) < 0).orElse(false);
+    }
+
+    /** Nos outros nós a resposta vem do banco: o último flush do dono. */
+    public boolean isTracked(long productId) {
+        return ledger().map(current -> current.isTracked(productId)).orElseGet(() -> store.isTracked(productId));
+    }
+
+    /** Renova (ou tenta pegar) a lease e abre ou fecha o ledger conforme o resultado. */
+    public synchronized void renew() {
+        try {
+            lease.tryAcquire();
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the stock lease for {}", lease.nodeId(), e);
+        }
+        if (lease.isHeld()) {
+            if (ledger == null) {
+                open();
+            }
+        } else if (ledger != null) {
+            log.warn("Node {} lost the stock lease, closing the stock ledger", lease.nodeId());
+            closeLedger();
+        }
+    }
+
+    private void open() {
+        try {
+            ledger = ledgerFactory.open();
+            log.info("Node {} now owns the stock ledger", lease.nodeId());
+        } catch (IOException | RuntimeException e) {
+            // Fica com a lease e tenta de novo na próxima renovação
+            log.error("Node {} holds the stock lease but could not open the stock ledger", lease.nodeId(), e);
+        }
+    }
+
+    private void closeLedger() {
+        StockLedger current = ledger;
+        ledger = null;
+        try {
+            current.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to close the stock ledger", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (ledger != null) {
+            // Flush final ainda com a lease; depois dele o próximo dono não perde nada
+            closeLedger();
+        }
+        try {
+            lease.release();
+        } catch (RuntimeException e) {
+            log.warn("Could not release the stock lease, it expires on its own", e);
+        }
+    }
+}
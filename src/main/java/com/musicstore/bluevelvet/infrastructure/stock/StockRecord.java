@@ -0,0 +1,61 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro do journal de estoque. Guarda o estado absoluto do contador depois da operação
+ * (e não um delta), então reaplicar um registro já refletido no banco não muda nada.
+ */
+public record StockRecord(long seq, Type type, long productId, long onHand, long reserved,
+                          UUID reservationId, int quantity, Instant expiresAt) {
+
+    public enum Type { SET, RESERVE, COMMIT, RELEASE }
+
+    // seq, productId, onHand, reserved, reservationId (2 longs), expiresAt, quantity, type, crc
+    static final int SIZE = 8 * 7 + 4 + 1 + 4;
+
+    private static final UUID NO_RESERVATION = new UUID(0, 0);
+
+    void writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        UUID reservation = reservationId != null ? reservationId : NO_RESERVATION;
+        buffer.putLong(seq)
+                .putLong(productId)
+                .putLong(onHand)
+                .putLong(reserved)
+                .putLong(reservation.getMostSignificantBits())
+                .putLong(reservation.getLeastSignificantBits())
+                .putLong(expiresAt != null ? expiresAt.toEpochMilli() : 0)
+                .putInt(quantity)
+                .put((byte) type.ordinal());
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /** @return o registro, ou null se os bytes estiverem corrompidos (ex.: escrita cortada por um crash) */
+    static StockRecord readFrom(ByteBuffer buffer) {
+        int start = buffer.position();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start).limit(start + SIZE - 4));
+
+        long seq = buffer.getLong();
+        long productId = buffer.getLong();
+        long onHand = buffer.getLong();
+        long reserved = buffer.getLong();
+        UUID reservation = new UUID(buffer.getLong(), buffer.getLong());
+        long expiresAt = buffer.getLong();
+        int quantity = buffer.getInt();
+        int type = buffer.get();
+        int checksum = buffer.getInt();
+        if (checksum != (int) crc.getValue() || type < 0 || type >= Type.values().length) {
+            return null;
+        }
+        return new StockRecord(seq, Type.values()[type], productId, onHand, reserved,
+                NO_RESERVATION.equals(reservation) ? null : reservation, quantity,
+                expiresAt != 0 ? Instant.ofEpochMilli(expiresAt) : null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+/** Estado de um contador num instante: o que vai para stock_counter. */
+public record StockSnapshot(long productId, long onHand, long reserved, long lastSeq) {
+
+    public long available() {
+        return onHand - reserved;
+    }
+}
@@ -0,0 +1,38 @@
+package com.musicstore.bluevelvet.infrastructure.stock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Onde os contadores de estoque ficam persistidos. O {@link StockLedger} só conversa com o banco
+ * pelo flush em lote e pela carga inicial.
+ */
+public interface StockStore {
+
+    /** Seq do último registro do journal que já está refletido no banco. */
+    long loadCheckpoint();
+
+    /**
+     * Se o journal local continua o estado do banco. Falso quando o último checkpoint foi gravado por outro nó
+     * (troca de dono do estoque): os registros locais ficaram para trás e não podem ser reaplicados.
+     */
+    default boolean continuesLocalJournal() {
+        return true;
+    }
+
+    List<StockSnapshot> loadCounters();
+
+    /** Se o produto tem quantidade controlada, segundo o último flush. */
+    boolean isTracked(long productId);
+
+    List<Reservation> loadReservations();
+
+    /**
+     * Grava, numa única transação, os contadores alterados, as reservas abertas e fechadas desde o último
+     * flush e o novo checkpoint. Também atualiza {@code product.in_stock} a partir de {@code available()}
+     * e, na mesma transação, registra a mudança dos produtos cujo in_stock mudou.
+     */
+    void flush(Collection<StockSnapshot> counters, Collection<Reservation> opened,
+               Collection<UUID> closed, long checkpointSeq);
+}
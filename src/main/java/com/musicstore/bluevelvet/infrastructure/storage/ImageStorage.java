@@ -0,0 +1,30 @@
+package com.musicstore.bluevelvet.infrastructure.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
+
+/**
+ * Armazenamento das imagens de produtos e categorias.
+ * As chaves são os nomes de arquivo gravados em Product.mainImage, ProductImage.fileName e Category.image,
+ * servidos publicamente em /user-images/{chave}.
+ */
+public interface ImageStorage {
+
+    /** Grava o conteúdo em streaming. {@code size} pode ser -1 quando o tamanho não é conhecido. */
+    void store(String key, InputStream content, long size, String contentType) throws IOException;
+
+    /** Abre o conteúdo para leitura em streaming. O chamador deve fechar o stream. */
+    InputStream load(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * URL assinada para leitura direta no backend, quando suportado.
+     * Vazio significa que a leitura deve ser feita através da aplicação (proxy).
+     */
+    Optional<URI> readUrl(String key);
+}
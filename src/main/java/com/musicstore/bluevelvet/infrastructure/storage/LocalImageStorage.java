@@ -0,0 +1,92 @@
+package com.musicstore.bluevelvet.infrastructure.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/** Implementação em disco local: o comportamento original de Paths.get("user-images"). */
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path rootLocation;
+    private final Path tempLocation;
+
+    /** Temporários em {@code <root>.upload-tmp}, ao lado da pasta servida. */
+    public LocalImageStorage(Path rootLocation) {
+        this(rootLocation, null);
+    }
+
+    /**
+     * @param tempLocation onde ficam os uploads em andamento; fora da pasta servida (o WebConfig expõe tudo que
+     *                     está em rootLocation) e no mesmo disco, para o move ser atômico. null: ao lado da raiz
+     */
+    public LocalImageStorage(Path rootLocation, Path tempLocation) {
+        this.rootLocation = rootLocation.toAbsolutePath().normalize();
+        this.tempLocation = tempLocation != null
+                ? tempLocation.toAbsolutePath().normalize()
+                : this.rootLocation.resolveSibling(this.rootLocation.getFileName() + ".upload-tmp");
+        if (this.tempLocation.startsWith(this.rootLocation)) {
+            throw new IllegalArgumentException("Upload temp dir must be outside the served root: " + this.tempLocation);
+        }
+        try {
+            Files.createDirectories(this.rootLocation);
+            Files.createDirectories(this.tempLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize storage", e);
+        }
+    }
+
+    public Path getRootLocation() {
+        return rootLocation;
+    }
+
+    @Override
+    public void store(String key, InputStream content, long size, String contentType) throws IOException {
+        // Grava num arquivo temporário fora da pasta servida e move, para nunca servir um arquivo pela metade
+        Path target = resolve(key);
+        Path tmp = Files.createTempFile(tempLocation, ".upload-", ".tmp");
+        try {
+            Files.copy(content, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public InputStream load(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException(key);
+        }
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public Optional<URI> readUrl(String key) {
+        return Optional.empty();
+    }
+
+    private Path resolve(String key) {
+        Path file = rootLocation.resolve(key).normalize();
+        // Evita path traversal com nomes de arquivo como "../application.yaml"
+        if (!file.getParent().equals(rootLocation)) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,97 @@
+package com.musicstore.bluevelvet.infrastructure.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
+
+/** Mede duração e bytes de cada gravação de imagem, com as tags backend e outcome. */
+public class MeteredImageStorage implements ImageStorage {
+
+    private final ImageStorage delegate;
+    private final String backend;
+    private final MeterRegistry registry;
+
+    public MeteredImageStorage(ImageStorage delegate, String backend, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.backend = backend;
+        this.registry = registry;
+    }
+
+    @Override
+    public void store(String key, InputStream content, long size, String contentType) throws IOException {
+        CountingInputStream counting = new CountingInputStream(content);
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            delegate.store(key, counting, size, contentType);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("storage.image.write")
+                    .tag("backend", backend)
+                    .tag("outcome", outcome)
+                    .register(registry));
+            DistributionSummary.builder("storage.image.write.bytes")
+                    .baseUnit("bytes")
+                    .tag("backend", backend)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(counting.count);
+        }
+    }
+
+    @Override
+    public InputStream load(String key) throws IOException {
+        return delegate.load(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        delegate.delete(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return delegate.exists(key);
+    }
+
+    @Override
+    public Optional<URI> readUrl(String key) {
+        return delegate.readUrl(key);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
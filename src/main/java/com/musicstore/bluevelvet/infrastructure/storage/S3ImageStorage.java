@@ -0,0 +1,176 @@
+package com.musicstore.bluevelvet.infrastructure.storage;
+
+import lombok.extern.log4j.Log4j2;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementação para qualquer servidor compatível com S3 (AWS, MinIO, LocalStack...).
+ * Arquivos maiores que {@code partSize} (ou de tamanho desconhecido) são enviados com multipart upload.
+ */
+@Log4j2
+public class S3ImageStorage implements ImageStorage, AutoCloseable {
+
+    // O S3 exige partes de pelo menos 5MB (exceto a última)
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final String prefix;
+    private final int partSize;
+    private final Duration presignTtl;
+
+    /** @param presigner pode ser null: nesse caso as leituras passam pela aplicação */
+    public S3ImageStorage(S3Client client, S3Presigner presigner, String bucket, String prefix,
+                          int partSize, Duration presignTtl) {
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.presignTtl = presignTtl;
+    }
+
+    @Override
+    public void store(String key, InputStream content, long size, String contentType) throws IOException {
+        try {
+            if (size >= 0 && size <= partSize) {
+                PutObjectRequest request = PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey(key))
+                        .contentType(contentType)
+                        .contentLength(size)
+                        .build();
+                client.putObject(request, RequestBody.fromInputStream(content, size));
+            } else {
+                multipartUpload(objectKey(key), content, contentType);
+            }
+        } catch (S3Exception e) {
+            throw new IOException("Failed to store " + key + " in bucket " + bucket, e);
+        }
+    }
+
+    private void multipartUpload(String objectKey, InputStream content, String contentType) throws IOException {
+        String uploadId = client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        List<CompletedPart> parts = new ArrayList<>();
+        byte[] buffer = new byte[partSize];
+        try {
+            int partNumber = 1;
+            int read;
+            while ((read = content.readNBytes(buffer, 0, partSize)) > 0 || partNumber == 1) {
+                UploadPartResponse response = client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) read)
+                                .build(),
+                        RequestBody.fromBytes(read == partSize ? buffer : Arrays.copyOf(buffer, read)));
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+                partNumber++;
+                if (read < partSize) break;
+            }
+
+            client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Aborting multipart upload {} for {}", uploadId, objectKey);
+            client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream load(String key) throws IOException {
+        try {
+            return client.getObject(GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException(key);
+        } catch (S3Exception e) {
+            throw new IOException("Failed to read " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+        } catch (S3Exception e) {
+            throw new IOException("Failed to delete " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            // HEAD não tem corpo: alguns servidores compatíveis não deixam o SDK reconhecer o NoSuchKey
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<URI> readUrl(String key) {
+        if (presigner == null) {
+            return Optional.empty();
+        }
+        GetObjectPresignRequest request = GetObjectPresignRequest.builder()
+                .signatureDuration(presignTtl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build())
+                .build();
+        try {
+            return Optional.of(presigner.presignGetObject(request).url().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (presigner != null) {
+            presigner.close();
+        }
+    }
+
+    private String objectKey(String key) {
+        if (key.contains("/") || key.contains("\\")) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return prefix + key;
+    }
+}
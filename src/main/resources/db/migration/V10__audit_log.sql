@@ -0,0 +1,13 @@
+-- Log de auditoria das operações administrativas (produtos, categorias, usuários).
+-- Só recebe INSERT, em lote, pelo AuditLog; nada é alterado nem removido pela aplicação
+CREATE TABLE audit_log (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    occurred_at DATETIME(6)  NOT NULL,
+    actor       VARCHAR(255) NOT NULL,
+    entity      VARCHAR(16)  NOT NULL,
+    entity_id   BIGINT       NOT NULL,
+    action      VARCHAR(16)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_audit_log_entity (entity, entity_id),
+    INDEX idx_audit_log_occurred_at (occurred_at)
+);
@@ -0,0 +1,13 @@
+-- Dono do estoque em memória (StockLedger): todos os nós com bluevelvet.stock.enabled disputam esta linha
+-- e só quem está com a lease válida atende operações de estoque. expires_at usa o relógio do banco
+CREATE TABLE stock_lease (
+    id         TINYINT      NOT NULL,
+    owner      VARCHAR(255) NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO stock_lease (id, owner, expires_at) VALUES (1, NULL, '1970-01-01 00:00:00');
+
+-- Nó que gravou o checkpoint: só ele pode reaplicar o próprio journal numa recuperação
+ALTER TABLE stock_checkpoint ADD COLUMN owner VARCHAR(255) NULL;
@@ -0,0 +1,85 @@
+-- Esquema como o Hibernate (ddl-auto) criava até aqui.
+-- Bancos que já existem são marcados como V1 pelo baseline-on-migrate e não executam este arquivo.
+
+CREATE TABLE IF NOT EXISTS categories (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    description VARCHAR(255) NULL,
+    enabled     BIT          NULL,
+    image       VARCHAR(255) NULL,
+    name        VARCHAR(255) NULL,
+    parent_id   BIGINT       NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_categories_parent FOREIGN KEY (parent_id) REFERENCES categories (id)
+);
+
+CREATE TABLE IF NOT EXISTS product (
+    id                BIGINT         NOT NULL AUTO_INCREMENT,
+    brand             VARCHAR(255)   NULL,
+    category          VARCHAR(255)   NULL,
+    cost              DECIMAL(38, 2) NULL,
+    creation_time     DATETIME(6)    NULL,
+    discount          DECIMAL(38, 2) NULL,
+    enabled           BIT            NULL,
+    full_description  TEXT           NULL,
+    in_stock          BIT            NULL,
+    list_price        DECIMAL(38, 2) NULL,
+    main_image        VARCHAR(255)   NULL,
+    name              VARCHAR(255)   NULL,
+    short_description VARCHAR(500)   NULL,
+    update_time       DATETIME(6)    NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS product_detail (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255) NULL,
+    `value`     VARCHAR(255) NULL,
+    product_id  BIGINT       NULL,
+    category_id BIGINT       NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_detail_product FOREIGN KEY (product_id) REFERENCES product (id),
+    CONSTRAINT fk_product_detail_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE IF NOT EXISTS product_image (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    file_name  VARCHAR(255) NULL,
+    product_id BIGINT       NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_image_product FOREIGN KEY (product_id) REFERENCES product (id)
+);
+
+CREATE TABLE IF NOT EXISTS box_dimension (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    length     FLOAT  NULL,
+    width      FLOAT  NULL,
+    height     FLOAT  NULL,
+    weight     FLOAT  NULL,
+    product_id BIGINT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_box_dimension_product UNIQUE (product_id),
+    CONSTRAINT fk_box_dimension_product FOREIGN KEY (product_id) REFERENCES product (id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_role (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    authority VARCHAR(255) NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_user (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    email    VARCHAR(255) NULL,
+    name     VARCHAR(255) NULL,
+    password VARCHAR(255) NULL,
+    phone    VARCHAR(255) NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_user_role (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_role_user FOREIGN KEY (user_id) REFERENCES tb_user (id),
+    CONSTRAINT fk_user_role_role FOREIGN KEY (role_id) REFERENCES tb_role (id)
+);
@@ -0,0 +1,17 @@
+-- Preço final persistido (list_price com o desconto percentual aplicado), para ordenar e filtrar por preço
+-- sem calcular a expressão linha a linha. O espelho em centavos é o que os índices e as consultas usam.
+ALTER TABLE product
+    ADD COLUMN effective_price       DECIMAL(38, 2) NULL,
+    ADD COLUMN effective_price_cents BIGINT         NULL;
+
+-- Mesma regra do ProductPricing: arredondamento HALF_UP em 2 casas
+UPDATE product
+SET effective_price = ROUND(list_price * (100 - COALESCE(discount, 0)) / 100, 2)
+WHERE list_price IS NOT NULL;
+
+UPDATE product
+SET effective_price_cents = CAST(effective_price * 100 AS SIGNED)
+WHERE effective_price IS NOT NULL;
+
+-- O id no fim do índice serve de desempate estável na paginação
+CREATE INDEX idx_product_effective_price ON product (effective_price_cents, id);
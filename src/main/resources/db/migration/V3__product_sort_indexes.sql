@@ -0,0 +1,6 @@
+-- Um índice por campo de ordenação aceito em GET /products (ver ProductSort).
+-- O id no fim deixa a ordem total e permite ORDER BY coluna, id sem filesort.
+CREATE INDEX idx_product_name ON product (name, id);
+CREATE INDEX idx_product_list_price ON product (list_price, id);
+CREATE INDEX idx_product_creation_time ON product (creation_time, id);
+CREATE INDEX idx_product_update_time ON product (update_time, id);
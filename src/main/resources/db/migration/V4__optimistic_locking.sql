@@ -0,0 +1,3 @@
+-- Versão para o @Version (lock otimista) de produtos e categorias
+ALTER TABLE product ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,27 @@
+-- Quantidades em estoque. O write-behind do StockLedger é o único que escreve aqui;
+-- product.in_stock passa a ser derivado de on_hand - reserved para os produtos com linha nesta tabela.
+CREATE TABLE stock_counter (
+    product_id BIGINT NOT NULL,
+    on_hand    BIGINT NOT NULL,
+    reserved   BIGINT NOT NULL,
+    last_seq   BIGINT NOT NULL,
+    PRIMARY KEY (product_id)
+);
+
+CREATE TABLE stock_reservation (
+    id         CHAR(36)    NOT NULL,
+    product_id BIGINT      NOT NULL,
+    quantity   INT         NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_stock_reservation_expires_at (expires_at)
+);
+
+-- Seq do último registro do journal já gravado nas tabelas acima
+CREATE TABLE stock_checkpoint (
+    id          TINYINT NOT NULL,
+    journal_seq BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO stock_checkpoint (id, journal_seq) VALUES (1, 0);
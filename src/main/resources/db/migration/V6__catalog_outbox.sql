@@ -0,0 +1,19 @@
+-- Outbox das mudanças do catálogo. O seq vem de catalog_sequence dentro da transação que fez a mudança:
+-- o UPDATE segura a linha até o commit, então a ordem dos seqs é a ordem dos commits
+CREATE TABLE catalog_sequence (
+    id  TINYINT NOT NULL,
+    seq BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO catalog_sequence (id, seq) VALUES (1, 0);
+
+CREATE TABLE catalog_outbox (
+    seq         BIGINT      NOT NULL,
+    entity      VARCHAR(16) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    type        VARCHAR(16) NOT NULL,
+    occurred_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (seq),
+    INDEX idx_catalog_outbox_occurred_at (occurred_at)
+);
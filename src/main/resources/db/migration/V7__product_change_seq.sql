@@ -0,0 +1,19 @@
+-- Marca d'água para sincronização incremental (GET /products/changes).
+-- change_seq vem da mesma sequência do catalog_outbox: é o seq do último evento do produto.
+ALTER TABLE product ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Produtos que já existem recebem seqs novos, em ordem de id
+SET @seq := (SELECT seq FROM catalog_sequence WHERE id = 1);
+UPDATE product SET change_seq = (@seq := @seq + 1) ORDER BY id;
+UPDATE catalog_sequence SET seq = @seq WHERE id = 1;
+
+CREATE INDEX idx_product_change_seq ON product (change_seq);
+
+-- Produtos apagados continuam aparecendo para quem sincroniza
+CREATE TABLE product_tombstone (
+    product_id BIGINT      NOT NULL,
+    change_seq BIGINT      NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (product_id),
+    INDEX idx_product_tombstone_change_seq (change_seq)
+);
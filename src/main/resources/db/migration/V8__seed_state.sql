@@ -0,0 +1,7 @@
+-- Marca do DataSeeder: com a versão atual registrada, a subida não consulta roles nem usuários
+CREATE TABLE seed_state (
+    name       VARCHAR(64) NOT NULL,
+    version    INT         NOT NULL,
+    applied_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+);
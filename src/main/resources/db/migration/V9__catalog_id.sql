@@ -0,0 +1,4 @@
+-- Identidade do banco do catálogo: um snapshot do cache de produtos só vale para o banco que o gerou
+-- (um banco recriado recomeça os seqs do zero e um snapshot antigo pareceria válido)
+ALTER TABLE catalog_sequence ADD COLUMN catalog_id CHAR(36) NULL;
+UPDATE catalog_sequence SET catalog_id = UUID() WHERE id = 1;
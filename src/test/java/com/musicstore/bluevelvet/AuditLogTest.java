@@ -0,0 +1,127 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.event.AuditEvent;
+import com.musicstore.bluevelvet.infrastructure.audit.AuditLog;
+import com.musicstore.bluevelvet.infrastructure.audit.AuditRecord;
+import com.musicstore.bluevelvet.infrastructure.audit.AuditStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class AuditLogTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Eventos devem ser gravados em lote pela thread de auditoria, sem esperar o banco")
+    void testRecordsAreWrittenInBatches() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        RecordingStore store = new RecordingStore() {
+            @Override
+            public void append(List<AuditRecord> records) {
+                if (batches.isEmpty()) {
+                    firstWriteStarted.countDown();
+                    awaitQuietly(releaseFirstWrite);
+                }
+                super.append(records);
+            }
+        };
+        AuditLog auditLog = new AuditLog(store, 1_000, 500, Duration.ofSeconds(5), Clock.systemUTC(), meterRegistry);
+        auditLog.start(Duration.ofMillis(50));
+
+        auditLog.onAuditEvent(AuditEvent.product(1L, AuditEvent.Action.UPDATED));
+        Assertions.assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        // Com a primeira gravação travada, quem publica continua voltando na hora
+        long started = System.nanoTime();
+        for (long id = 2; id <= 101; id++) {
+            Assertions.assertTrue(auditLog.append("PRODUCT", id, "UPDATED"));
+        }
+        Assertions.assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+
+        releaseFirstWrite.countDown();
+        auditLog.close();
+        Assertions.assertEquals(101, store.records().size());
+        Assertions.assertEquals(2, store.batches.size(), "Os 100 que chegaram durante a gravação vão num lote só");
+        Assertions.assertEquals(101.0, meterRegistry.get("audit.events").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    @DisplayName("Fechar deve gravar o que ainda está na fila, com quem fez cada operação")
+    void testCloseDrainsQueue() {
+        RecordingStore store = new RecordingStore();
+        AuditLog auditLog = new AuditLog(store, 1_000, 4, Duration.ofSeconds(5), Clock.systemUTC(), meterRegistry);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin@bluevelvet.com", null, "ROLE_ADMIN"));
+        for (long id = 1; id <= 10; id++) {
+            auditLog.onAuditEvent(AuditEvent.category(id, AuditEvent.Action.DELETED));
+        }
+        SecurityContextHolder.clearContext();
+        auditLog.onAuditEvent(AuditEvent.user(7L, AuditEvent.Action.CREATED));
+
+        auditLog.close();
+        List<AuditRecord> records = store.records();
+        Assertions.assertEquals(11, records.size());
+        Assertions.assertEquals(3, store.batches.size());
+        Assertions.assertEquals("admin@bluevelvet.com", records.get(0).actor());
+        Assertions.assertEquals("CATEGORY", records.get(0).entity());
+        Assertions.assertEquals("DELETED", records.get(0).action());
+        Assertions.assertEquals("system", records.get(10).actor());
+        Assertions.assertEquals("USER", records.get(10).entity());
+    }
+
+    @Test
+    @DisplayName("Fila cheia deve descartar e contar o evento, sem bloquear quem publica")
+    void testFullQueueDropsWithoutBlocking() {
+        RecordingStore store = new RecordingStore();
+        AuditLog auditLog = new AuditLog(store, 2, 500, Duration.ofSeconds(5), Clock.systemUTC(), meterRegistry);
+
+        Assertions.assertTrue(auditLog.append("PRODUCT", 1L, "CREATED"));
+        Assertions.assertTrue(auditLog.append("PRODUCT", 2L, "CREATED"));
+        Assertions.assertFalse(auditLog.append("PRODUCT", 3L, "CREATED"));
+        Assertions.assertEquals(1.0, meterRegistry.get("audit.events").tag("outcome", "dropped").counter().count());
+
+        auditLog.close();
+        Assertions.assertEquals(2, store.records().size());
+    }
+
+    private static class RecordingStore implements AuditStore {
+
+        final List<List<AuditRecord>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void append(List<AuditRecord> records) {
+            batches.add(List.copyOf(records));
+        }
+
+        List<AuditRecord> records() {
+            return batches.stream().flatMap(List::stream).toList();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.api.request.CategoryRequest;
+import com.musicstore.bluevelvet.domain.service.CategoryService;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuditTrailTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("audit_trail"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+        registry.add("bluevelvet.audit.retry-interval", () -> "50ms");
+        String imageRoot = Files.createTempDirectory("user-images").resolve("images").toString();
+        registry.add("bluevelvet.storage.local.root", () -> imageRoot);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO categories (id, name, enabled) VALUES (1, 'Vinyl', 1)");
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO product (id, name, category) VALUES (?, 'Doolittle', 'Vinyl')", id);
+        }
+        jdbcTemplate.update("INSERT INTO product (id, name, category) VALUES (10, 'Surfer Rosa', 'CD')");
+    }
+
+    @Test
+    @DisplayName("Renomear uma categoria deve auditar só a categoria, não os produtos que mudaram junto")
+    void testCategoryRenameAuditsOnlyTheCategory() throws Exception {
+        CategoryRequest request = new CategoryRequest();
+        request.setName("Vinil");
+        categoryService.update(1L, request);
+
+        Assertions.assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product WHERE category = 'Vinil'", Integer.class));
+        // Cada teste olha só para as entidades que ele mexe
+        Assertions.assertEquals(List.of("CATEGORY:1:UPDATED"),
+                awaitAuditRows("entity = 'CATEGORY' OR entity_id IN (1, 2, 3)"));
+    }
+
+    @Test
+    @DisplayName("Trocar a imagem principal deve gravar uma única linha de auditoria do produto")
+    void testMainImageUploadAuditsOnce() throws Exception {
+        productService.updateProductImage(10L, new MockMultipartFile("file", "capa.png", "image/png",
+                "fake-png".getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertEquals(List.of("PRODUCT:10:UPDATED"), awaitAuditRows("entity = 'PRODUCT' AND entity_id = 10"));
+    }
+
+    // Espera a primeira linha aparecer e mais alguns ciclos do audit-writer, para pegar linhas a mais
+    private List<String> awaitAuditRows(String condition) throws InterruptedException {
+        String sql = "SELECT CONCAT(entity, ':', entity_id, ':', action) FROM audit_log WHERE " + condition + " ORDER BY id";
+        List<String> rows = List.of();
+        for (int attempt = 0; attempt < 100 && rows.isEmpty(); attempt++) {
+            Thread.sleep(50);
+            rows = jdbcTemplate.queryForList(sql, String.class);
+        }
+        Thread.sleep(300);
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
+}
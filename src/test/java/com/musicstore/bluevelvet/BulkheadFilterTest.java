@@ -0,0 +1,119 @@
+package com.musicstore.bluevelvet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicstore.bluevelvet.api.filter.BulkheadFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class BulkheadFilterTest {
+
+    private static final int UPLOAD_LIMIT = 2;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BulkheadFilter filter = new BulkheadFilter(4, Duration.ZERO, 4, Duration.ZERO,
+            UPLOAD_LIMIT, Duration.ZERO, List.of("/actuator/**", "/catalog/events"), Duration.ofSeconds(1),
+            new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Requisições devem ser classificadas em leitura, escrita e upload; health check e SSE ficam de fora")
+    void testClassification() {
+        Assertions.assertEquals(BulkheadFilter.EndpointClass.READ, filter.classify(request("GET", "/products/1")));
+        Assertions.assertEquals(BulkheadFilter.EndpointClass.WRITE, filter.classify(request("PUT", "/products/1")));
+        Assertions.assertEquals(BulkheadFilter.EndpointClass.UPLOAD, filter.classify(upload("/products/1/image")));
+        Assertions.assertEquals(BulkheadFilter.EndpointClass.UPLOAD, filter.classify(upload("/api/categories")));
+        Assertions.assertNull(filter.classify(request("GET", "/actuator/health")));
+        Assertions.assertNull(filter.classify(request("GET", "/catalog/events")));
+        Assertions.assertNull(filter.classify(request("OPTIONS", "/products/1")));
+    }
+
+    @Test
+    @DisplayName("Uploads acima do limite devem receber 429 na hora, sem afetar as leituras")
+    void testUploadsSaturatedDoNotBlockReads() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(UPLOAD_LIMIT);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowUpload = (req, res) -> {
+            inFlight.countDown();
+            awaitQuietly(release);
+        };
+
+        List<Future<MockHttpServletResponse>> uploads = new ArrayList<>();
+        for (int i = 0; i < UPLOAD_LIMIT; i++) {
+            uploads.add(executor.submit(() -> doFilter(upload("/products/1/image"), slowUpload)));
+        }
+        Assertions.assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = doFilter(upload("/products/2/image"), (req, res) -> Assertions.fail("Não deveria passar"));
+        Assertions.assertEquals(429, rejected.getStatus());
+        Assertions.assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertTrue(rejected.getContentAsString().contains("\"status\":429"));
+
+        MockHttpServletResponse read = doFilter(request("GET", "/products/1"), (req, res) -> { });
+        Assertions.assertEquals(200, read.getStatus());
+
+        release.countDown();
+        for (Future<MockHttpServletResponse> upload : uploads) {
+            Assertions.assertEquals(200, upload.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        Assertions.assertEquals(1.0, meterRegistry.get("http.bulkhead.rejected").tag("class", "upload").counter().count());
+        Assertions.assertEquals(0.0, meterRegistry.get("http.bulkhead.active").tag("class", "upload").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Upload assíncrono deve manter a vaga até o processamento terminar")
+    void testAsyncUploadHoldsPermitUntilComplete() throws Exception {
+        MockHttpServletRequest request = upload("/products/1/image");
+        request.setAsyncSupported(true);
+        doFilter(request, (req, res) -> req.startAsync());
+
+        Assertions.assertEquals(1.0, meterRegistry.get("http.bulkhead.active").tag("class", "upload").gauge().value());
+        request.getAsyncContext().complete();
+        Assertions.assertEquals(0.0, meterRegistry.get("http.bulkhead.active").tag("class", "upload").gauge().value());
+    }
+
+    private MockHttpServletResponse doFilter(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    private static MockHttpServletRequest upload(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=x");
+        return request;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.domain.exception.ProductNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.StockUnavailableException;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.domain.service.StockService;
+import com.musicstore.bluevelvet.infrastructure.cache.CatalogResponseCache;
+import com.musicstore.bluevelvet.infrastructure.cache.ProductCatalogCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Duas instâncias da aplicação no mesmo banco, como atrás de um balanceador: o que uma escreve
+ * tem que sumir dos caches da outra pelo catalog_outbox, sem o catch-up periódico.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogMultiNodeTest {
+
+    // Bem acima do poll-interval usado aqui (50ms), bem abaixo do refresh-interval (1h)
+    private static final Duration MAX_DELAY = Duration.ofSeconds(3);
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    void startNodes() throws IOException {
+        String url = EmbeddedMariaDb.shared().createDatabase("catalog_multi_node");
+        // Estoque ligado nos dois: quem sobe primeiro fica com a lease
+        nodeA = startNode(url, "node-a");
+        nodeA.getBean(JdbcTemplate.class).update("INSERT INTO product (id, name, category) VALUES (1, 'Doolittle', 'Vinyl'), (2, 'Surfer Rosa', 'Vinyl')");
+        nodeB = startNode(url, "node-b");
+    }
+
+    @AfterAll
+    void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    @DisplayName("Produto alterado numa instância deve sair dos caches da outra em poucos poll-intervals")
+    void testUpdateOnOneNodeEvictsOtherNode() {
+        ProductService serviceB = nodeB.getBean(ProductService.class);
+        CatalogResponseCache responseCacheB = nodeB.getBean(CatalogResponseCache.class);
+
+        Assertions.assertEquals("Doolittle", serviceB.findById(1L).getName());
+        Assertions.assertNotNull(nodeB.getBean(ProductCatalogCache.class).get(1L), "A leitura deve ter enchido o cache");
+        responseCacheB.put("/products", responseCacheB.generation(), "application/json", "[]".getBytes(StandardCharsets.UTF_8));
+
+        nodeA.getBean(ProductService.class).updateProduct(1L, ProductRequest.builder()
+                .name("Doolittle (remaster)").category("Vinyl").isEnabled(true).inStock(true).build());
+
+        awaitWithin(MAX_DELAY, () -> "Doolittle (remaster)".equals(serviceB.findById(1L).getName()));
+        Assertions.assertNull(responseCacheB.get("/products"));
+    }
+
+    @Test
+    @DisplayName("Produto apagado numa instância não deve continuar sendo servido pela outra")
+    void testDeleteOnOneNodeEvictsOtherNode() {
+        ProductService serviceB = nodeB.getBean(ProductService.class);
+        Assertions.assertEquals("Surfer Rosa", serviceB.findById(2L).getName());
+
+        nodeA.getBean(ProductService.class).deleteById(2L);
+
+        awaitWithin(MAX_DELAY, () -> {
+            try {
+                serviceB.findById(2L);
+                return false;
+            } catch (ProductNotFoundException e) {
+                return true;
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Só o dono da lease deve atender o estoque; a outra instância responde 503")
+    void testOnlyLeaseOwnerServesStock() {
+        StockService stockA = nodeA.getBean(StockService.class);
+        StockService stockB = nodeB.getBean(StockService.class);
+
+        stockA.setOnHand(1L, 5L);
+        stockA.reserve(1L, 1);
+        Assertions.assertEquals(4L, stockA.getStock(1L).getAvailable());
+        Assertions.assertThrows(StockUnavailableException.class, () -> stockB.reserve(1L, 1));
+        Assertions.assertThrows(StockUnavailableException.class, () -> stockB.getStock(1L));
+        // Pelo banco a outra instância sabe que o produto é controlado: o PUT do produto não mexe no in_stock
+        awaitWithin(MAX_DELAY, () -> stockB.isTracked(1L));
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId) throws IOException {
+        return new SpringApplicationBuilder(BluevelvetApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=root",
+                        "spring.datasource.password=",
+                        "bluevelvet.stock.enabled=true",
+                        "bluevelvet.stock.node-id=" + nodeId,
+                        "bluevelvet.stock.journal-dir=" + Files.createTempDirectory("stock-journal"),
+                        "bluevelvet.catalog-cache.snapshot-dir=" + Files.createTempDirectory("catalog-snapshot"),
+                        // Só o outbox pode levar a mudança de uma instância para a outra
+                        "bluevelvet.catalog-cache.refresh-interval=1h",
+                        "bluevelvet.outbox.poll-interval=50ms")
+                .run();
+    }
+
+    private static void awaitWithin(Duration timeout, BooleanSupplier condition) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("A outra instância não viu a mudança em " + timeout);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Assertions.fail("Interrompido");
+            }
+        }
+    }
+}
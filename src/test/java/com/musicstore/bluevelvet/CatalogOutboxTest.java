@@ -0,0 +1,134 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutboxDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class CatalogOutboxTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CatalogOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        String url = EmbeddedMariaDb.shared().createDatabase("catalog_outbox_" + System.nanoTime());
+        Flyway.configure().dataSource(url, "root", "").load().migrate();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "root", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        outbox = new CatalogOutbox(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("O dispatcher deve entregar todos os eventos em ordem, mesmo com transações concorrentes commitando fora de ordem")
+    void testDispatchesInCommitOrderWithoutGaps() throws Exception {
+        List<CatalogChangeRecord> received = Collections.synchronizedList(new ArrayList<>());
+        CatalogOutboxDispatcher dispatcher = new CatalogOutboxDispatcher(outbox,
+                event -> received.add((CatalogChangeRecord) event), 50, Duration.ofDays(7), Clock.systemUTC(),
+                new SimpleMeterRegistry());
+
+        int writers = 8;
+        int perWriter = 40;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        Future<?> poller = executor.submit(() -> {
+            while (writing.get()) {
+                dispatcher.poll();
+            }
+            return null;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            long writer = w;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    long id = writer * 1000 + i;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // As escritas da entidade vêm antes do evento (BEFORE_COMMIT): as transações se sobrepõem
+                        sleepMillis(ThreadLocalRandom.current().nextInt(3));
+                        outbox.record(CatalogChangeEvent.product(id, CatalogChangeEvent.Type.UPDATED));
+                    });
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        poller.get(10, TimeUnit.SECONDS);
+        dispatcher.poll();
+        executor.shutdown();
+
+        Assertions.assertEquals(writers * perWriter, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            Assertions.assertEquals(i + 1, received.get(i).seq(), "Sem buracos e sem repetição");
+        }
+        Assertions.assertEquals(writers * perWriter, dispatcher.lastDispatchedSeq());
+    }
+
+    @Test
+    @DisplayName("Evento de uma transação desfeita não deve ir para o outbox nem gastar seq")
+    void testRollbackDiscardsEvent() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.record(CatalogChangeEvent.product(1L, CatalogChangeEvent.Type.CREATED));
+            status.setRollbackOnly();
+        });
+        outbox.record(CatalogChangeEvent.category(2L, CatalogChangeEvent.Type.DELETED));
+
+        List<CatalogChangeRecord> records = outbox.readAfter(0, 10);
+        Assertions.assertEquals(1, records.size());
+        Assertions.assertEquals(1, records.get(0).seq());
+        Assertions.assertEquals(CatalogChangeEvent.category(2L, CatalogChangeEvent.Type.DELETED), records.get(0).change());
+    }
+
+    @Test
+    @DisplayName("Depois da limpeza por retenção, quem ficou para trás não deve conseguir continuar")
+    void testCanResumeAfterPurge() {
+        for (long id = 1; id <= 5; id++) {
+            outbox.record(CatalogChangeEvent.product(id, CatalogChangeEvent.Type.UPDATED));
+        }
+        Assertions.assertTrue(outbox.canResumeFrom(0));
+
+        jdbcTemplate.update("UPDATE catalog_outbox SET occurred_at = '2020-01-01' WHERE seq <= 3");
+        Assertions.assertEquals(3, outbox.purgeOlderThan(Instant.parse("2021-01-01T00:00:00Z")));
+
+        Assertions.assertFalse(outbox.canResumeFrom(1));
+        Assertions.assertTrue(outbox.canResumeFrom(3));
+        Assertions.assertTrue(outbox.canResumeFrom(5));
+        Assertions.assertFalse(outbox.canResumeFrom(6), "Seq de outro banco");
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
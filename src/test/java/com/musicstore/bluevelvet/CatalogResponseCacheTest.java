@@ -0,0 +1,86 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.infrastructure.cache.CachedResponse;
+import com.musicstore.bluevelvet.infrastructure.cache.CatalogResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class CatalogResponseCacheTest {
+
+    private final CatalogResponseCache cache = new CatalogResponseCache(List.of("/products", "/api/categories"),
+            3, 16, DataSize.ofMegabytes(1), 5, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("A chave deve ignorar a ordem dos parâmetros e recusar páginas fora do limite")
+    void testKeyNormalization() {
+        Assertions.assertEquals(cache.keyOf(get("/products", "size", "20", "page", "0")),
+                cache.keyOf(get("/products", "page", "0", "size", "20")));
+        Assertions.assertNotEquals(cache.keyOf(get("/products", "page", "0")), cache.keyOf(get("/products", "page", "1")));
+        Assertions.assertNull(cache.keyOf(get("/products", "page", "3")));
+        Assertions.assertNull(cache.keyOf(get("/products/1")));
+        Assertions.assertNull(cache.keyOf(get("/products", "ids", "3,1")), "Leitura em lote não entra no cache");
+
+        MockHttpServletRequest post = get("/products");
+        post.setMethod("POST");
+        Assertions.assertNull(cache.keyOf(post));
+    }
+
+    @Test
+    @DisplayName("Deve escolher Brotli, depois gzip, respeitando q=0")
+    void testPreferredEncoding() {
+        Assertions.assertEquals("br", CatalogResponseCache.preferredEncoding("gzip, deflate, br", true));
+        Assertions.assertEquals("gzip", CatalogResponseCache.preferredEncoding("gzip, deflate, br", false));
+        Assertions.assertEquals("gzip", CatalogResponseCache.preferredEncoding("br;q=0, gzip;q=0.8", true));
+        Assertions.assertEquals("gzip", CatalogResponseCache.preferredEncoding("*", false));
+        Assertions.assertNull(CatalogResponseCache.preferredEncoding("identity", true));
+        Assertions.assertNull(CatalogResponseCache.preferredEncoding(null, true));
+    }
+
+    @Test
+    @DisplayName("A entrada guardada deve ter o gzip equivalente ao corpo original")
+    void testStoresCompressedBody() throws Exception {
+        byte[] body = "{\"content\":[],\"totalElements\":0}".repeat(50).getBytes(StandardCharsets.UTF_8);
+        String key = cache.keyOf(get("/products"));
+
+        cache.put(key, cache.generation(), "application/json", body);
+        CachedResponse cached = cache.get(key);
+
+        Assertions.assertNotNull(cached);
+        Assertions.assertTrue(cached.gzip().length < body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.gzip()))) {
+            Assertions.assertArrayEquals(body, in.readAllBytes());
+        }
+        Assertions.assertNotEquals(cached.etag("gzip"), cached.etag(null));
+    }
+
+    @Test
+    @DisplayName("Uma resposta montada antes de uma escrita não deve entrar no cache")
+    void testStaleFillIsDiscarded() {
+        String key = cache.keyOf(get("/api/categories"));
+        long generation = cache.generation();
+
+        cache.onCatalogChange(CatalogChangeEvent.category(1L, CatalogChangeEvent.Type.UPDATED));
+        CachedResponse served = cache.put(key, generation, "application/json", "[]".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertNotNull(served);
+        Assertions.assertNull(cache.get(key));
+    }
+
+    private static MockHttpServletRequest get(String uri, String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return request;
+    }
+}
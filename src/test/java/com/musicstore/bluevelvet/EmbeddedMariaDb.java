@@ -0,0 +1,78 @@
+package com.musicstore.bluevelvet;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * Servidor MariaDB embarcado (MariaDB4j), compatível com o MySQL da aplicação e sem depender de rede.
+ * Cada instância é um servidor separado, numa porta livre.
+ */
+public class EmbeddedMariaDb {
+
+    private static EmbeddedMariaDb shared;
+
+    private final DB db;
+    private final int port;
+
+    private EmbeddedMariaDb() {
+        try {
+            this.port = freePort();
+            DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+            config.setPort(port);
+            this.db = DB.newEmbeddedDB(config.build());
+            this.db.start();
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Could not start embedded MariaDB", e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    /** Servidor compartilhado entre os testes da mesma JVM. */
+    public static synchronized EmbeddedMariaDb shared() {
+        if (shared == null) {
+            shared = new EmbeddedMariaDb();
+        }
+        return shared;
+    }
+
+    /** Um servidor novo, por exemplo para simular uma réplica. */
+    public static EmbeddedMariaDb newInstance() {
+        return new EmbeddedMariaDb();
+    }
+
+    /** Cria o banco (se necessário) e devolve a URL JDBC, com usuário root sem senha. */
+    public String createDatabase(String name) {
+        try {
+            db.createDB(name);
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return "jdbc:mysql://localhost:" + port + "/" + name
+                + "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void stop() {
+        try {
+            db.stop();
+        } catch (ManagedProcessException e) {
+            // já parado
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
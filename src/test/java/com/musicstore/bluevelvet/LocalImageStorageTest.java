@@ -0,0 +1,79 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.storage.LocalImageStorage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+class LocalImageStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Deve gravar, ler e apagar uma imagem")
+    void testStoreLoadDelete() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(tempDir.resolve("user-images"));
+        byte[] content = "fake-png".getBytes(StandardCharsets.UTF_8);
+
+        storage.store("123_MAIN_capa.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        Assertions.assertTrue(storage.exists("123_MAIN_capa.png"));
+        try (InputStream in = storage.load("123_MAIN_capa.png")) {
+            Assertions.assertArrayEquals(content, in.readAllBytes());
+        }
+        Assertions.assertTrue(storage.readUrl("123_MAIN_capa.png").isEmpty(), "Storage local é servido pela aplicação");
+
+        storage.delete("123_MAIN_capa.png");
+        Assertions.assertFalse(storage.exists("123_MAIN_capa.png"));
+        Assertions.assertThrows(FileNotFoundException.class, () -> storage.load("123_MAIN_capa.png"));
+    }
+
+    @Test
+    @DisplayName("Arquivos temporários do upload não devem ficar na pasta servida")
+    void testTempFilesStayOutsideServedRoot() throws Exception {
+        Path root = tempDir.resolve("user-images");
+        LocalImageStorage storage = new LocalImageStorage(root);
+        byte[] content = "fake-png".getBytes(StandardCharsets.UTF_8);
+
+        // Stream que checa as pastas no meio da cópia, enquanto o temporário existe
+        InputStream checking = new FilterInputStream(new ByteArrayInputStream(content)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try (Stream<Path> served = Files.list(root); Stream<Path> temp = Files.list(tempDir.resolve("user-images.upload-tmp"))) {
+                    Assertions.assertEquals(0, served.count());
+                    Assertions.assertEquals(1, temp.count());
+                }
+                return super.read(b, off, len);
+            }
+        };
+        storage.store("123_MAIN_capa.png", checking, content.length, "image/png");
+
+        try (Stream<Path> served = Files.list(root)) {
+            Assertions.assertEquals(List.of(root.resolve("123_MAIN_capa.png")), served.toList());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new LocalImageStorage(root, root.resolve("tmp")));
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar nomes que saem da pasta de imagens")
+    void testRejectsPathTraversal() {
+        LocalImageStorage storage = new LocalImageStorage(tempDir.resolve("user-images"));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> storage.store("../application.yaml", new ByteArrayInputStream(new byte[0]), 0, null));
+    }
+}
@@ -0,0 +1,65 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.domain.exception.PreconditionFailedException;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.domain.service.StockService;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockingTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StockService stockService;
+
+    @InjectMocks
+    private ProductService service;
+
+    @Test
+    @DisplayName("If-Match com versão antiga deve ser recusado sem gravar nada")
+    void testStaleIfMatchIsRejected() {
+        Product product = Product.builder().id(1L).version(3L).name("Atual").build();
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.of(product));
+
+        Assertions.assertThrows(PreconditionFailedException.class,
+                () -> service.updateProduct(1L, request("Edição atrasada"), 2L));
+        Assertions.assertEquals("Atual", product.getName());
+        Mockito.verify(repository, Mockito.never()).saveAndFlush(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("If-Match com a versão atual (ou ausente) deve gravar")
+    void testCurrentVersionIsAccepted() {
+        Product product = Product.builder().id(1L).version(3L).name("Atual").build();
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.of(product));
+        Mockito.when(repository.saveAndFlush(product)).thenReturn(product);
+
+        service.updateProduct(1L, request("Nova"), 3L);
+
+        Assertions.assertEquals("Nova", product.getName());
+        Mockito.verify(repository).saveAndFlush(product);
+    }
+
+    private static ProductRequest request(String name) {
+        return ProductRequest.builder().name(name).listPrice(new BigDecimal("10.00")).discount(BigDecimal.ZERO).build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.api.response.ProductBatchResponse;
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductBatchReadTest {
+
+    private static final int PRODUCTS = 120;
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("product_batch_read"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        // As consultas medidas aqui são as do banco; o cache de produtos tem o próprio teste
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> details = new ArrayList<>();
+        List<Object[]> dimensions = new ArrayList<>();
+        for (long id = 1_000; id < 1_000 + PRODUCTS; id++) {
+            products.add(new Object[]{id, "Produto " + id});
+            for (int i = 0; i < 3; i++) {
+                images.add(new Object[]{id * 10 + i, id + "_" + i + ".png", id});
+                details.add(new Object[]{id * 10 + i, "Faixa " + i, "Música " + i, id});
+            }
+            if (id % 2 == 0) {
+                dimensions.add(new Object[]{id, 10f, 10f, 1f, 0.3f, id});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (id, name) VALUES (?, ?)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO product_image (id, file_name, product_id) VALUES (?, ?, ?)", images);
+        jdbcTemplate.batchUpdate("INSERT INTO product_detail (id, name, value, product_id) VALUES (?, ?, ?, ?)", details);
+        jdbcTemplate.batchUpdate("INSERT INTO box_dimension (id, length, width, height, weight, product_id) VALUES (?, ?, ?, ?, ?, ?)", dimensions);
+    }
+
+    @Test
+    @DisplayName("Deve buscar até centenas de produtos em 3 consultas, na ordem pedida e informando os que faltam")
+    void testLoadsInFixedNumberOfQueries() {
+        List<Long> ids = new ArrayList<>(LongStream.range(1_000, 1_000 + PRODUCTS).boxed().toList());
+        Collections.reverse(ids);
+        ids.add(5, 99L);
+        ids.add(1_005L);
+
+        ProductBatchResponse response;
+        try (QueryBudget budget = QueryBudget.start()) {
+            response = service.findByIds(ids);
+            budget.assertStatementsAtMost(3);
+        }
+
+        List<Long> returned = response.getProducts().stream().map(view -> view.product().getId()).toList();
+        Assertions.assertEquals(PRODUCTS, returned.size(), "Id repetido volta uma vez só");
+        Assertions.assertEquals(1_000L + PRODUCTS - 1, returned.get(0));
+        Assertions.assertEquals(1_000L, returned.get(returned.size() - 1));
+        Assertions.assertEquals(List.of(99L), response.getMissingIds());
+
+        // Tudo já carregado: serializar não pode disparar lazy loading
+        Product product = response.getProducts().get(0).product();
+        Assertions.assertEquals(3, product.getAdditionalImages().size());
+        Assertions.assertEquals(3, product.getProductDetails().size());
+    }
+
+    @Test
+    @DisplayName("Lista vazia ou grande demais deve dar 400")
+    void testRejectsInvalidIdLists() {
+        Assertions.assertThrows(InvalidQueryParameterException.class, () -> service.findByIds(List.of()));
+        List<Long> tooMany = LongStream.rangeClosed(1, 501).boxed().toList();
+        Assertions.assertThrows(InvalidQueryParameterException.class, () -> service.findByIds(tooMany));
+    }
+}
@@ -0,0 +1,210 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeRecord;
+import com.musicstore.bluevelvet.domain.exception.ProductNotFoundException;
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.infrastructure.cache.ProductCatalogCache;
+import com.musicstore.bluevelvet.infrastructure.cache.SingleFlight;
+import com.musicstore.bluevelvet.infrastructure.datasource.ReplicaRoutingDataSource;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ProductCacheCoalescingTest {
+
+    private static final int READERS = 32;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(READERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Misses simultâneos do mesmo produto devem fazer uma consulta só, e todos recebem o resultado")
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        ProductCatalogCache cache = newCache(Duration.ZERO);
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(READERS);
+
+        List<Future<Product>> results = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            results.add(executor.submit(() -> {
+                arrived.countDown();
+                return cache.getOrLoad(1L, id -> {
+                    queries.incrementAndGet();
+                    // Segura a carga até todos terem chegado: os outros têm que encontrá-la em andamento
+                    awaitQuietly(arrived);
+                    sleepMillis(100);
+                    return product(id, 5L, "Doolittle");
+                });
+            }));
+        }
+        for (Future<Product> result : results) {
+            Assertions.assertEquals("Doolittle", result.get(10, TimeUnit.SECONDS).getName());
+        }
+        Assertions.assertEquals(1, queries.get());
+        Assertions.assertNotNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Falha da carga deve chegar a todos que esperavam por ela, com a exceção original")
+    void testFailureIsSharedWithWaiters() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        CountDownLatch arrived = new CountDownLatch(READERS);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            results.add(executor.submit(() -> {
+                arrived.countDown();
+                return flight.load(7L, () -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(arrived);
+                    sleepMillis(100);
+                    throw new ProductNotFoundException("Produto não encontrado: 7");
+                });
+            }));
+        }
+        for (Future<String> result : results) {
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(ProductNotFoundException.class, e.getCause());
+        }
+        Assertions.assertEquals(1, loads.get());
+        // Nada fica guardado: a próxima chamada carrega de novo
+        Assertions.assertEquals("ok", flight.load(7L, () -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Com stale-while-revalidate, produto alterado em outra instância deve ser servido na hora enquanto recarrega")
+    void testServesStaleWhileRevalidating() {
+        ProductCatalogCache cache = newCache(Duration.ofSeconds(30));
+        cache.put(product(1L, 5L, "Doolittle"), cache.evictionCount());
+        cache.onCatalogChangeRecord(new CatalogChangeRecord(6L,
+                CatalogChangeEvent.product(1L, CatalogChangeEvent.Type.UPDATED), Instant.now()));
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            Product served = cache.getOrLoad(1L, id -> {
+                queries.incrementAndGet();
+                awaitQuietly(release);
+                return product(id, 6L, "Doolittle (remaster)");
+            });
+            Assertions.assertEquals("Doolittle", served.getName());
+        }
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.get(1L) == null && System.nanoTime() < deadline) {
+            sleepMillis(10);
+        }
+        Assertions.assertEquals("Doolittle (remaster)", cache.get(1L).getName());
+        Assertions.assertEquals(1, queries.get(), "Uma recarga em segundo plano, não uma por pedido");
+    }
+
+    @Test
+    @DisplayName("Escrita feita nesta instância nunca deve ser servida velha, mesmo com stale-while-revalidate")
+    void testLocalWriteIsNeverServedStale() {
+        ProductCatalogCache cache = newCache(Duration.ofSeconds(30));
+        cache.put(product(1L, 5L, "Doolittle"), cache.evictionCount());
+        cache.evict(1L);
+
+        Product served = cache.getOrLoad(1L, id -> product(id, 6L, "Doolittle (remaster)"));
+        Assertions.assertEquals("Doolittle (remaster)", served.getName());
+    }
+
+    @Test
+    @DisplayName("Quem acabou de escrever não deve entrar numa carga antiga nem ler o que uma réplica atrasada deixou no cache")
+    void testPrimaryForcedReadBypassesCacheAndLoads() throws Exception {
+        ProductCatalogCache cache = newCache(Duration.ZERO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Carga de outro pedido, de uma réplica, ainda em andamento quando a escrita commita
+        Future<Product> replicaRead = executor.submit(() -> cache.getOrLoad(1L, id -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return product(id, 5L, "Doolittle");
+        }));
+        awaitQuietly(loading);
+        cache.evict(1L);
+
+        ReplicaRoutingDataSource.setPrimaryForced(true);
+        try {
+            Product served = cache.getOrLoad(1L, id -> product(id, 6L, "Doolittle (remaster)"));
+            Assertions.assertEquals("Doolittle (remaster)", served.getName());
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryForced(false);
+        }
+        release.countDown();
+        Assertions.assertEquals("Doolittle", replicaRead.get(10, TimeUnit.SECONDS).getName());
+
+        // Réplica atrasada enchendo o cache depois da escrita: a marca de uma escrita local não a barra
+        cache.evict(1L);
+        cache.put(product(1L, 5L, "Doolittle"), cache.evictionCount());
+        ReplicaRoutingDataSource.setPrimaryForced(true);
+        try {
+            Product served = cache.getOrLoad(1L, id -> product(id, 6L, "Doolittle (remaster)"));
+            Assertions.assertEquals("Doolittle (remaster)", served.getName());
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryForced(false);
+        }
+    }
+
+    private static ProductCatalogCache newCache(Duration staleWhileRevalidate) {
+        try {
+            return new ProductCatalogCache(Files.createTempDirectory("catalog-snapshot"),
+                    Mockito.mock(ProductRepository.class), Mockito.mock(ProductTombstoneRepository.class),
+                    Mockito.mock(CatalogOutbox.class), Mockito.mock(TransactionTemplate.class),
+                    ProductField.attributesWithChangeSeq(), 1_000, 100, staleWhileRevalidate,
+                    Clock.systemUTC(), new SimpleMeterRegistry());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Product product(long id, long changeSeq, String name) {
+        return Product.builder().id(id).version(0L).changeSeq(changeSeq).name(name).build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
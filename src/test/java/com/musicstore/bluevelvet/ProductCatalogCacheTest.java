@@ -0,0 +1,203 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.infrastructure.cache.CatalogSnapshot;
+import com.musicstore.bluevelvet.infrastructure.cache.ProductCatalogCache;
+import com.musicstore.bluevelvet.infrastructure.cache.ProductCodec;
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductImage;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductCatalogCacheTest {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private CatalogOutbox outbox;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("product_catalog_cache"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        // Cada teste cria os próprios caches, simulando restarts sobre o mesmo diretório
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void seed() {
+        String[] names = {"Doolittle", "Surfer Rosa", "Bossanova", "Trompe le Monde", "Come On Pilgrim", "Indie Cindy"};
+        for (int i = 0; i < names.length; i++) {
+            jdbcTemplate.update("INSERT INTO product (id, name, category) VALUES (?, ?, 'Vinyl')", i + 1, names[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("A codificação binária deve preservar todos os campos do produto")
+    void testCodecRoundTrip() {
+        Product product = Product.builder()
+                .id(7L).version(3L).changeSeq(42L)
+                .name("Doolittle").shortDescription("LP").fullDescription("Descrição ".repeat(10_000))
+                .brand("4AD").category("Vinyl").mainImage("main.png")
+                .cost(new BigDecimal("80.00")).listPrice(new BigDecimal("149.90")).discount(new BigDecimal("0.15"))
+                .creationTime(LocalDateTime.of(2024, 3, 1, 10, 30, 0, 123_456_000)).updateTime(null)
+                .enabled(true).inStock(false)
+                .additionalImages(List.of(ProductImage.builder().fileName("a.png").build()))
+                .boxDimension(BoxDimension.builder().length(31f).width(31f).height(null).weight(0.2f).build())
+                .productDetails(List.of(ProductDetail.builder().name("Faixas").value("15").build()))
+                .build();
+
+        Product decoded = ProductCodec.decode(ByteBuffer.wrap(ProductCodec.encode(product)));
+
+        Assertions.assertEquals(42L, decoded.getChangeSeq());
+        Assertions.assertEquals(3L, decoded.getVersion());
+        Assertions.assertEquals(product.getFullDescription(), decoded.getFullDescription());
+        Assertions.assertEquals(new BigDecimal("149.90"), decoded.getListPrice());
+        Assertions.assertEquals(product.getCreationTime(), decoded.getCreationTime());
+        Assertions.assertNull(decoded.getUpdateTime());
+        Assertions.assertTrue(decoded.getEnabled());
+        Assertions.assertFalse(decoded.getInStock());
+        Assertions.assertEquals("a.png", decoded.getAdditionalImages().get(0).getFileName());
+        Assertions.assertNull(decoded.getBoxDimension().getHeight());
+        Assertions.assertEquals(0.2f, decoded.getBoxDimension().getWeight());
+        Assertions.assertEquals("15", decoded.getProductDetails().get(0).getValue());
+    }
+
+    @Test
+    @DisplayName("Depois do restart deve servir do snapshot e ler do banco só o que mudou depois dele")
+    void testWarmRestartAppliesOnlyTheDelta() throws Exception {
+        Path dir = Files.createTempDirectory("catalog-snapshot");
+        try (ProductCatalogCache first = newCache(dir)) {
+            first.recover();
+            load(first, List.of(1L, 2L, 3L));
+        }
+
+        change(1L, "Doolittle (remaster)");
+        delete(2L);
+
+        try (ProductCatalogCache second = newCache(dir)) {
+            second.recover();
+            try (QueryBudget budget = QueryBudget.start()) {
+                Assertions.assertEquals("Bossanova", second.get(3L).getName());
+                Assertions.assertEquals(0, budget.statements());
+            }
+            Assertions.assertEquals("Doolittle (remaster)", second.get(1L).getName());
+            Assertions.assertNull(second.get(2L));
+            Assertions.assertEquals(outbox.latestSeq(), second.watermark());
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot corrompido deve ser descartado, e o cache sobe vazio")
+    void testCorruptedSnapshotIsDiscarded() throws Exception {
+        Path dir = Files.createTempDirectory("catalog-snapshot");
+        try (ProductCatalogCache first = newCache(dir)) {
+            first.recover();
+            load(first, List.of(4L));
+        }
+        Path file = dir.resolve(ProductCatalogCache.FILE_NAME);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        Assertions.assertThrows(CatalogSnapshot.InvalidSnapshotException.class, () -> CatalogSnapshot.open(file));
+        try (ProductCatalogCache second = newCache(dir)) {
+            second.recover();
+            Assertions.assertNull(second.get(4L));
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot de outro banco, ou à frente deste, não deve ser usado")
+    void testSnapshotFromAnotherCatalogIsDiscarded() throws Exception {
+        Product product = Product.builder().id(5L).version(0L).changeSeq(0L).name("Fantasma").build();
+        TreeMap<Long, ByteBuffer> entries = new TreeMap<>();
+        entries.put(5L, ByteBuffer.wrap(ProductCodec.encode(product)));
+
+        Path otherCatalog = Files.createTempDirectory("catalog-snapshot");
+        CatalogSnapshot.write(otherCatalog.resolve(ProductCatalogCache.FILE_NAME), UUID.randomUUID(), 0, 0, entries);
+        try (ProductCatalogCache cache = newCache(otherCatalog)) {
+            cache.recover();
+            Assertions.assertNull(cache.get(5L));
+        }
+
+        Path ahead = Files.createTempDirectory("catalog-snapshot");
+        CatalogSnapshot.write(ahead.resolve(ProductCatalogCache.FILE_NAME), outbox.catalogId(), outbox.latestSeq() + 1_000, 0, entries);
+        try (ProductCatalogCache cache = newCache(ahead)) {
+            cache.recover();
+            Assertions.assertNull(cache.get(5L));
+        }
+    }
+
+    private ProductCatalogCache newCache(Path dir) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new ProductCatalogCache(dir, repository, tombstoneRepository, outbox, readOnly,
+                ProductField.attributesWithChangeSeq(), 1_000, 2, Duration.ZERO, Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+
+    // O mesmo caminho do ProductService numa leitura que não achou o produto no cache
+    private void load(ProductCatalogCache cache, List<Long> ids) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long observedEvictions = cache.evictionCount();
+            repository.findProjectedByIdIn(cache.attributes(), ids).forEach(product -> cache.put(product, observedEvictions));
+        });
+    }
+
+    // Como o CatalogOutbox faz: um seq novo e o produto marcado com ele
+    private void change(long id, String name) {
+        jdbcTemplate.update("UPDATE catalog_sequence SET seq = seq + 1 WHERE id = 1");
+        jdbcTemplate.update("UPDATE product SET name = ?, change_seq = (SELECT seq FROM catalog_sequence WHERE id = 1) WHERE id = ?", name, id);
+    }
+
+    private void delete(long id) {
+        jdbcTemplate.update("UPDATE catalog_sequence SET seq = seq + 1 WHERE id = 1");
+        jdbcTemplate.update("DELETE FROM product WHERE id = ?", id);
+        jdbcTemplate.update("""
+                INSERT INTO product_tombstone (product_id, change_seq, deleted_at)
+                SELECT ?, seq, NOW(6) FROM catalog_sequence WHERE id = 1
+                """, id);
+    }
+}
@@ -0,0 +1,133 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.api.response.ProductChange;
+import com.musicstore.bluevelvet.api.response.ProductChangesResponse;
+import com.musicstore.bluevelvet.domain.event.CatalogChangeEvent;
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductTombstone;
+import com.musicstore.bluevelvet.infrastructure.outbox.CatalogOutbox;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductTombstoneRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangesTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @InjectMocks
+    private ProductService service;
+
+    @Test
+    @DisplayName("Deve intercalar alterações e exclusões pelo seq e paginar com o token de continuação")
+    void testMergesAndPagesWithContinuation() {
+        List<Product> products = List.of(product(1L, 2L), product(2L, 3L), product(5L, 6L));
+        List<ProductTombstone> tombstones = List.of(tombstone(3L, 4L), tombstone(4L, 7L));
+        Mockito.when(repository.findProjectedByChangeSeqGreaterThan(Mockito.anyCollection(), Mockito.anyLong(), Mockito.anyInt()))
+                .thenAnswer(call -> after(products, call.getArgument(1), call.getArgument(2), Product::getChangeSeq));
+        Mockito.when(tombstoneRepository.findByChangeSeqGreaterThanOrderByChangeSeqAsc(Mockito.anyLong(), Mockito.any()))
+                .thenAnswer(call -> after(tombstones, call.getArgument(0), call.<Pageable>getArgument(1).getPageSize(), ProductTombstone::getChangeSeq));
+
+        ProductChangesResponse first = service.findChanges(null, null, 3);
+        Assertions.assertEquals(List.of(2L, 3L, 4L), first.getChanges().stream().map(ProductChange::getSeq).toList());
+        Assertions.assertEquals(ProductChange.Type.DELETE, first.getChanges().get(2).getType());
+        Assertions.assertNull(first.getChanges().get(2).getProduct());
+        Assertions.assertEquals(4L, first.getWatermark());
+        Assertions.assertNotNull(first.getContinuation());
+
+        ProductChangesResponse second = service.findChanges(null, first.getContinuation(), 3);
+        Assertions.assertEquals(List.of(6L, 7L), second.getChanges().stream().map(ProductChange::getSeq).toList());
+        Assertions.assertEquals(7L, second.getWatermark());
+        Assertions.assertNull(second.getContinuation(), "Última página");
+
+        ProductChangesResponse idle = service.findChanges(second.getWatermark(), null, 3);
+        Assertions.assertTrue(idle.getChanges().isEmpty());
+        Assertions.assertEquals(7L, idle.getWatermark(), "Sem mudanças a marca d'água não anda para trás");
+    }
+
+    @Test
+    @DisplayName("Token de continuação adulterado e limites fora da faixa devem dar 400")
+    void testRejectsInvalidParameters() {
+        Assertions.assertThrows(InvalidQueryParameterException.class, () -> service.findChanges(null, "bm90LWEtdG9rZW4", 10));
+        Assertions.assertThrows(InvalidQueryParameterException.class, () -> service.findChanges(null, null, 0));
+        Assertions.assertThrows(InvalidQueryParameterException.class, () -> service.findChanges(-5L, null, 10));
+    }
+
+    @Test
+    @DisplayName("A migração deve numerar os produtos existentes e o outbox deve manter change_seq e tombstones")
+    void testChangeSeqIsMaintainedByOutbox() {
+        String url = EmbeddedMariaDb.shared().createDatabase("product_change_seq");
+        Flyway.configure().dataSource(url, "root", "").target("6").load().migrate();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, "root", "", true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(new Object[]{"Produto " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO product (name) VALUES (?)", rows);
+        jdbc.update("UPDATE catalog_sequence SET seq = 10 WHERE id = 1");
+
+        Flyway.configure().dataSource(url, "root", "").load().migrate();
+        Assertions.assertEquals(List.of(11L, 12L, 13L),
+                jdbc.queryForList("SELECT change_seq FROM product ORDER BY id LIMIT 3", Long.class));
+        Assertions.assertEquals(2010L, jdbc.queryForObject("SELECT seq FROM catalog_sequence", Long.class));
+
+        CatalogOutbox outbox = new CatalogOutbox(jdbc, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        outbox.record(CatalogChangeEvent.product(1L, CatalogChangeEvent.Type.UPDATED));
+        jdbc.update("DELETE FROM product WHERE id = 2");
+        outbox.record(CatalogChangeEvent.product(2L, CatalogChangeEvent.Type.DELETED));
+
+        Assertions.assertEquals(2011L, jdbc.queryForObject("SELECT change_seq FROM product WHERE id = 1", Long.class));
+        Map<String, Object> tombstone = jdbc.queryForMap("SELECT product_id, change_seq FROM product_tombstone");
+        Assertions.assertEquals(2L, ((Number) tombstone.get("product_id")).longValue());
+        Assertions.assertEquals(2012L, ((Number) tombstone.get("change_seq")).longValue());
+
+        jdbc.execute("ANALYZE TABLE product");
+        Map<String, Object> plan = jdbc.queryForMap("EXPLAIN SELECT id FROM product WHERE change_seq > 2000 ORDER BY change_seq LIMIT 501");
+        Assertions.assertEquals("idx_product_change_seq", plan.get("key"));
+        dataSource.destroy();
+    }
+
+    private static <T> List<T> after(List<T> rows, long seq, int limit, ToLongFunction<T> changeSeq) {
+        List<T> result = new ArrayList<>();
+        for (T row : rows) {
+            if (changeSeq.applyAsLong(row) > seq && result.size() < limit) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private static Product product(Long id, Long changeSeq) {
+        return Product.builder().id(id).changeSeq(changeSeq).name("Produto " + id).updateTime(LocalDateTime.now()).build();
+    }
+
+    private static ProductTombstone tombstone(Long id, Long changeSeq) {
+        return ProductTombstone.builder().productId(id).changeSeq(changeSeq).deletedAt(LocalDateTime.now()).build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.api.request.ProductDetailRequest;
+import com.musicstore.bluevelvet.api.request.ProductDimensionRequest;
+import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductDetailMergeTest {
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("product_detail_merge"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void seed() {
+        for (long id = 1; id <= 2; id++) {
+            jdbcTemplate.update("INSERT INTO product (id, name, category) VALUES (?, 'Doolittle', 'Vinyl')", id);
+            jdbcTemplate.update("INSERT INTO product_detail (id, name, `value`, product_id) VALUES (?, 'Formato', 'LP', ?)", id * 10 + 1, id);
+            jdbcTemplate.update("INSERT INTO product_detail (id, name, `value`, product_id) VALUES (?, 'Rotação', '33', ?)", id * 10 + 2, id);
+            jdbcTemplate.update("INSERT INTO product_detail (id, name, `value`, product_id) VALUES (?, 'Ano', '1989', ?)", id * 10 + 3, id);
+            jdbcTemplate.update("INSERT INTO box_dimension (id, width, height, length, weight, product_id) VALUES (?, 31, 31, 0.5, 0.3, ?)", id, id);
+        }
+    }
+
+    @Test
+    @DisplayName("PUT deve alterar só os detalhes que mudaram, mantendo as linhas dos que ficaram iguais")
+    void testOnlyChangedDetailsAreWritten() {
+        service.updateProduct(1L, request(List.of(
+                detail("Formato", "LP"),
+                detail("Rotação", "45"),
+                detail("Gravadora", "4AD"))));
+
+        List<String> rows = jdbcTemplate.query("SELECT id, name, `value` FROM product_detail WHERE product_id = 1 ORDER BY id",
+                (rs, i) -> rs.getLong("id") + ":" + rs.getString("name") + "=" + rs.getString("value"));
+        Assertions.assertEquals(3, rows.size());
+        Assertions.assertEquals("11:Formato=LP", rows.get(0));
+        Assertions.assertEquals("12:Rotação=45", rows.get(1));
+        Assertions.assertTrue(rows.get(2).endsWith(":Gravadora=4AD"), rows.get(2));
+        Assertions.assertEquals(1L, jdbcTemplate.queryForObject("SELECT id FROM box_dimension WHERE product_id = 1", Long.class));
+    }
+
+    @Test
+    @DisplayName("PUT com os mesmos detalhes e dimensão não deve apagar nem reinserir nada")
+    void testUnchangedDetailsAreNotRewritten() {
+        try (QueryBudget budget = QueryBudget.start()) {
+            service.updateProduct(2L, request(List.of(
+                    detail("Formato", "LP"),
+                    detail("Rotação", "33"),
+                    detail("Ano", "1989"))));
+            budget.assertNoStatementContains("delete from");
+            budget.assertNoStatementContains("update product_detail");
+            budget.assertNoStatementContains("insert into product_detail");
+            budget.assertNoStatementContains("update box_dimension");
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM product_detail WHERE product_id = 2 ORDER BY id", Long.class);
+        Assertions.assertEquals(List.of(21L, 22L, 23L), ids);
+    }
+
+    private static ProductRequest request(List<ProductDetailRequest> details) {
+        return ProductRequest.builder()
+                .name("Doolittle")
+                .category("Vinyl")
+                .dimension(ProductDimensionRequest.builder().width(31f).height(31f).length(0.5f).weight(0.3f).build())
+                .details(details)
+                .build();
+    }
+
+    private static ProductDetailRequest detail(String name, String value) {
+        return ProductDetailRequest.builder().name(name).value(value).build();
+    }
+}
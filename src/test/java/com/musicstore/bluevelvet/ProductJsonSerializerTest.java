@@ -0,0 +1,82 @@
+package com.musicstore.bluevelvet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.musicstore.bluevelvet.domain.converter.ProductConverter;
+import com.musicstore.bluevelvet.domain.converter.ProductJsonSerializer;
+import com.musicstore.bluevelvet.infrastructure.entity.BoxDimension;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductDetail;
+import com.musicstore.bluevelvet.infrastructure.entity.ProductImage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class ProductJsonSerializerTest {
+
+    // Mesma configuração de datas do ObjectMapper do Spring Boot
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new SimpleModule().addSerializer(Product.class, new ProductJsonSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    @DisplayName("O JSON da entidade deve ser idêntico ao do ProductResponse")
+    void testSameJsonAsProductResponse() throws Exception {
+        Product product = Product.builder()
+                .id(7L)
+                .name("Pixies - Doolittle")
+                .shortDescription("LP \"remaster\"")
+                .fullDescription("Texto com acentuação e\nquebra de linha")
+                .brand("4AD")
+                .category("Vinyl")
+                .mainImage("1_MAIN_doolittle.png")
+                .listPrice(new BigDecimal("129.90"))
+                .discount(new BigDecimal("15.00"))
+                .cost(new BigDecimal("80.00"))
+                .enabled(true)
+                .inStock(false)
+                .creationTime(LocalDateTime.of(2024, 11, 29, 12, 0))
+                .updateTime(LocalDateTime.of(2024, 12, 1, 8, 30, 15, 123_000_000))
+                .build();
+        product.setAdditionalImages(new ArrayList<>(List.of(
+                ProductImage.builder().fileName("2_EXTRA_back.png").product(product).build())));
+        product.setProductDetails(List.of(
+                ProductDetail.builder().name("Faixas").value("15").product(product).build(),
+                ProductDetail.builder().name("Ano").value("1989").product(product).build()));
+        product.setBoxDimension(BoxDimension.builder().length(31.5f).width(31.5f).height(0.4f).weight(0.25f).build());
+
+        assertSameJson(product);
+    }
+
+    @Test
+    @DisplayName("Campos nulos e coleções ausentes devem sair como no ProductResponse")
+    void testNullFields() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setAdditionalImages(null);
+
+        assertSameJson(product);
+    }
+
+    private void assertSameJson(Product product) throws Exception {
+        String expected = mapper.writeValueAsString(ProductConverter.convertToProductResponse(product));
+        String actual = mapper.writeValueAsString(product);
+
+        // Mesma ordem de campos, não só o mesmo conteúdo
+        Assertions.assertEquals(expected, actual);
+        JsonNode tree = mapper.readTree(actual);
+        Assertions.assertTrue(tree.has("isEnabled"));
+        Assertions.assertTrue(tree.has("details"));
+    }
+}
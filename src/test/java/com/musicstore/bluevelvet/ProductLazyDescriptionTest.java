@@ -0,0 +1,87 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductLazyDescriptionTest {
+
+    private static final String DESCRIPTION = "Texto longo ".repeat(2_000);
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("product_lazy_description"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        // As consultas medidas aqui são as do banco; o cache de produtos tem o próprio teste
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO product (id, name, category, full_description) VALUES (1, 'Doolittle', 'Vinyl', ?)", DESCRIPTION);
+        jdbcTemplate.update("INSERT INTO product (id, name, category, full_description) VALUES (2, 'Surfer Rosa', 'Vinyl', ?)", DESCRIPTION);
+    }
+
+    @Test
+    @DisplayName("Carregar a entidade não deve ler full_description; ler o campo busca só ele")
+    void testFullDescriptionIsLazy() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product;
+            try (QueryBudget budget = QueryBudget.start()) {
+                product = repository.findById(1L).orElseThrow();
+                List<Product> byCategory = repository.findByCategory("Vinyl");
+                Assertions.assertEquals(2, byCategory.size());
+                budget.assertNoStatementContains("full_description");
+            }
+            Assertions.assertFalse(Hibernate.isPropertyInitialized(product, "fullDescription"));
+
+            try (QueryBudget budget = QueryBudget.start()) {
+                Assertions.assertEquals(DESCRIPTION, product.getFullDescription());
+                Assertions.assertEquals(1, budget.statements());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("O detalhe deve trazer a descrição sem consulta extra por campo lazy")
+    void testDetailReadsDescriptionInProjection() {
+        Product product;
+        try (QueryBudget budget = QueryBudget.start()) {
+            product = service.findById(2L);
+            budget.assertStatementsAtMost(3);
+        }
+        Assertions.assertEquals(DESCRIPTION, product.getFullDescription());
+    }
+}
@@ -0,0 +1,71 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.service.ProductPricing;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+class ProductPriceMigrationTest {
+
+    @Test
+    @DisplayName("O backfill da V2 deve seguir a mesma regra do ProductPricing e a consulta por faixa deve usar o índice")
+    void testBackfillAndIndex() throws Exception {
+        String url = EmbeddedMariaDb.shared().createDatabase("price_migration");
+
+        // Banco no estado anterior à coluna nova, com produtos já cadastrados
+        Flyway.configure().dataSource(url, "root", "").target("1").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "root", "")) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO product (name, list_price, discount) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < 5000; i++) {
+                    insert.setString(1, "Produto " + i);
+                    insert.setBigDecimal(2, BigDecimal.valueOf(100 + i * 37L, 2));
+                    insert.setBigDecimal(3, i % 3 == 0 ? null : BigDecimal.valueOf(i % 40));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            Flyway.configure().dataSource(url, "root", "").load().migrate();
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "SELECT list_price, discount, effective_price, effective_price_cents FROM product")) {
+                while (rs.next()) {
+                    BigDecimal expected = ProductPricing.effectivePrice(rs.getBigDecimal(1), rs.getBigDecimal(2));
+                    Assertions.assertEquals(0, expected.compareTo(rs.getBigDecimal(3)));
+                    Assertions.assertEquals(ProductPricing.toCents(expected), rs.getLong(4));
+                }
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE product");
+                try (ResultSet rs = statement.executeQuery("""
+                        EXPLAIN SELECT id FROM product
+                        WHERE effective_price_cents BETWEEN 1000 AND 2000
+                        ORDER BY effective_price_cents, id LIMIT 20""")) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals("idx_product_effective_price", rs.getString("key"));
+                    Assertions.assertEquals("range", rs.getString("type"));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Desconto percentual deve ser aplicado com arredondamento HALF_UP")
+    void testEffectivePrice() {
+        Assertions.assertEquals(new BigDecimal("17.99"), ProductPricing.effectivePrice(new BigDecimal("19.99"), BigDecimal.TEN));
+        Assertions.assertEquals(new BigDecimal("19.99"), ProductPricing.effectivePrice(new BigDecimal("19.99"), null));
+        Assertions.assertEquals(1799L, ProductPricing.toCents(new BigDecimal("17.99")));
+        Assertions.assertNull(ProductPricing.effectivePrice(null, BigDecimal.TEN));
+    }
+}
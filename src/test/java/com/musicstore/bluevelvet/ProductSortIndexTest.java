@@ -0,0 +1,135 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.domain.service.ProductSort;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductSortIndexTest {
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("20.00");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("30.00");
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("product_sort"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long cents = 100 + i * 37L % 9000;
+            rows.add(new Object[]{"Produto " + (i * 7919 % 5000), "Descrição longa " + i, BigDecimal.valueOf(cents, 2),
+                    BigDecimal.valueOf(cents, 2), cents,
+                    Timestamp.valueOf(base.plusMinutes(i * 13L % 5000)), Timestamp.valueOf(base.plusMinutes(i * 17L % 5000))});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO product (name, full_description, list_price, effective_price, effective_price_cents, creation_time, update_time)
+                VALUES (?, ?, ?, ?, ?, ?, ?)""", rows);
+        jdbcTemplate.execute("ANALYZE TABLE product");
+    }
+
+    @Test
+    @DisplayName("O SELECT gerado para toda ordenação permitida deve percorrer o índice, sem filesort")
+    void testEverySortUsesAnIndex() {
+        for (ProductSort sort : ProductSort.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                String sql = listingSql(Sort.by(direction, sort.getParameter()), null, null);
+                assertIndexOnly(sql, List.of(), sort.getIndex());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Com faixa de preço, o SELECT gerado deve usar o índice de preço para filtrar e ordenar")
+    void testPriceRangeUsesPriceIndex() {
+        List<Object> range = List.of(2000L, 3000L);
+        for (Sort sort : List.of(Sort.unsorted(), Sort.by(Sort.Direction.DESC, "effectivePrice"))) {
+            assertIndexOnly(listingSql(sort, MIN_PRICE, MAX_PRICE), range, ProductSort.EFFECTIVE_PRICE.getIndex());
+        }
+    }
+
+    @Test
+    @DisplayName("Faixa de preço com ordenação por outro campo deve ser rejeitada: nenhum índice atende os dois")
+    void testRejectsPriceRangeWithOtherSort() {
+        for (String property : List.of("name", "creationTime", "id")) {
+            Assertions.assertThrows(InvalidQueryParameterException.class, () -> service.findAll(
+                    PageRequest.of(0, 20, Sort.by(property)), MIN_PRICE, MAX_PRICE, ProductField.ALL), property);
+        }
+    }
+
+    @Test
+    @DisplayName("Campos sem índice ou ordenações compostas devem ser rejeitados")
+    void testRejectsUnindexedSorts() {
+        Assertions.assertThrows(InvalidQueryParameterException.class,
+                () -> ProductSort.resolve(Sort.by("fullDescription")));
+        Assertions.assertThrows(InvalidQueryParameterException.class,
+                () -> ProductSort.resolve(Sort.by("name", "brand")));
+
+        Assertions.assertEquals(Sort.by(Sort.Direction.DESC, "effectivePriceCents").and(Sort.by(Sort.Direction.DESC, "id")),
+                ProductSort.resolve(Sort.by(Sort.Direction.DESC, "effectivePrice")));
+        Assertions.assertEquals(Sort.by("id"), ProductSort.resolve(Sort.unsorted()));
+    }
+
+    // O SELECT da listagem como o Spring Data/Hibernate gera, capturado na execução (página 3: limit ?, ?)
+    private String listingSql(Sort sort, BigDecimal minPrice, BigDecimal maxPrice) {
+        try (QueryBudget budget = QueryBudget.start()) {
+            service.findAll(PageRequest.of(2, 20, sort), minPrice, maxPrice, ProductField.parse("name,listPrice"));
+            Set<String> statements = budget.sql();
+            return statements.stream()
+                    .filter(sql -> sql.toLowerCase().contains(" order by "))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Listagem não executou SELECT com order by: " + statements));
+        }
+    }
+
+    private void assertIndexOnly(String sql, List<Object> whereParameters, String expectedIndex) {
+        List<Object> parameters = new ArrayList<>(whereParameters);
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        // MySQL: limit ?, ? (offset, tamanho) depois dos parâmetros do WHERE
+        Assertions.assertEquals(parameters.size() + 2, placeholders, sql);
+        parameters.add(40);
+        parameters.add(20);
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters.toArray());
+        Map<String, Object> product = plan.get(0);
+        String extra = String.valueOf(product.get("Extra"));
+        Assertions.assertFalse(extra.contains("filesort"), sql + " -> " + extra);
+        Assertions.assertEquals(expectedIndex, product.get("key"), sql);
+    }
+}
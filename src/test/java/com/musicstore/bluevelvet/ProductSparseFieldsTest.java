@@ -0,0 +1,148 @@
+package com.musicstore.bluevelvet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicstore.bluevelvet.domain.converter.ProductView;
+import com.musicstore.bluevelvet.domain.exception.InvalidQueryParameterException;
+import com.musicstore.bluevelvet.domain.service.ProductField;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductSparseFieldsTest {
+
+    private static final int PRODUCTS = 40;
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.shared().createDatabase("product_sparse_fields"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        // As consultas medidas aqui são as do banco; o cache de produtos tem o próprio teste
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> details = new ArrayList<>();
+        List<Object[]> dimensions = new ArrayList<>();
+        String longText = "Descrição longa ".repeat(500);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            long cents = id * 1_000;
+            products.add(new Object[]{id, "Produto " + id, longText, id + ".png",
+                    BigDecimal.valueOf(cents, 2), BigDecimal.valueOf(cents, 2), cents});
+            for (int i = 0; i < 2; i++) {
+                images.add(new Object[]{id * 10 + i, id + "_" + i + ".png", id});
+                details.add(new Object[]{id * 10 + i, "Faixa " + i, "Música " + i, id});
+            }
+            dimensions.add(new Object[]{id, 31.5f, 31.5f, 0.4f, 0.25f, id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (id, version, name, full_description, main_image, list_price,"
+                + " effective_price, effective_price_cents) VALUES (?, 0, ?, ?, ?, ?, ?, ?)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO product_image (id, file_name, product_id) VALUES (?, ?, ?)", images);
+        jdbcTemplate.batchUpdate("INSERT INTO product_detail (id, name, value, product_id) VALUES (?, ?, ?, ?)", details);
+        jdbcTemplate.batchUpdate("INSERT INTO box_dimension (id, length, width, height, weight, product_id) VALUES (?, ?, ?, ?, ?, ?)", dimensions);
+    }
+
+    @Test
+    @DisplayName("fields= deve ler só as colunas pedidas, sem TEXT nem tabelas associadas")
+    void testReadsOnlyRequestedColumns() throws Exception {
+        Set<ProductField> fields = ProductField.parse("name,listPrice,mainImage");
+        Page<Product> page;
+        try (QueryBudget budget = QueryBudget.start()) {
+            page = service.findAll(PageRequest.of(0, 20, Sort.by("listPrice").descending()), null, null, fields);
+            budget.assertStatementsAtMost(2);
+            budget.assertNoStatementContains("full_description");
+            budget.assertNoStatementContains("product_image");
+            budget.assertNoStatementContains("product_detail");
+            budget.assertNoStatementContains("box_dimension");
+        }
+
+        Assertions.assertEquals(PRODUCTS, page.getTotalElements());
+        Assertions.assertEquals(PRODUCTS, page.getContent().get(0).getId(), "Ordenado por preço, do maior para o menor");
+
+        JsonNode json = objectMapper.valueToTree(ProductView.of(page.getContent().get(0), fields));
+        Assertions.assertEquals(List.of("id", "name", "mainImage", "listPrice"), fieldNames(json));
+        Assertions.assertEquals("Produto " + PRODUCTS, json.get("name").asText());
+    }
+
+    @Test
+    @DisplayName("Associações pedidas devem vir em uma consulta cada, sem N+1")
+    void testLoadsRequestedAssociations() throws Exception {
+        Set<ProductField> fields = ProductField.parse("details,additionalImages,dimension");
+        Page<Product> page;
+        try (QueryBudget budget = QueryBudget.start()) {
+            page = service.findAll(PageRequest.of(0, 20), new BigDecimal("50.00"), null, fields);
+            budget.assertStatementsAtMost(5);
+            budget.assertNoStatementContains("full_description");
+        }
+
+        Product product = page.getContent().get(0);
+        Assertions.assertEquals(5L, product.getId());
+        Assertions.assertEquals(PRODUCTS - 4, page.getTotalElements());
+
+        JsonNode json = objectMapper.valueToTree(ProductView.of(product, fields));
+        Assertions.assertEquals(List.of("id", "additionalImages", "dimension", "details"), fieldNames(json));
+        Assertions.assertEquals("5_1.png", json.get("additionalImages").get(1).asText());
+        Assertions.assertEquals("Música 0", json.get("details").get(0).get("value").asText());
+        Assertions.assertEquals(0.25, json.get("dimension").get("weight").asDouble(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Sem fields= o JSON deve ser o completo, igual ao da entidade")
+    void testWithoutFieldsIsFullProduct() {
+        Product product = service.findById(3L, ProductField.parse(null));
+        JsonNode view = objectMapper.valueToTree(ProductView.of(product, ProductField.ALL));
+        Assertions.assertEquals(objectMapper.valueToTree(product), view);
+
+        Product partial = service.findById(3L, ProductField.parse("name"));
+        Assertions.assertEquals(0L, partial.getVersion(), "A versão vem sempre, para o ETag");
+        Assertions.assertNull(partial.getFullDescription());
+    }
+
+    @Test
+    @DisplayName("Campo desconhecido em fields= deve dar 400")
+    void testRejectsUnknownField() {
+        Assertions.assertThrows(InvalidQueryParameterException.class, () -> ProductField.parse("name,password"));
+        Assertions.assertEquals(Set.of(ProductField.ID), ProductField.parse(""));
+    }
+
+    private static List<String> fieldNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
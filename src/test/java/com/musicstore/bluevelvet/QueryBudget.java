@@ -0,0 +1,73 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.sql.SqlStatementRecorder;
+import com.musicstore.bluevelvet.infrastructure.sql.SqlStatementStats;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orçamento de queries para testes de integração.
+ *
+ * <pre>
+ * try (QueryBudget budget = QueryBudget.start()) {
+ *     mockMvc.perform(get("/products"));
+ *     budget.assertStatementsAtMost(4);
+ *     budget.assertNoRepeatedStatements(3);
+ * }
+ * </pre>
+ */
+public class QueryBudget implements AutoCloseable {
+
+    private final SqlStatementStats stats;
+
+    private QueryBudget() {
+        this.stats = SqlStatementRecorder.startCapture();
+    }
+
+    public static QueryBudget start() {
+        return new QueryBudget();
+    }
+
+    public long statements() {
+        return stats.getStatements();
+    }
+
+    /** SQL de cada statement distinto executado (espaços normalizados), para EXPLAIN ou asserções de forma. */
+    public Set<String> sql() {
+        return stats.repeatedStatements(1).keySet();
+    }
+
+    public long rows() {
+        return stats.getRows();
+    }
+
+    public void assertStatementsAtMost(long max) {
+        Assertions.assertTrue(stats.getStatements() <= max,
+                "Orçamento de queries estourado: " + stats.getStatements() + " statements (máximo " + max + ")");
+    }
+
+    public void assertRowsAtMost(long max) {
+        Assertions.assertTrue(stats.getRows() <= max,
+                "Orçamento de linhas estourado: " + stats.getRows() + " linhas (máximo " + max + ")");
+    }
+
+    /** Falha se algum statement foi executado {@code threshold} vezes ou mais (provável N+1). */
+    public void assertNoRepeatedStatements(int threshold) {
+        Map<String, Long> repeated = stats.repeatedStatements(threshold);
+        Assertions.assertTrue(repeated.isEmpty(), "Provável N+1: " + repeated);
+    }
+
+    /** Falha se algum statement executado contém o trecho (coluna ou tabela que não deveria ser lida). */
+    public void assertNoStatementContains(String fragment) {
+        for (String sql : stats.repeatedStatements(1).keySet()) {
+            Assertions.assertFalse(sql.toLowerCase().contains(fragment.toLowerCase()), "Não deveria ler " + fragment + ": " + sql);
+        }
+    }
+
+    @Override
+    public void close() {
+        SqlStatementRecorder.stopCapture(stats);
+    }
+}
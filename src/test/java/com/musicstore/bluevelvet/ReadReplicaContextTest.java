@@ -0,0 +1,64 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.datasource.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+
+/** Sobe o contexto inteiro com réplicas e métricas de SQL ligadas; a "réplica" é o mesmo banco do primário. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ReadReplicaContextTest {
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) throws Exception {
+        String url = EmbeddedMariaDb.shared().createDatabase("read_replica_context");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("bluevelvet.datasource.replica.enabled", () -> "true");
+        registry.add("bluevelvet.datasource.replica.urls", () -> url);
+        registry.add("bluevelvet.sql.metrics.enabled", () -> "true");
+        String journalDir = Files.createTempDirectory("stock-journal").toString();
+        registry.add("bluevelvet.stock.journal-dir", () -> journalDir);
+        registry.add("bluevelvet.catalog-cache.enabled", () -> "false");
+    }
+
+    @Test
+    @DisplayName("Com réplicas e métricas de SQL ligadas o contexto deve subir e medir os statements")
+    void testContextStartsWithReplicasAndSqlMetrics() {
+        Assertions.assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        routing.checkReplicas();
+        Assertions.assertTrue(routing.isAvailable("replica-1"));
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try (QueryBudget budget = QueryBudget.start()) {
+            readOnly.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class));
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_detail", Long.class);
+            Assertions.assertEquals(2, budget.statements());
+        }
+    }
+}
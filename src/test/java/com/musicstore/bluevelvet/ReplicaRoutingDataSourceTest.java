@@ -0,0 +1,90 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.datasource.ReadYourWritesTracker;
+import com.musicstore.bluevelvet.infrastructure.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** Primário e réplica são dois servidores MariaDB locais; @@port diz quem respondeu. */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedMariaDb primaryDb;
+    private EmbeddedMariaDb replicaDb;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primaryDb = EmbeddedMariaDb.shared();
+        replicaDb = EmbeddedMariaDb.newInstance();
+        routing = new ReplicaRoutingDataSource(
+                new DriverManagerDataSource(primaryDb.createDatabase("routing"), "root", ""),
+                Map.of("replica-1", new DriverManagerDataSource(replicaDb.createDatabase("routing"), "root", "")),
+                Duration.ofSeconds(5), "SHOW REPLICA STATUS", new SimpleMeterRegistry());
+        routing.checkReplicas();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.setPrimaryForced(false);
+        replicaDb.stop();
+    }
+
+    @Test
+    @DisplayName("Transações read-only devem ir para a réplica e as demais para o primário")
+    void testRoutesByReadOnlyFlag() {
+        Assertions.assertTrue(routing.isAvailable("replica-1"));
+        Assertions.assertEquals(replicaDb.getPort(), readOnly.execute(status -> port()));
+        Assertions.assertEquals(primaryDb.getPort(), readWrite.execute(status -> port()));
+        // Fora de transação: primário
+        Assertions.assertEquals(primaryDb.getPort(), port());
+    }
+
+    @Test
+    @DisplayName("Leituras de quem acabou de escrever devem ir para o primário")
+    void testReadYourWrites() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(10));
+        tracker.recordWrite("admin@bluevelvet.com");
+
+        ReplicaRoutingDataSource.setPrimaryForced(tracker.recentlyWrote("admin@bluevelvet.com"));
+        Assertions.assertEquals(primaryDb.getPort(), readOnly.execute(status -> port()));
+
+        ReplicaRoutingDataSource.setPrimaryForced(tracker.recentlyWrote("outro@bluevelvet.com"));
+        Assertions.assertEquals(replicaDb.getPort(), readOnly.execute(status -> port()));
+    }
+
+    @Test
+    @DisplayName("Com a réplica fora do ar as leituras devem cair no primário")
+    void testFallsBackWhenReplicaIsDown() {
+        replicaDb.stop();
+        routing.checkReplicas();
+
+        Assertions.assertFalse(routing.isAvailable("replica-1"));
+        Assertions.assertEquals(primaryDb.getPort(), readOnly.execute(status -> port()));
+    }
+
+    private Integer port() {
+        return jdbc.queryForObject("SELECT @@port", Integer.class);
+    }
+}
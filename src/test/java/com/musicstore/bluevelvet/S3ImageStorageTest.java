@@ -0,0 +1,337 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.storage.S3ImageStorage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** O SDK de verdade contra um S3 falso em memória, servido por HTTP dentro do próprio teste. */
+class S3ImageStorageTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    private FakeS3 fakeS3;
+    private S3Client client;
+    private S3Presigner presigner;
+    private S3ImageStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeS3 = FakeS3.start("bluevelvet-images");
+        URI endpoint = URI.create("http://127.0.0.1:" + fakeS3.port());
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        client = S3Client.builder()
+                .endpointOverride(endpoint)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        presigner = S3Presigner.builder()
+                .endpointOverride(endpoint)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        storage = new S3ImageStorage(client, presigner, "bluevelvet-images", "user-images/", PART_SIZE, Duration.ofMinutes(15));
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.close();
+        client.close();
+        fakeS3.stop();
+    }
+
+    @Test
+    @DisplayName("Deve gravar, ler e apagar uma imagem pequena com um único PUT")
+    void testPutGetDelete() throws Exception {
+        byte[] content = "fake-png".getBytes(StandardCharsets.UTF_8);
+
+        storage.store("123_MAIN_capa.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        Assertions.assertEquals(List.of("PUT"), fakeS3.uploadRequests());
+        Assertions.assertArrayEquals(content, fakeS3.object("user-images/123_MAIN_capa.png"));
+        Assertions.assertTrue(storage.exists("123_MAIN_capa.png"));
+        try (InputStream in = storage.load("123_MAIN_capa.png")) {
+            Assertions.assertArrayEquals(content, in.readAllBytes());
+        }
+
+        storage.delete("123_MAIN_capa.png");
+        Assertions.assertFalse(storage.exists("123_MAIN_capa.png"));
+        Assertions.assertThrows(FileNotFoundException.class, () -> storage.load("123_MAIN_capa.png"));
+    }
+
+    @Test
+    @DisplayName("Arquivo maior que a parte deve ir em multipart upload e ser remontado na ordem")
+    void testMultipartUploadAbovePartSize() throws Exception {
+        byte[] content = new byte[2 * PART_SIZE + 1024];
+        new Random(42).nextBytes(content);
+
+        storage.store("123_EXTRA_encarte.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        Assertions.assertEquals(List.of("CREATE", "PART 1", "PART 2", "PART 3", "COMPLETE"), fakeS3.uploadRequests());
+        Assertions.assertEquals(List.of(PART_SIZE, PART_SIZE, 1024), fakeS3.partSizes());
+        Assertions.assertEquals(0, fakeS3.pendingUploads());
+        try (InputStream in = storage.load("123_EXTRA_encarte.png")) {
+            Assertions.assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Tamanho desconhecido também deve ir em multipart upload")
+    void testMultipartUploadWithUnknownSize() throws Exception {
+        byte[] content = "tamanho-desconhecido".getBytes(StandardCharsets.UTF_8);
+
+        storage.store("123_MAIN_capa.png", new ByteArrayInputStream(content), -1, "image/png");
+
+        Assertions.assertEquals(List.of("CREATE", "PART 1", "COMPLETE"), fakeS3.uploadRequests());
+        Assertions.assertArrayEquals(content, fakeS3.object("user-images/123_MAIN_capa.png"));
+    }
+
+    @Test
+    @DisplayName("URL pré-assinada deve apontar para o objeto, expirar no TTL e baixar a imagem sem passar pela aplicação")
+    void testPresignedReadUrl() throws Exception {
+        byte[] content = "fake-png".getBytes(StandardCharsets.UTF_8);
+        storage.store("123_MAIN_capa.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        URI url = storage.readUrl("123_MAIN_capa.png").orElseThrow();
+
+        Assertions.assertEquals("/bluevelvet-images/user-images/123_MAIN_capa.png", url.getPath());
+        Assertions.assertTrue(url.getQuery().contains("X-Amz-Expires=900"), url.getQuery());
+        Assertions.assertTrue(url.getQuery().contains("X-Amz-Signature="), url.getQuery());
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(url).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertArrayEquals(content, response.body());
+    }
+
+    /**
+     * O mínimo da API do S3 (path-style) que o S3ImageStorage usa: PUT/GET/HEAD/DELETE de objeto e
+     * multipart upload. Não confere assinaturas; decodifica o corpo aws-chunked que o SDK manda em http.
+     */
+    private static final class FakeS3 {
+
+        private final HttpServer server;
+        private final String bucket;
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        private final List<String> uploadRequests = new CopyOnWriteArrayList<>();
+        private final List<Integer> partSizes = new CopyOnWriteArrayList<>();
+        private final AtomicInteger uploadIds = new AtomicInteger();
+
+        private FakeS3(HttpServer server, String bucket) {
+            this.server = server;
+            this.bucket = bucket;
+        }
+
+        static FakeS3 start(String bucket) throws IOException {
+            FakeS3 fake = new FakeS3(HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0), bucket);
+            fake.server.createContext("/", exchange -> {
+                try {
+                    fake.handle(exchange);
+                } catch (RuntimeException e) {
+                    exchange.sendResponseHeaders(500, -1);
+                } finally {
+                    exchange.close();
+                }
+            });
+            fake.server.start();
+            return fake;
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        byte[] object(String key) {
+            return objects.get(key);
+        }
+
+        List<String> uploadRequests() {
+            return uploadRequests;
+        }
+
+        List<Integer> partSizes() {
+            return partSizes;
+        }
+
+        int pendingUploads() {
+            return uploads.size();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            if (!path.startsWith("/" + bucket + "/")) {
+                error(exchange, 404, "NoSuchBucket");
+                return;
+            }
+            String key = path.substring(bucket.length() + 2);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String uploadId = query.get("uploadId");
+
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    byte[] body = body(exchange);
+                    if (uploadId != null) {
+                        int partNumber = Integer.parseInt(query.get("partNumber"));
+                        uploadRequests.add("PART " + partNumber);
+                        partSizes.add(body.length);
+                        uploads.get(uploadId).put(partNumber, body);
+                    } else {
+                        uploadRequests.add("PUT");
+                        objects.put(key, body);
+                    }
+                    exchange.getResponseHeaders().add("ETag", etag(body));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "POST" -> {
+                    body(exchange);
+                    if (query.containsKey("uploads")) {
+                        uploadRequests.add("CREATE");
+                        String id = "upload-" + uploadIds.incrementAndGet();
+                        uploads.put(id, new TreeMap<>());
+                        xml(exchange, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                                + "</Key><UploadId>" + id + "</UploadId></InitiateMultipartUploadResult>");
+                    } else {
+                        uploadRequests.add("COMPLETE");
+                        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                        for (byte[] part : uploads.remove(uploadId).values()) {
+                            assembled.write(part);
+                        }
+                        objects.put(key, assembled.toByteArray());
+                        xml(exchange, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                                + "</Key><ETag>" + etag(assembled.toByteArray()) + "</ETag></CompleteMultipartUploadResult>");
+                    }
+                }
+                case "GET", "HEAD" -> {
+                    byte[] object = objects.get(key);
+                    if (object == null) {
+                        error(exchange, 404, "NoSuchKey");
+                        return;
+                    }
+                    exchange.getResponseHeaders().add("ETag", etag(object));
+                    if (exchange.getRequestMethod().equals("HEAD")) {
+                        exchange.sendResponseHeaders(200, -1);
+                    } else {
+                        exchange.sendResponseHeaders(200, object.length);
+                        exchange.getResponseBody().write(object);
+                    }
+                }
+                case "DELETE" -> {
+                    if (uploadId != null) {
+                        uploadRequests.add("ABORT");
+                        uploads.remove(uploadId);
+                    } else {
+                        objects.remove(key);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+
+        private static byte[] body(HttpExchange exchange) throws IOException {
+            byte[] raw = exchange.getRequestBody().readAllBytes();
+            if (exchange.getRequestHeaders().getFirst("x-amz-decoded-content-length") == null) {
+                return raw;
+            }
+            // aws-chunked: "<tamanho em hex>;chunk-signature=...\r\n<dados>\r\n", até o pedaço de tamanho 0
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            int position = 0;
+            while (true) {
+                int lineEnd = indexOfCrlf(raw, position);
+                String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+                int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+                if (size == 0) {
+                    return decoded.toByteArray();
+                }
+                decoded.write(raw, lineEnd + 2, size);
+                position = lineEnd + 2 + size + 2;
+            }
+        }
+
+        private static int indexOfCrlf(byte[] bytes, int from) {
+            for (int i = from; i < bytes.length - 1; i++) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Malformed aws-chunked body");
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> params = new TreeMap<>();
+            if (rawQuery != null) {
+                for (String pair : rawQuery.split("&")) {
+                    String[] parts = pair.split("=", 2);
+                    params.put(parts[0], parts.length > 1 ? parts[1] : "");
+                }
+            }
+            return params;
+        }
+
+        private static String etag(byte[] content) {
+            try {
+                return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static void xml(HttpExchange exchange, String body) throws IOException {
+            xml(exchange, 200, body);
+        }
+
+        private static void error(HttpExchange exchange, int status, String code) throws IOException {
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            xml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>");
+        }
+
+        private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+}
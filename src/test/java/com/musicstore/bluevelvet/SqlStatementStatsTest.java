@@ -0,0 +1,48 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.sql.SqlInstrumentationListener;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class SqlStatementStatsTest {
+
+    private final SqlInstrumentationListener listener = new SqlInstrumentationListener();
+
+    @Test
+    @DisplayName("Deve detectar o mesmo SELECT repetido como provável N+1")
+    void testDetectsRepeatedStatements() {
+        try (QueryBudget budget = QueryBudget.start()) {
+            execute("select p.id, p.name from product p limit ?");
+            for (int i = 0; i < 10; i++) {
+                execute("select d.id,  d.name\n from product_detail d where d.product_id = ?");
+            }
+
+            Assertions.assertEquals(11, budget.statements());
+            Assertions.assertThrows(AssertionError.class, () -> budget.assertNoRepeatedStatements(5));
+            Assertions.assertThrows(AssertionError.class, () -> budget.assertStatementsAtMost(3));
+            budget.assertStatementsAtMost(11);
+        }
+    }
+
+    @Test
+    @DisplayName("Statements fora da captura não devem ser contados")
+    void testCaptureIsScoped() {
+        QueryBudget budget = QueryBudget.start();
+        execute("select 1");
+        budget.close();
+        execute("select 1");
+
+        Assertions.assertEquals(1, budget.statements());
+    }
+
+    private void execute(String sql) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(1);
+        listener.afterQuery(executionInfo, List.of(new QueryInfo(sql)));
+    }
+}
@@ -0,0 +1,239 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.stock.Reservation;
+import com.musicstore.bluevelvet.infrastructure.stock.StockJournal;
+import com.musicstore.bluevelvet.infrastructure.stock.StockLedger;
+import com.musicstore.bluevelvet.infrastructure.stock.StockSnapshot;
+import com.musicstore.bluevelvet.infrastructure.stock.StockStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+class StockLedgerTest {
+
+    private static final long PRODUCT = 7L;
+
+    @TempDir
+    Path journalDir;
+
+    private final InMemoryStockStore store = new InMemoryStockStore();
+
+    @Test
+    @DisplayName("Reservas concorrentes nunca devem passar do estoque disponível")
+    void testConcurrentReservationsDoNotOversell() throws Exception {
+        StockLedger ledger = newLedger(new StockJournal(journalDir), Clock.systemUTC());
+        ledger.setOnHand(PRODUCT, 1_000);
+
+        int threads = 16;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    if (ledger.reserve(PRODUCT, 1).isPresent()) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(1_000, granted.get(), "3200 tentativas para 1000 unidades");
+        StockSnapshot snapshot = ledger.get(PRODUCT).orElseThrow();
+        Assertions.assertEquals(0, snapshot.available());
+
+        ledger.flush();
+        Assertions.assertEquals(1_000, store.counters.get(PRODUCT).reserved());
+        Assertions.assertEquals(1_000, store.reservations.size());
+        Assertions.assertEquals(Boolean.FALSE, store.inStock.get(PRODUCT), "in_stock derivado dos contadores");
+        ledger.close();
+    }
+
+    @Test
+    @DisplayName("Depois de um crash sem flush, o journal deve restaurar contadores e reservas")
+    void testRecoversFromJournalAfterCrash() throws Exception {
+        StockJournal journal = new StockJournal(journalDir);
+        StockLedger ledger = newLedger(journal, Clock.systemUTC());
+        ledger.setOnHand(PRODUCT, 10);
+        ledger.flush();
+
+        Reservation committed = ledger.reserve(PRODUCT, 3).orElseThrow();
+        Reservation open = ledger.reserve(PRODUCT, 4).orElseThrow();
+        Reservation released = ledger.reserve(PRODUCT, 2).orElseThrow();
+        Assertions.assertTrue(ledger.commit(committed.id()));
+        Assertions.assertTrue(ledger.release(released.id()));
+        // "Crash": o journal está no disco, mas nada disso chegou ao banco
+        journal.close();
+        Assertions.assertEquals(10, store.counters.get(PRODUCT).onHand());
+
+        StockLedger recovered = newLedger(new StockJournal(journalDir), Clock.systemUTC());
+
+        StockSnapshot snapshot = recovered.get(PRODUCT).orElseThrow();
+        Assertions.assertEquals(7, snapshot.onHand());
+        Assertions.assertEquals(4, snapshot.reserved());
+        Assertions.assertEquals(3, snapshot.available());
+        Assertions.assertEquals(Set.of(open.id()), store.reservations.keySet(), "A recuperação grava o estado no banco");
+        Assertions.assertTrue(recovered.reserve(PRODUCT, 4).isEmpty(), "Só restam 3 unidades");
+        Assertions.assertTrue(recovered.commit(open.id()));
+        Assertions.assertEquals(3, recovered.get(PRODUCT).orElseThrow().onHand());
+        recovered.close();
+    }
+
+    @Test
+    @DisplayName("Reservas vencidas devem voltar para o estoque")
+    void testExpiredReservationsAreReleased() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2024-11-17T19:00:00Z"));
+        StockLedger ledger = newLedger(new StockJournal(journalDir), clock);
+        ledger.setOnHand(PRODUCT, 2);
+        Reservation reservation = ledger.reserve(PRODUCT, 2).orElseThrow();
+        Assertions.assertTrue(ledger.reserve(PRODUCT, 1).isEmpty());
+
+        clock.now = clock.now.plus(Duration.ofMinutes(16));
+        Assertions.assertEquals(1, ledger.releaseExpired());
+
+        Assertions.assertEquals(2, ledger.get(PRODUCT).orElseThrow().available());
+        Assertions.assertFalse(ledger.commit(reservation.id()), "Reserva vencida não pode ser confirmada");
+        ledger.close();
+    }
+
+    @Test
+    @DisplayName("Não deve reservar produto sem estoque controlado nem baixar o físico abaixo do reservado")
+    void testRejectsUntrackedAndBelowReserved() throws Exception {
+        StockLedger ledger = newLedger(new StockJournal(journalDir), Clock.systemUTC());
+        Assertions.assertTrue(ledger.reserve(PRODUCT, 1).isEmpty());
+
+        ledger.setOnHand(PRODUCT, 5);
+        ledger.reserve(PRODUCT, 4).orElseThrow();
+        Assertions.assertTrue(ledger.setOnHand(PRODUCT, 3).isEmpty());
+        Assertions.assertEquals(5, ledger.get(PRODUCT).orElseThrow().onHand());
+        ledger.close();
+    }
+
+    @Test
+    @DisplayName("Flush sem operações não deve abrir segmentos novos no journal")
+    void testIdleFlushDoesNotRollSegments() throws Exception {
+        StockLedger ledger = newLedger(new StockJournal(journalDir), Clock.systemUTC());
+        ledger.setOnHand(PRODUCT, 5);
+        ledger.flush();
+        long segments = segmentCount();
+
+        for (int i = 0; i < 5; i++) {
+            ledger.flush();
+        }
+        Assertions.assertEquals(segments, segmentCount());
+
+        ledger.reserve(PRODUCT, 1).orElseThrow();
+        ledger.flush();
+        Assertions.assertEquals(segments, segmentCount(), "O segmento com a reserva é apagado depois do flush");
+        ledger.close();
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).count();
+        }
+    }
+
+    private StockLedger newLedger(StockJournal journal, Clock clock) throws Exception {
+        StockLedger ledger = new StockLedger(journal, store, Duration.ofMinutes(15), clock, new SimpleMeterRegistry());
+        ledger.recover();
+        return ledger;
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public java.time.ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+
+    // Mesmas regras do JdbcStockStore: last_seq só anda para frente
+    private static class InMemoryStockStore implements StockStore {
+        private final Map<Long, StockSnapshot> counters = new ConcurrentHashMap<>();
+        private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+        private final Map<Long, Boolean> inStock = new ConcurrentHashMap<>();
+        private long checkpoint;
+
+        @Override
+        public long loadCheckpoint() {
+            return checkpoint;
+        }
+
+        @Override
+        public List<StockSnapshot> loadCounters() {
+            return new ArrayList<>(counters.values());
+        }
+
+        @Override
+        public boolean isTracked(long productId) {
+            return counters.containsKey(productId);
+        }
+
+        @Override
+        public List<Reservation> loadReservations() {
+            return new ArrayList<>(reservations.values());
+        }
+
+        @Override
+        public void flush(Collection<StockSnapshot> snapshots, Collection<Reservation> opened,
+                          Collection<UUID> closed, long checkpointSeq) {
+            for (StockSnapshot snapshot : snapshots) {
+                StockSnapshot current = counters.get(snapshot.productId());
+                if (current == null || snapshot.lastSeq() > current.lastSeq()) {
+                    counters.put(snapshot.productId(), snapshot);
+                }
+                inStock.put(snapshot.productId(), snapshot.available() > 0);
+            }
+            opened.forEach(reservation -> reservations.putIfAbsent(reservation.id(), reservation));
+            closed.forEach(reservations::remove);
+            checkpoint = Math.max(checkpoint, checkpointSeq);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.musicstore.bluevelvet;
+
+import com.musicstore.bluevelvet.infrastructure.stock.JdbcStockStore;
+import com.musicstore.bluevelvet.infrastructure.stock.StockJournal;
+import com.musicstore.bluevelvet.infrastructure.stock.StockLease;
+import com.musicstore.bluevelvet.infrastructure.stock.StockLedger;
+import com.musicstore.bluevelvet.infrastructure.stock.StockOwnership;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/** Dois "nós" disputando a lease no mesmo banco; renovação chamada à mão, sem o agendador. */
+class StockOwnershipTest {
+
+    private static final long PRODUCT = 7L;
+    private static final Duration LEASE_TTL = Duration.ofSeconds(2);
+    private static final Duration MAX_FLUSH_AGE = Duration.ofMillis(800);
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactions;
+    private final List<StockJournal> journals = new ArrayList<>();
+
+    @Test
+    @DisplayName("Só um nó deve ter o ledger; sem renovar, outro assume do último flush e o antigo não grava mais")
+    void testTakeoverAfterLeaseExpires() throws Exception {
+        database("stock_ownership_takeover");
+        StockOwnership nodeA = node("node-a");
+        StockOwnership nodeB = node("node-b");
+
+        nodeA.renew();
+        nodeB.renew();
+        Assertions.assertTrue(nodeA.isOwner());
+        Assertions.assertFalse(nodeB.isOwner());
+        Assertions.assertTrue(nodeB.ledger().isEmpty());
+
+        StockLedger stale = nodeA.ledger().orElseThrow();
+        stale.setOnHand(PRODUCT, 10);
+        stale.reserve(PRODUCT, 3).orElseThrow();
+        stale.flush();
+        Assertions.assertTrue(nodeB.isTracked(PRODUCT), "Quem não é dono responde pelo banco");
+
+        // node-a para de renovar (GC longo, rede): a lease vence para os dois lados
+        Thread.sleep(LEASE_TTL.toMillis() + 200);
+        Assertions.assertFalse(nodeA.isOwner());
+        nodeB.renew();
+        Assertions.assertTrue(nodeB.isOwner());
+        Assertions.assertEquals(7, nodeB.ledger().orElseThrow().get(PRODUCT).orElseThrow().available());
+
+        // O ledger antigo ainda aceita em memória, mas o flush é barrado pela lease
+        stale.setOnHand(PRODUCT, 100);
+        Assertions.assertThrows(IllegalStateException.class, stale::flush);
+        Assertions.assertEquals(10L, jdbc.queryForObject("SELECT on_hand FROM stock_counter WHERE product_id = ?",
+                Long.class, PRODUCT));
+
+        nodeA.renew();
+        Assertions.assertFalse(nodeA.isOwner());
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    @DisplayName("O journal local só deve ser reaplicado se o último checkpoint foi deste nó")
+    void testJournalIsReplayedOnlyByCheckpointOwner() throws Exception {
+        database("stock_ownership_journal");
+        StockOwnership nodeA = node("node-a");
+        nodeA.renew();
+        StockLedger ledger = nodeA.ledger().orElseThrow();
+        ledger.setOnHand(PRODUCT, 10);
+        ledger.flush();
+        ledger.reserve(PRODUCT, 2).orElseThrow();
+        // "Crash" sem flush e sem soltar a lease
+        crash();
+
+        // Reinício do mesmo nó: a lease ainda é dele e o journal completa o banco
+        StockOwnership restartedA = node("node-a");
+        restartedA.renew();
+        Assertions.assertEquals(8, restartedA.ledger().orElseThrow().get(PRODUCT).orElseThrow().available());
+        restartedA.ledger().orElseThrow().reserve(PRODUCT, 1).orElseThrow();
+        crash();
+
+        // Outro nó assume: a última reserva de node-a não chegou ao banco e fica perdida
+        Thread.sleep(LEASE_TTL.toMillis() + 200);
+        StockOwnership nodeB = node("node-b");
+        nodeB.renew();
+        Assertions.assertEquals(8, nodeB.ledger().orElseThrow().get(PRODUCT).orElseThrow().available());
+        nodeB.ledger().orElseThrow().setOnHand(PRODUCT, 20);
+        nodeB.close();
+
+        // node-a volta depois: o banco (de node-b) vale, e o journal antigo é descartado
+        StockOwnership returnedA = node("node-a");
+        returnedA.renew();
+        Assertions.assertEquals(18, returnedA.ledger().orElseThrow().get(PRODUCT).orElseThrow().available());
+        try (Stream<Path> files = Files.list(tempDir.resolve("node-a"))) {
+            Assertions.assertTrue(files.anyMatch(file -> file.getFileName().toString().endsWith(".discarded")));
+        }
+        returnedA.close();
+    }
+
+    @Test
+    @DisplayName("Com o flush falhando, o dono deve parar de aceitar operações antes de a lease vencer")
+    void testOwnerStopsWhileFlushesFail() throws Exception {
+        database("stock_ownership_flush_failing");
+        StockOwnership nodeA = node("node-a");
+        nodeA.renew();
+        StockLedger ledger = nodeA.ledger().orElseThrow();
+        ledger.setOnHand(PRODUCT, 10);
+        ledger.flush();
+        Assertions.assertTrue(nodeA.isFlushCurrent());
+
+        // O banco continua renovando a lease, mas o flush não grava mais
+        jdbc.execute("RENAME TABLE stock_counter TO stock_counter_offline");
+        ledger.reserve(PRODUCT, 1).orElseThrow();
+        Assertions.assertThrows(RuntimeException.class, ledger::flush);
+        Thread.sleep(MAX_FLUSH_AGE.toMillis() + 100);
+        nodeA.renew();
+        Assertions.assertTrue(nodeA.isOwner());
+        Assertions.assertFalse(nodeA.isFlushCurrent(), "O que fosse aceito agora se perderia numa troca de dono");
+
+        jdbc.execute("RENAME TABLE stock_counter_offline TO stock_counter");
+        ledger.flush();
+        Assertions.assertTrue(nodeA.isFlushCurrent());
+        Assertions.assertEquals(1L, jdbc.queryForObject("SELECT reserved FROM stock_counter WHERE product_id = ?",
+                Long.class, PRODUCT));
+        nodeA.close();
+    }
+
+    @Test
+    @DisplayName("A mudança de in_stock deve ser publicada dentro da transação do flush")
+    void testInStockChangeIsPublishedInsideFlushTransaction() throws Exception {
+        database("stock_ownership_in_stock_event");
+        jdbc.update("INSERT INTO product (id, name, category) VALUES (?, 'Doolittle', 'Vinyl')", PRODUCT);
+        List<Boolean> inTransaction = new ArrayList<>();
+        StockOwnership nodeA = node("node-a", event -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            // Como o CatalogOutbox falhando antes do commit
+            throw new IllegalStateException("outbox unavailable");
+        });
+        nodeA.renew();
+        StockLedger ledger = nodeA.ledger().orElseThrow();
+        ledger.setOnHand(PRODUCT, 10);
+
+        Assertions.assertThrows(IllegalStateException.class, ledger::flush);
+        Assertions.assertEquals(List.of(true), inTransaction);
+        Assertions.assertNull(jdbc.queryForObject("SELECT in_stock FROM product WHERE id = ?", Boolean.class, PRODUCT),
+                "Sem o evento, o flush inteiro volta");
+        Assertions.assertEquals(0L, jdbc.queryForObject("SELECT COUNT(*) FROM stock_counter", Long.class));
+        nodeA.close();
+    }
+
+    private void database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                EmbeddedMariaDb.shared().createDatabase(name), "root", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private StockOwnership node(String nodeId) {
+        return node(nodeId, event -> { });
+    }
+
+    // Sem start(): nem renovação nem flush em segundo plano, o teste controla os dois
+    private StockOwnership node(String nodeId, ApplicationEventPublisher eventPublisher) {
+        JdbcStockStore store = new JdbcStockStore(jdbc, transactions, eventPublisher, nodeId);
+        Path journalDir = tempDir.resolve(nodeId);
+        return new StockOwnership(new StockLease(jdbc, nodeId, LEASE_TTL), store, () -> {
+            StockJournal journal = new StockJournal(journalDir);
+            journals.add(journal);
+            StockLedger ledger = new StockLedger(journal, store, Duration.ofMinutes(15), Clock.systemUTC(),
+                    new SimpleMeterRegistry());
+            ledger.recover();
+            return ledger;
+        }, MAX_FLUSH_AGE);
+    }
+
+    private void crash() throws Exception {
+        journals.remove(journals.size() - 1).close();
+    }
+}